@@ -0,0 +1,112 @@
+import benchmarks.GameOps;
+
+/**
+ * The EngineOps class implements the benchmark operations of GameOps on top
+ * of MineSweeperEngine and MineSweeperService. It lives in the default package
+ * next to the game classes so it can reach their package-private members.
+ */
+public class EngineOps implements GameOps {
+
+    private int rows;
+    private int cols;
+    private int mines;
+
+    private MineSweeperEngine engine;
+    private MineSweeperEngine placement;
+    private MineSweeperService service;
+
+    private int[] numbered;
+    private int numberedCount;
+    private int nextNumbered;
+    private int nextCell;
+
+    private int[] winningMoves;
+    private int winningMovesCount;
+
+    @Override
+    public void setUp(int rows, int cols, int mines, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.mines = mines;
+        this.engine = new MineSweeperEngine(rows, cols, mines, seed);
+        this.engine.startGame();
+
+        int cells = rows * cols;
+        this.numbered = new int[cells];
+        this.numberedCount = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!engine.isMine(cell / cols, cell % cols) && engine.getMinesCount(cell / cols, cell % cols) > 0) {
+                numbered[numberedCount++] = cell;
+            }
+        }
+
+        this.winningMoves = new int[cells];
+        this.winningMovesCount = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!engine.isMine(cell / cols, cell % cols) && engine.checkMine(cell / cols, cell % cols) > 0) {
+                winningMoves[winningMovesCount++] = cell;
+            }
+        }
+        engine.restartBoard();
+        this.placement = new MineSweeperEngine(rows, cols, mines, seed);
+    }
+
+    @Override
+    public int placeMines() {
+        // Every start draws the next board from the placement generator
+        placement.startGame();
+        return placement.getMinesCount(0, 0);
+    }
+
+    @Override
+    public int revealSingle() {
+        if (nextNumbered == numberedCount) {
+            engine.restartBoard();
+            nextNumbered = 0;
+        }
+        int cell = numbered[nextNumbered++];
+        return engine.checkMine(cell / cols, cell % cols);
+    }
+
+    @Override
+    public int minesCount() {
+        int cell = nextCell;
+        nextCell = cell + 1 == rows * cols ? 0 : cell + 1;
+        return engine.getMinesCount(cell / cols, cell % cols);
+    }
+
+    @Override
+    public void restart() {
+        engine.restartBoard();
+    }
+
+    @Override
+    public int floodFill() {
+        return engine.reveal(0, 0);
+    }
+
+    @Override
+    public void prepareWinningMove() {
+        engine.restartBoard();
+        for (int i = 0; i < winningMovesCount - 1; i++) {
+            engine.checkMine(winningMoves[i] / cols, winningMoves[i] % cols);
+        }
+    }
+
+    @Override
+    public boolean playWinningMove() {
+        int cell = winningMoves[winningMovesCount - 1];
+        engine.reveal(cell / cols, cell % cols);
+        return engine.isGameWon();
+    }
+
+    @Override
+    public void printTrace() {
+        if (service == null) {
+            service = new MineSweeperService(rows, cols, mines);
+            service.getEngine().startGame();
+            service.getEngine().checkMine(rows / 2, cols / 2);
+        }
+        service.printTrace();
+    }
+}
@@ -0,0 +1,48 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the engine hot paths on square boards of several sizes and mine
+ * densities: mine placement on a reused board, uncovering a single numbered
+ * cell and reading an adjacent mine count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EngineBenchmark {
+
+    @Param({ "16", "128", "1024" })
+    int size;
+
+    @Param({ "0.12", "0.20", "0.35" })
+    double density;
+
+    private GameOps ops;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ops = GameOps.load();
+        ops.setUp(size, size, Math.max(1, (int) (size * size * density)), 42L);
+    }
+
+    @Benchmark
+    public int setMines() {
+        return ops.placeMines();
+    }
+
+    @Benchmark
+    public int checkMineSingleCell() {
+        return ops.revealSingle();
+    }
+
+    @Benchmark
+    public int getMinesCount() {
+        return ops.minesCount();
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the largest possible flood fill: a single click on a board
+ * without mines, which uncovers every cell.
+ *
+ * A single fill of a small board is too short to time on its own, so every
+ * invocation fills BOARDS boards, covered again before it, and the score is
+ * reported per board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FloodFillBenchmark {
+
+    static final int BOARDS = 8;
+
+    @Param({ "16", "128", "1024" })
+    int size;
+
+    private final GameOps[] boards = new GameOps[BOARDS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < BOARDS; i++) {
+            boards[i] = GameOps.load();
+            boards[i].setUp(size, size, 0, 42L + i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void restart() {
+        for (GameOps ops : boards) {
+            ops.restart();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int checkMineMaximalFloodFill() {
+        int uncovered = 0;
+        for (GameOps ops : boards) {
+            uncovered += ops.floodFill();
+        }
+        return uncovered;
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+/**
+ * The GameOps interface is the bridge between the JMH benchmarks and the game
+ * classes. JMH refuses benchmark classes in the default package, and classes in
+ * a named package cannot refer to the game classes, which live in the default
+ * package. The benchmarks therefore drive the game through this interface,
+ * implemented by EngineOps in the default package and loaded once per trial.
+ */
+public interface GameOps {
+
+    /**
+     * Creates and starts the board the other operations run against.
+     *
+     * @param rows  the number of rows
+     * @param cols  the number of columns
+     * @param mines the number of mines
+     * @param seed  the seed for mine placement
+     */
+    void setUp(int rows, int cols, int mines, long seed);
+
+    /**
+     * Places the mines of a new game on a board kept for this purpose and
+     * computes the adjacent counts, without allocating a new board.
+     *
+     * @return a value derived from the board, to be consumed by the benchmark
+     */
+    int placeMines();
+
+    /**
+     * Uncovers the next numbered safe cell, covering the board again once every
+     * numbered cell has been uncovered.
+     *
+     * @return the number of cells uncovered
+     */
+    int revealSingle();
+
+    /**
+     * Reads the adjacent mine count of the next cell, cycling over the board.
+     *
+     * @return the adjacent mine count
+     */
+    int minesCount();
+
+    /**
+     * Covers every cell again, keeping the mines.
+     */
+    void restart();
+
+    /**
+     * Uncovers the top-left cell. On a board without mines this opens the whole
+     * board in a single flood fill.
+     *
+     * @return the number of cells uncovered
+     */
+    int floodFill();
+
+    /**
+     * Restarts the board and plays every move of a winning game except the last.
+     */
+    void prepareWinningMove();
+
+    /**
+     * Plays the move that uncovers the last safe cells and wins the game.
+     *
+     * @return true if the game was won
+     */
+    boolean playWinningMove();
+
+    /**
+     * Prints the board to the console.
+     */
+    void printTrace();
+
+    static GameOps load() {
+        try {
+            return (GameOps) Class.forName("EngineOps").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("EngineOps is not on the benchmark classpath", e);
+        }
+    }
+}
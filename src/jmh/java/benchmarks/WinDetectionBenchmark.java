@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the final move of a game: uncovering the last safe cells and
+ * detecting the win.
+ *
+ * A single winning move on a small board is too short to time on its own, so
+ * every invocation plays the winning move of BOARDS boards, each brought one
+ * move short of the win before it, and the score is reported per board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WinDetectionBenchmark {
+
+    static final int BOARDS = 8;
+
+    @Param({ "16", "128", "1024" })
+    int size;
+
+    @Param({ "0.12", "0.20", "0.35" })
+    double density;
+
+    private final GameOps[] boards = new GameOps[BOARDS];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < BOARDS; i++) {
+            boards[i] = GameOps.load();
+            boards[i].setUp(size, size, Math.max(1, (int) (size * size * density)), 42L + i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        for (GameOps ops : boards) {
+            ops.prepareWinningMove();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int winningMove() {
+        int won = 0;
+        for (GameOps ops : boards) {
+            if (ops.playWinningMove()) {
+                won++;
+            }
+        }
+        return won;
+    }
+}
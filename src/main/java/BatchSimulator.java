@@ -0,0 +1,227 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * The BatchSimulator class plays many headless games in parallel on a
+ * ForkJoinPool and aggregates their statistics. Each game runs on its own
+ * MineSweeperEngine, so no AWT class is loaded and no input is read.
+ *
+ * Game i of a batch places its mines from the seed {@code seed + i}, so a
+ * batch started with the same options plays the same boards.
+ *
+ * Usage:
+ * MineSweeperRunner --batch games=100000 size=16x30 mines=99 policy=random seed=1 threads=8 mode=classic
+ *     topology=square stats=games.stats
+ *
+ * policy is "random", "solver" or "script:path/to/moves.txt"; threads defaults to
+ * the number of available processors; mode is a BoardMode name (classic,
+ * safe_start or no_guess) and topology a BoardTopology name (square, square_4,
+ * torus or hex). stats names a GameStatsStore file that the result of every
+ * finished game is added to.
+ */
+public class BatchSimulator {
+
+    private static final int GAMES_PER_TASK = 256;
+
+    private final int numRows;
+    private final int numCols;
+    private final int minesCount;
+    private final LongFunction<MovePolicy> policies;
+    private final BoardMode mode;
+    private final BoardTopology topology;
+    private GameStatsStore store;
+
+    public BatchSimulator(int numRows, int numCols, int minesCount, LongFunction<MovePolicy> policies) {
+        this(numRows, numCols, minesCount, policies, BoardMode.CLASSIC);
+    }
+
+    public BatchSimulator(int numRows, int numCols, int minesCount, LongFunction<MovePolicy> policies, BoardMode mode) {
+        this(numRows, numCols, minesCount, policies, mode, BoardTopology.SQUARE);
+    }
+
+    public BatchSimulator(int numRows, int numCols, int minesCount, LongFunction<MovePolicy> policies, BoardMode mode,
+                          BoardTopology topology) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.minesCount = minesCount;
+        this.policies = policies;
+        this.mode = mode;
+        this.topology = topology;
+    }
+
+    /**
+     * Records the result of every finished game of the following batches to a
+     * store.
+     *
+     * @param store the store, or null to record nothing
+     */
+    public void setStatsStore(GameStatsStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Plays a batch of games and returns their aggregated statistics.
+     *
+     * @param games   the number of games to play
+     * @param seed    the seed of the first game
+     * @param threads the number of worker threads
+     * @return the statistics of the batch
+     */
+    public SimulationStats run(long games, long seed, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            SimulationStats stats = pool.invoke(new SimulationTask(seed, seed + games));
+            stats.setElapsedNanos(System.nanoTime() - start);
+            return stats;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one game to the end, or until the policy runs out of moves.
+     *
+     * @param gameSeed the seed of the game
+     * @param stats    the statistics to record the game in
+     */
+    void playGame(long gameSeed, SimulationStats stats) {
+        MineSweeperEngine engine = new MineSweeperEngine(numRows, numCols, minesCount,
+                BoardRandom.splittable(gameSeed), mode, topology);
+        engine.startGame();
+        MovePolicy policy = policies.apply(gameSeed);
+
+        while (!engine.isGameOver()) {
+            int cell = policy.nextMove(engine);
+            if (cell < 0) {
+                break;
+            }
+            stats.recordReveal(engine.reveal(cell / numCols, cell % numCols));
+        }
+        stats.recordGame(engine);
+        GameResult result = engine.getCompletion().getNow(null);
+        if (store != null && result != null) {
+            store.record(engine, result);
+        }
+    }
+
+    /**
+     * Plays the games whose seeds fall in [from, to), splitting the range in
+     * half until it is small enough to play on one thread.
+     */
+    private final class SimulationTask extends RecursiveTask<SimulationStats> {
+        private final long from;
+        private final long to;
+
+        SimulationTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                SimulationStats stats = new SimulationStats();
+                for (long gameSeed = from; gameSeed < to; gameSeed++) {
+                    playGame(gameSeed, stats);
+                }
+                return stats;
+            }
+            long middle = from + (to - from) / 2;
+            SimulationTask left = new SimulationTask(from, middle);
+            left.fork();
+            SimulationStats right = new SimulationTask(middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Runs a batch from command line options of the form key=value and prints
+     * its statistics. See the class comment for the supported options.
+     *
+     * @param args the options
+     * @throws IOException if the move script cannot be read
+     */
+    public static void run(String[] args) throws IOException {
+        long games = 10000;
+        int numRows = 16;
+        int numCols = 30;
+        int minesCount = 99;
+        String policy = "random";
+        long seed = System.nanoTime();
+        int threads = Runtime.getRuntime().availableProcessors();
+        BoardMode mode = BoardMode.CLASSIC;
+        BoardTopology topology = BoardTopology.SQUARE;
+        String storeFile = null;
+
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                continue;
+            }
+            String key = arg.substring(0, split);
+            String value = arg.substring(split + 1);
+            switch (key) {
+                case "games":
+                    games = Long.parseLong(value);
+                    break;
+                case "size":
+                    int x = value.toLowerCase().indexOf('x');
+                    numRows = Integer.parseInt(x < 0 ? value : value.substring(0, x));
+                    numCols = x < 0 ? numRows : Integer.parseInt(value.substring(x + 1));
+                    break;
+                case "mines":
+                    minesCount = Integer.parseInt(value);
+                    break;
+                case "policy":
+                    policy = value;
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "mode":
+                    mode = BoardMode.named(value);
+                    break;
+                case "topology":
+                    topology = BoardTopology.named(value);
+                    break;
+                case "stats":
+                    storeFile = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown batch option: " + key);
+            }
+        }
+
+        LongFunction<MovePolicy> policies;
+        if (policy.startsWith("script:")) {
+            policies = MovePolicy.scripted(Paths.get(policy.substring("script:".length())), numRows, numCols);
+        } else if (policy.equals("random")) {
+            policies = MovePolicy.random();
+        } else if (policy.equals("solver")) {
+            policies = MovePolicy.solver();
+        } else {
+            throw new IllegalArgumentException("Unknown move policy: " + policy);
+        }
+
+        System.out.println("Simulating " + games + " games of " + numRows + "x" + numCols + " with "
+                + minesCount + " mines, " + mode + " " + topology + " boards, policy " + policy + ", seed " + seed
+                + ", " + threads + " threads");
+        BatchSimulator simulator = new BatchSimulator(numRows, numCols, minesCount, policies, mode, topology);
+        if (storeFile == null) {
+            System.out.println(simulator.run(games, seed, threads));
+            return;
+        }
+        try (GameStatsStore store = new GameStatsStore(Paths.get(storeFile))) {
+            simulator.setStatsStore(store);
+            System.out.println(simulator.run(games, seed, threads));
+            System.out.println(store.getSummary(numRows, numCols, minesCount));
+        }
+    }
+}
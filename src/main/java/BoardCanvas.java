@@ -0,0 +1,264 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * The BoardCanvas class paints the whole Minesweeper board as a single Swing
+ * component, straight from the state held by a MineSweeperEngine.
+ *
+ * A single mouse listener maps the pixel under the cursor to a cell: a left
+ * click uncovers it and a right click toggles its flag. Holding Ctrl while
+ * turning the mouse wheel zooms in and out; placed in a JScrollPane the board
+ * can be scrolled when it does not fit the window.
+ *
+ * Only the tiles inside the current clip are painted, and after a move only
+ * the rectangle around the changed cells is repainted, so painting cost
+ * follows what is visible and what changed rather than the size of the board.
+ *
+ * On a HEX board the odd rows are drawn half a tile to the right, as in the
+ * console, so each tile sits between the two tiles above and below it that it
+ * touches.
+ */
+public class BoardCanvas extends JComponent {
+
+    static final int MIN_TILE_SIZE = 4;
+    static final int MAX_TILE_SIZE = 70;
+    static final int DEFAULT_TILE_SIZE = 30;
+
+    private static final Color HIDDEN_COLOR = new Color(0x9E, 0x9E, 0x9E);
+    private static final Color HIDDEN_EDGE = new Color(0xE0, 0xE0, 0xE0);
+    private static final Color REVEALED_COLOR = new Color(0xEE, 0xEE, 0xEE);
+    private static final Color GRID_COLOR = new Color(0xBD, 0xBD, 0xBD);
+    private static final Color[] COUNT_COLORS = {
+            null, Color.BLUE, new Color(0x1B, 0x5E, 0x20), Color.RED, new Color(0x1A, 0x23, 0x7E),
+            new Color(0x8B, 0x00, 0x00), new Color(0x00, 0x83, 0x8F), Color.BLACK, Color.DARK_GRAY
+    };
+
+    private final MineSweeperEngine engine;
+    private final MineSweeperService service;
+
+    private int tileSize;
+    private Font countFont;
+
+    public BoardCanvas(MineSweeperEngine engine, MineSweeperService service) {
+        this.engine = engine;
+        this.service = service;
+        setOpaque(true);
+        setTileSize(DEFAULT_TILE_SIZE);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                moveEventCallBack(e);
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if ((e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) != 0) {
+                    zoom(e.getWheelRotation() < 0 ? 1 : -1, e.getPoint());
+                } else if (getParent() != null) {
+                    getParent().dispatchEvent(SwingUtilities.convertMouseEvent(BoardCanvas.this, e, getParent()));
+                }
+            }
+        };
+        addMouseListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Sets the size of a tile in pixels, clamped to the supported zoom range,
+     * and resizes the component to fit the board.
+     *
+     * @param size the new tile size in pixels
+     */
+    public void setTileSize(int size) {
+        this.tileSize = Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, size));
+        this.countFont = new Font("Arial", Font.BOLD, Math.max(1, tileSize * 3 / 5));
+        int width = engine.getNumCols() * tileSize + (engine.getNumRows() > 1 ? rowShift(1) : 0);
+        setPreferredSize(new Dimension(width, engine.getNumRows() * tileSize));
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Changes the tile size by roughly 15% per step and scrolls the enclosing
+     * viewport so the cell under the mouse stays under the mouse.
+     *
+     * @param steps  positive to zoom in, negative to zoom out
+     * @param anchor the point to keep in place, in component coordinates
+     */
+    private void zoom(int steps, Point anchor) {
+        int oldSize = tileSize;
+        int newSize = steps > 0
+                ? Math.max(oldSize + 1, oldSize * 115 / 100)
+                : Math.min(oldSize - 1, oldSize * 100 / 115);
+        setTileSize(newSize);
+        if (tileSize == oldSize) {
+            return;
+        }
+
+        Container parent = getParent();
+        if (parent instanceof JViewport) {
+            JViewport viewport = (JViewport) parent;
+            Point view = viewport.getViewPosition();
+            int x = anchor.x * tileSize / oldSize - (anchor.x - view.x);
+            int y = anchor.y * tileSize / oldSize - (anchor.y - view.y);
+            viewport.setViewPosition(new Point(Math.max(0, x), Math.max(0, y)));
+        }
+    }
+
+    /**
+     * Returns the cell id under the given pixel.
+     *
+     * @param x the x coordinate in component pixels
+     * @param y the y coordinate in component pixels
+     * @return the cell id, or -1 if the pixel is outside the board
+     */
+    public int cellAt(int x, int y) {
+        if (y < 0) {
+            return -1;
+        }
+        int row = y / tileSize;
+        x -= rowShift(row);
+        if (x < 0) {
+            return -1;
+        }
+        int col = x / tileSize;
+        if (row >= engine.getNumRows() || col >= engine.getNumCols()) {
+            return -1;
+        }
+        return row * engine.getNumCols() + col;
+    }
+
+    /**
+     * Returns how far a row is shifted to the right: half a tile for the odd
+     * rows of a HEX board, 0 otherwise.
+     */
+    private int rowShift(int row) {
+        return engine.getTopology() == BoardTopology.HEX && (row & 1) == 1 ? tileSize / 2 : 0;
+    }
+
+    /**
+     * Handles a mouse press on the board. A left click uncovers the tile, a
+     * right click toggles its flag.
+     *
+     * @param e the MouseEvent triggered by the user's action
+     */
+    private void moveEventCallBack(MouseEvent e) {
+        int cell = cellAt(e.getX(), e.getY());
+        if (cell < 0) {
+            return;
+        }
+        int row = cell / engine.getNumCols();
+        int col = cell % engine.getNumCols();
+
+        if (e.getButton() == MouseEvent.BUTTON1) {
+            service.onReveal(row, col);
+        } else if (e.getButton() == MouseEvent.BUTTON3) {
+            service.onFlag(row, col);
+        }
+    }
+
+    /**
+     * Schedules a repaint of the rectangle covering the given cells.
+     *
+     * @param cells the changed cell ids; only the first count entries are read
+     * @param count the number of changed cells
+     */
+    public void repaintCells(int[] cells, int count) {
+        if (count == 0) {
+            return;
+        }
+        int numCols = engine.getNumCols();
+        int minRow = Integer.MAX_VALUE;
+        int maxRow = -1;
+        int minCol = Integer.MAX_VALUE;
+        int maxCol = -1;
+        for (int i = 0; i < count; i++) {
+            int row = cells[i] / numCols;
+            int col = cells[i] - row * numCols;
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minCol = Math.min(minCol, col);
+            maxCol = Math.max(maxCol, col);
+        }
+        int shift = rowShift(minRow + 1);
+        repaint(minCol * tileSize, minRow * tileSize,
+                (maxCol - minCol + 1) * tileSize + shift, (maxRow - minRow + 1) * tileSize);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int rowFrom = Math.max(0, clip.y / tileSize);
+        int rowTo = Math.min(engine.getNumRows() - 1, (clip.y + clip.height - 1) / tileSize);
+
+        g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        if (g instanceof Graphics2D) {
+            ((Graphics2D) g).setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        g.setFont(countFont);
+        FontMetrics metrics = g.getFontMetrics();
+
+        for (int row = rowFrom; row <= rowTo; row++) {
+            int shift = rowShift(row);
+            int colFrom = Math.max(0, Math.floorDiv(clip.x - shift, tileSize));
+            int colTo = Math.min(engine.getNumCols() - 1, Math.floorDiv(clip.x + clip.width - 1 - shift, tileSize));
+            for (int col = colFrom; col <= colTo; col++) {
+                paintTile(g, metrics, row, col, shift + col * tileSize, row * tileSize);
+            }
+        }
+    }
+
+    /**
+     * Paints a single tile at the given pixel position.
+     */
+    private void paintTile(Graphics g, FontMetrics metrics, int row, int col, int x, int y) {
+        int size = tileSize;
+        if (engine.isRevealed(row, col)) {
+            g.setColor(REVEALED_COLOR);
+            g.fillRect(x, y, size, size);
+            g.setColor(GRID_COLOR);
+            g.drawRect(x, y, size - 1, size - 1);
+
+            int count = engine.getMinesCount(row, col);
+            if (count > 0 && size >= 10) {
+                String text = Integer.toString(count);
+                g.setColor(COUNT_COLORS[count]);
+                g.drawString(text, x + (size - metrics.stringWidth(text)) / 2,
+                        y + (size - metrics.getHeight()) / 2 + metrics.getAscent());
+            }
+            return;
+        }
+
+        g.setColor(HIDDEN_COLOR);
+        g.fillRect(x, y, size, size);
+        if (size >= 8) {
+            g.setColor(HIDDEN_EDGE);
+            g.drawLine(x, y, x + size - 2, y);
+            g.drawLine(x, y, x, y + size - 2);
+        }
+
+        int inset = Math.max(1, size / 5);
+        if (engine.isGameOver() && !engine.isGameWon() && engine.isMine(row, col)) {
+            g.setColor(Color.BLACK);
+            g.fillOval(x + inset, y + inset, size - 2 * inset, size - 2 * inset);
+        } else if (engine.isFlagged(row, col)) {
+            g.setColor(Color.RED);
+            g.fillPolygon(new int[] { x + inset, x + size - inset, x + inset },
+                    new int[] { y + inset, y + size / 2, y + size - inset }, 3);
+        }
+    }
+}
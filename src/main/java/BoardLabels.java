@@ -0,0 +1,99 @@
+/**
+ * The BoardLabels class converts between row indexes and the row labels shown
+ * on the console board. Rows are labelled like spreadsheet columns: A to Z,
+ * then AA, AB ... AZ, BA and so on, so any number of rows gets a unique label.
+ * Columns are labelled with their 1-based number.
+ */
+public final class BoardLabels {
+
+    private BoardLabels() {
+    }
+
+    /**
+     * Returns the label of a row.
+     *
+     * @param row the row index, starting at 0
+     * @return the row label, e.g. "A" for 0, "Z" for 25 and "AA" for 26
+     */
+    public static String rowLabel(int row) {
+        return appendRowLabel(new StringBuilder(7), row).toString();
+    }
+
+    /**
+     * Appends the label of a row to a buffer without creating a String.
+     *
+     * @param out the buffer to append to
+     * @param row the row index, starting at 0
+     * @return the buffer
+     */
+    public static StringBuilder appendRowLabel(StringBuilder out, int row) {
+        int start = out.length();
+        int n = row + 1;
+        while (n > 0) {
+            n--;
+            out.append((char) ('A' + n % 26));
+            n /= 26;
+        }
+        for (int i = start, j = out.length() - 1; i < j; i++, j--) {
+            char ch = out.charAt(i);
+            out.setCharAt(i, out.charAt(j));
+            out.setCharAt(j, ch);
+        }
+        return out;
+    }
+
+    /**
+     * Parses a row label, ignoring case.
+     *
+     * @param text the text holding the label
+     * @param from the index of the first letter
+     * @param to   the index after the last letter
+     * @return the row index, or -1 if the text is not a valid row label
+     */
+    public static int parseRow(CharSequence text, int from, int to) {
+        if (from >= to || to - from > 6) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char ch = Character.toUpperCase(text.charAt(i));
+            if (ch < 'A' || ch > 'Z') {
+                return -1;
+            }
+            value = value * 26 + (ch - 'A' + 1);
+        }
+        return value - 1;
+    }
+
+    /**
+     * Parses a square such as "C7" or "AB12" into its row and column index.
+     *
+     * @param text    the square, a row label followed by a column number
+     * @param numRows the number of rows on the board
+     * @param numCols the number of columns on the board
+     * @return the row and column index, or null if the text is not a square on
+     *         the board
+     */
+    public static int[] parseCell(String text, int numRows, int numCols) {
+        int split = 0;
+        while (split < text.length() && Character.isLetter(text.charAt(split))) {
+            split++;
+        }
+        int row = parseRow(text, 0, split);
+        if (row < 0 || row >= numRows || split == text.length() || text.length() - split > 9) {
+            return null;
+        }
+        int col = 0;
+        for (int i = split; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return null;
+            }
+            col = col * 10 + (ch - '0');
+        }
+        if (col < 1 || col > numCols) {
+            return null;
+        }
+        return new int[] { row, col - 1 };
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * The BoardMode enum selects how a MineSweeperEngine places its mines.
+ *
+ * - CLASSIC: the mines are placed by startGame, so the first click may hit a
+ * mine.
+ * - SAFE_START: placement is delayed until the first tile is uncovered, and
+ * that tile and its neighbours are kept free of mines, so the first click
+ * always opens an area.
+ * - NO_GUESS: like SAFE_START, and the board is chosen among candidates so that
+ * the Solver can clear it from the first click by deduction alone, see
+ * NoGuessGenerator.
+ */
+public enum BoardMode {
+    CLASSIC, SAFE_START, NO_GUESS;
+
+    /**
+     * Returns the mode selected by the "minesweeper.mode" system property
+     * (classic, safe_start or no_guess), defaulting to CLASSIC.
+     *
+     * @return the configured board mode
+     * @throws IllegalArgumentException if the property names no board mode
+     */
+    public static BoardMode configured() {
+        return named(System.getProperty("minesweeper.mode", "classic"));
+    }
+
+    /**
+     * Returns the mode with the given name, ignoring case and accepting "-" for
+     * "_".
+     *
+     * @param name the mode name
+     * @return the board mode
+     * @throws IllegalArgumentException if no mode has this name
+     */
+    public static BoardMode named(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown board mode: " + name);
+        }
+    }
+}
@@ -0,0 +1,434 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The BoardPool class keeps boards that are built ahead of time, so that
+ * starting a game only takes a finished board instead of placing mines and
+ * computing the counts on the spot.
+ *
+ * Boards are kept per (rows, columns, mines, mode, topology) in a bounded queue of
+ * `capacity` boards. Every take() schedules a refill of its queue on the
+ * producer threads; when the queue is empty the board is built by the caller
+ * and counted as a miss. At most `maxKeys` board sizes are kept: asking for a
+ * new size drops the boards of the least recently used one.
+ *
+ * A size is pooled only while its `capacity` boards hold at most `maxCells`
+ * cells in total (DEFAULT_MAX_CELLS unless given). Larger boards are built by
+ * the caller on every take, counted as misses, and get no queue, so a single
+ * request for a huge board never makes the producers build copies of it.
+ *
+ * A pooled board has already been started. In the NO_GUESS mode, where the
+ * board depends on the first click, the producer also plays the opening move
+ * on a random tile, so a pooled no-guess game starts with its first area
+ * uncovered. That move is not counted and cannot be undone. If the opening
+ * clears the whole board, the producer tries another seed; only when
+ * OPENING_ATTEMPTS seeds in a row are cleared by their opening (boards with
+ * almost no mines) is the board pooled unopened, leaving the first click to
+ * the player. SAFE_START boards are cheap to place on the first click and are
+ * pooled unopened.
+ *
+ * The pool is off unless the "minesweeper.pool" system property gives the
+ * capacity per board size, see configured(). All methods are thread-safe.
+ */
+public class BoardPool implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_KEYS = 16;
+    public static final long DEFAULT_MAX_CELLS = 1L << 22;
+    static final int OPENING_ATTEMPTS = 8;
+
+    private static volatile BoardPool configured;
+    private static volatile boolean configuredLoaded = false;
+
+    private final int capacity;
+    private final long maxCells;
+    private final ExecutorService producers;
+    private final Map<BoardKey, Shelf> shelves;
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder produced = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final Histogram takeNanos = new Histogram();
+
+    /**
+     * Creates a pool with the given bounds, pooling sizes up to
+     * DEFAULT_MAX_CELLS cells per size.
+     *
+     * @param capacity  the number of boards kept per board size
+     * @param maxKeys   the number of board sizes kept
+     * @param producers the number of background threads building boards
+     */
+    public BoardPool(int capacity, int maxKeys, int producers) {
+        this(capacity, maxKeys, producers, DEFAULT_MAX_CELLS);
+    }
+
+    /**
+     * Creates a pool with the given bounds.
+     *
+     * @param capacity  the number of boards kept per board size
+     * @param maxKeys   the number of board sizes kept
+     * @param producers the number of background threads building boards
+     * @param maxCells  the number of cells the boards of one size may hold in
+     *                  total; larger sizes are not pooled
+     */
+    public BoardPool(int capacity, int maxKeys, int producers, long maxCells) {
+        if (capacity <= 0 || maxKeys <= 0 || producers <= 0 || maxCells <= 0) {
+            throw new IllegalArgumentException("Pool capacity, sizes, producers and cells must be positive");
+        }
+        this.capacity = capacity;
+        this.maxCells = maxCells;
+        this.producers = Executors.newFixedThreadPool(producers, task -> {
+            Thread thread = new Thread(task, "minesweeper-pool-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.shelves = new LinkedHashMap<BoardKey, Shelf>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BoardKey, Shelf> eldest) {
+                if (size() <= maxKeys) {
+                    return false;
+                }
+                eldest.getValue().drop();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the shared pool selected by the system properties, or null when
+     * pooling is off:
+     * - "minesweeper.pool": the capacity per board size,
+     * - "minesweeper.pool.sizes": the number of board sizes kept (default 16),
+     * - "minesweeper.pool.producers": the number of producer threads (default
+     * half the processors),
+     * - "minesweeper.pool.cells": the number of cells the boards of one size
+     * may hold in total (default DEFAULT_MAX_CELLS).
+     *
+     * @return the shared pool, or null
+     * @throws IllegalArgumentException if a property is not a positive number
+     */
+    public static BoardPool configured() {
+        if (!configuredLoaded) {
+            synchronized (BoardPool.class) {
+                if (!configuredLoaded) {
+                    String value = System.getProperty("minesweeper.pool", "").trim();
+                    if (!value.isEmpty() && !value.equals("off")) {
+                        int processors = Runtime.getRuntime().availableProcessors();
+                        configured = new BoardPool(Integer.parseInt(value),
+                                Integer.getInteger("minesweeper.pool.sizes", DEFAULT_MAX_KEYS),
+                                Integer.getInteger("minesweeper.pool.producers", Math.max(processors / 2, 1)),
+                                Long.getLong("minesweeper.pool.cells", DEFAULT_MAX_CELLS));
+                    }
+                    configuredLoaded = true;
+                }
+            }
+        }
+        return configured;
+    }
+
+    /**
+     * Takes a started SQUARE board of the given size from the pool, see
+     * take(int, int, int, BoardMode, BoardTopology).
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param mode       the board mode
+     * @return a started board that belongs to the caller
+     * @throws IllegalArgumentException if the board size is invalid
+     */
+    public MineSweeperEngine take(int numRows, int numCols, int minesCount, BoardMode mode) {
+        return take(numRows, numCols, minesCount, mode, BoardTopology.SQUARE);
+    }
+
+    /**
+     * Takes a started board of the given size from the pool, building it on the
+     * spot when none is ready, and schedules a refill. Sizes above the cell
+     * limit are always built on the spot.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param mode       the board mode
+     * @param topology   the board topology
+     * @return a started board that belongs to the caller
+     * @throws IllegalArgumentException if the board size is invalid
+     */
+    public MineSweeperEngine take(int numRows, int numCols, int minesCount, BoardMode mode, BoardTopology topology) {
+        long start = System.nanoTime();
+        BoardKey key = new BoardKey(numRows, numCols, minesCount, mode, topology);
+        MineSweeperEngine board = null;
+        Shelf shelf = shelf(key);
+        if (shelf != null) {
+            board = shelf.boards.poll();
+            refill(shelf);
+        }
+        if (board != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            board = build(key);
+        }
+        board.restartClock();
+        takeNanos.record(System.nanoTime() - start);
+        return board;
+    }
+
+    /**
+     * Starts filling the pool for the given board size ahead of the first take.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param mode       the board mode
+     */
+    public void prepare(int numRows, int numCols, int minesCount, BoardMode mode) {
+        prepare(numRows, numCols, minesCount, mode, BoardTopology.SQUARE);
+    }
+
+    /**
+     * Starts filling the pool for the given board size and topology ahead of
+     * the first take. Does nothing for sizes above the cell limit.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param mode       the board mode
+     * @param topology   the board topology
+     */
+    public void prepare(int numRows, int numCols, int minesCount, BoardMode mode, BoardTopology topology) {
+        Shelf shelf = shelf(new BoardKey(numRows, numCols, minesCount, mode, topology));
+        if (shelf != null) {
+            refill(shelf);
+        }
+    }
+
+    /**
+     * Returns the shelf for the given key, creating it (and evicting the least
+     * recently used one) if needed. Invalid board sizes get no shelf, so their
+     * error is reported by the caller's own build, and neither do sizes whose
+     * boards would hold more than maxCells cells.
+     */
+    private synchronized Shelf shelf(BoardKey key) {
+        Shelf shelf = shelves.get(key);
+        if (shelf == null && key.isValid() && isPooled(key)) {
+            shelf = new Shelf(key, capacity);
+            shelves.put(key, shelf);
+        }
+        return shelf;
+    }
+
+    private boolean isPooled(BoardKey key) {
+        return (long) key.numRows * key.numCols <= maxCells / capacity;
+    }
+
+    private void refill(Shelf shelf) {
+        if (shelf.dropped || producers.isShutdown() || !shelf.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            producers.execute(() -> {
+                try {
+                    while (!shelf.dropped && !producers.isShutdown() && shelf.boards.remainingCapacity() > 0) {
+                        if (shelf.boards.offer(build(shelf.key))) {
+                            produced.increment();
+                        }
+                    }
+                } finally {
+                    shelf.refilling.set(false);
+                }
+                // A take may have raced with the end of the loop
+                if (shelf.boards.remainingCapacity() > 0) {
+                    refill(shelf);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            shelf.refilling.set(false);
+        }
+    }
+
+    /**
+     * Builds and starts a board for the given key with a fresh seed, playing
+     * the opening of a NO_GUESS board as described in the class comment.
+     */
+    private static MineSweeperEngine build(BoardKey key) {
+        if (key.mode != BoardMode.NO_GUESS) {
+            return start(key, ThreadLocalRandom.current().nextLong());
+        }
+        long seed = 0;
+        for (int attempt = 0; attempt < OPENING_ATTEMPTS; attempt++) {
+            seed = ThreadLocalRandom.current().nextLong();
+            MineSweeperEngine engine = start(key, seed);
+            int cell = ThreadLocalRandom.current().nextInt(key.numRows * key.numCols);
+            engine.reveal(cell / key.numCols, cell % key.numCols);
+            if (!engine.isGameOver()) {
+                engine.clearMoves();
+                return engine;
+            }
+        }
+        // Every opening cleared the whole board; leave the first click to the player
+        return start(key, seed);
+    }
+
+    private static MineSweeperEngine start(BoardKey key, long seed) {
+        MineSweeperEngine engine = new MineSweeperEngine(key.numRows, key.numCols, key.minesCount,
+                BoardRandom.splittable(seed), key.mode, key.topology);
+        engine.startGame();
+        return engine;
+    }
+
+    /**
+     * Returns the number of SQUARE boards ready for the given size.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param mode       the board mode
+     * @return the number of pooled boards
+     */
+    public int getAvailable(int numRows, int numCols, int minesCount, BoardMode mode) {
+        return getAvailable(numRows, numCols, minesCount, mode, BoardTopology.SQUARE);
+    }
+
+    /**
+     * Returns the number of boards ready for the given size and topology.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param mode       the board mode
+     * @param topology   the board topology
+     * @return the number of pooled boards
+     */
+    public synchronized int getAvailable(int numRows, int numCols, int minesCount, BoardMode mode,
+                                         BoardTopology topology) {
+        // Iterate rather than get(), which would count as a use of the size
+        Iterator<Map.Entry<BoardKey, Shelf>> entries = shelves.entrySet().iterator();
+        BoardKey key = new BoardKey(numRows, numCols, minesCount, mode, topology);
+        while (entries.hasNext()) {
+            Map.Entry<BoardKey, Shelf> entry = entries.next();
+            if (entry.getKey().equals(key)) {
+                return entry.getValue().boards.size();
+            }
+        }
+        return 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getMaxCells() {
+        return maxCells;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getProduced() {
+        return produced.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public Histogram getTakeNanos() {
+        return takeNanos;
+    }
+
+    /**
+     * Stops the producer threads and drops every pooled board.
+     */
+    @Override
+    public synchronized void close() {
+        producers.shutdownNow();
+        for (Shelf shelf : shelves.values()) {
+            shelf.drop();
+        }
+        shelves.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + " misses=" + getMisses() + " produced=" + getProduced()
+                + " evicted=" + getEvicted() + " take.nanos " + takeNanos;
+    }
+
+    /**
+     * The boards of one size, and whether a producer is filling them.
+     */
+    private final class Shelf {
+        final BoardKey key;
+        final ArrayBlockingQueue<MineSweeperEngine> boards;
+        final AtomicBoolean refilling = new AtomicBoolean();
+        volatile boolean dropped = false;
+
+        Shelf(BoardKey key, int capacity) {
+            this.key = key;
+            this.boards = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void drop() {
+            dropped = true;
+            evicted.add(boards.size());
+            boards.clear();
+        }
+    }
+
+    /**
+     * The size and mode of a board, used as the pool key.
+     */
+    private static final class BoardKey {
+        final int numRows;
+        final int numCols;
+        final int minesCount;
+        final BoardMode mode;
+        final BoardTopology topology;
+
+        BoardKey(int numRows, int numCols, int minesCount, BoardMode mode, BoardTopology topology) {
+            this.numRows = numRows;
+            this.numCols = numCols;
+            this.minesCount = minesCount;
+            this.mode = mode;
+            this.topology = topology;
+        }
+
+        boolean isValid() {
+            long cells = (long) numRows * numCols;
+            return numRows > 0 && numCols > 0 && cells <= MineSweeperEngine.MAX_CELLS
+                    && minesCount >= 0 && minesCount < cells;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BoardKey)) {
+                return false;
+            }
+            BoardKey key = (BoardKey) other;
+            return numRows == key.numRows && numCols == key.numCols && minesCount == key.minesCount
+                    && mode == key.mode && topology == key.topology;
+        }
+
+        @Override
+        public int hashCode() {
+            return (((numRows * 31 + numCols) * 31 + minesCount) * 31 + mode.ordinal()) * 31 + topology.ordinal();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.SplittableRandom;
+
+/**
+ * The BoardRandom interface is the source of randomness used to place mines.
+ * Every generator is created from an explicit seed, so a board can be
+ * reproduced exactly by creating the same generator with the same seed.
+ *
+ * Implementations:
+ * - splittable(long seed): backed by java.util.SplittableRandom.
+ * - xoroshiro(long seed): a xoroshiro128+ generator.
+ */
+public interface BoardRandom {
+
+    /**
+     * Returns a uniformly distributed value between 0 (inclusive) and the given
+     * bound (exclusive).
+     *
+     * @param bound the upper bound, must be positive
+     * @return the next random value
+     */
+    int nextInt(int bound);
+
+    /**
+     * Returns the seed this generator was created from.
+     *
+     * @return the seed
+     */
+    long getSeed();
+
+    static BoardRandom splittable(long seed) {
+        return new Splittable(seed);
+    }
+
+    static BoardRandom xoroshiro(long seed) {
+        return new Xoroshiro128Plus(seed);
+    }
+
+    /**
+     * Creates a generator by name, as used on the command line.
+     *
+     * @param name "splittable" or "xoroshiro"
+     * @param seed the seed for the generator
+     * @return the generator
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static BoardRandom named(String name, long seed) {
+        switch (name.toLowerCase()) {
+            case "splittable":
+                return splittable(seed);
+            case "xoroshiro":
+                return xoroshiro(seed);
+            default:
+                throw new IllegalArgumentException("Unknown random generator: " + name);
+        }
+    }
+
+    final class Splittable implements BoardRandom {
+        private final long seed;
+        private final SplittableRandom random;
+
+        Splittable(long seed) {
+            this.seed = seed;
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+
+        @Override
+        public long getSeed() {
+            return seed;
+        }
+    }
+
+    /**
+     * xoroshiro128+ by Blackman and Vigna. The two state words are expanded
+     * from the seed with splitmix64, so any seed (including 0) is valid.
+     */
+    final class Xoroshiro128Plus implements BoardRandom {
+        private final long seed;
+        private long s0;
+        private long s1;
+
+        Xoroshiro128Plus(long seed) {
+            this.seed = seed;
+            long x = seed;
+            this.s0 = mix(x += 0x9E3779B97F4A7C15L);
+            this.s1 = mix(x + 0x9E3779B97F4A7C15L);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        private long nextLong() {
+            long a = s0;
+            long b = s1;
+            long result = a + b;
+            b ^= a;
+            s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+            s1 = Long.rotateLeft(b, 37);
+            return result;
+        }
+
+        /**
+         * Uses the high 31 bits of the next value with the same rejection step
+         * as java.util.Random, so the result is unbiased for any bound.
+         */
+        @Override
+        public int nextInt(int bound) {
+            if (bound <= 0) {
+                throw new IllegalArgumentException("bound must be positive");
+            }
+            int r = (int) (nextLong() >>> 33);
+            int m = bound - 1;
+            if ((bound & m) == 0) {
+                return (int) ((bound * (long) r) >> 31);
+            }
+            for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33)) {
+                // Reject values from the incomplete last interval
+            }
+            return r;
+        }
+
+        @Override
+        public long getSeed() {
+            return seed;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * The BoardTopology enum decides which tiles are neighbours, and so which tiles
+ * a number counts and a flood fill spreads to. Cells are always numbered
+ * {@code row * numCols + col}.
+ *
+ * - SQUARE: the classic board, where a tile touches the up to 8 tiles around
+ * it.
+ * - SQUARE_4: a square board where a tile only touches the up to 4 tiles
+ * sharing an edge with it.
+ * - TORUS: like SQUARE, but the edges wrap around, so every tile has 8
+ * neighbours (fewer on boards narrower than 3 tiles).
+ * - HEX: hexagonal tiles in "odd-r" layout: odd rows are shifted half a tile
+ * to the right, and a tile touches the up to 6 tiles around it.
+ *
+ * The hot loops of the engine do not call neighbours() per cell but read a
+ * NeighbourTable built from it once per board size.
+ */
+public enum BoardTopology {
+    SQUARE(8), SQUARE_4(4), TORUS(8), HEX(6);
+
+    private final int maxDegree;
+
+    BoardTopology(int maxDegree) {
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * Returns the largest number of neighbours of a tile.
+     *
+     * @return the maximum degree, at most 8
+     */
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Fills the given array with the cell ids of the neighbours of a cell, in
+     * ascending order and without duplicates.
+     *
+     * @param numRows the number of rows
+     * @param numCols the number of columns
+     * @param cell    the cell id
+     * @param out     the array to fill, with room for getMaxDegree() cells
+     * @return the number of neighbours
+     */
+    public int neighbours(int numRows, int numCols, int cell, int[] out) {
+        int row = cell / numCols;
+        int col = cell - row * numCols;
+        int count = 0;
+        switch (this) {
+            case SQUARE:
+                for (int nr = Math.max(row - 1, 0); nr <= Math.min(row + 1, numRows - 1); nr++) {
+                    for (int nc = Math.max(col - 1, 0); nc <= Math.min(col + 1, numCols - 1); nc++) {
+                        if (nr != row || nc != col) {
+                            out[count++] = nr * numCols + nc;
+                        }
+                    }
+                }
+                return count;
+            case SQUARE_4:
+                if (row > 0) {
+                    out[count++] = cell - numCols;
+                }
+                if (col > 0) {
+                    out[count++] = cell - 1;
+                }
+                if (col < numCols - 1) {
+                    out[count++] = cell + 1;
+                }
+                if (row < numRows - 1) {
+                    out[count++] = cell + numCols;
+                }
+                return count;
+            case TORUS:
+                for (int dr = -1; dr <= 1; dr++) {
+                    int nr = Math.floorMod(row + dr, numRows);
+                    for (int dc = -1; dc <= 1; dc++) {
+                        count = insert(out, count, nr * numCols + Math.floorMod(col + dc, numCols), cell);
+                    }
+                }
+                return count;
+            default:
+                int shift = row & 1;
+                for (int dr = -1; dr <= 1; dr++) {
+                    int nr = row + dr;
+                    if (nr < 0 || nr >= numRows) {
+                        continue;
+                    }
+                    // The row above and below cover col - 1 and col on even rows, col and col + 1 on odd rows
+                    int from = dr == 0 ? col - 1 : col - 1 + shift;
+                    int to = dr == 0 ? col + 1 : col + shift;
+                    for (int nc = Math.max(from, 0); nc <= Math.min(to, numCols - 1); nc++) {
+                        if (dr != 0 || nc != col) {
+                            out[count++] = nr * numCols + nc;
+                        }
+                    }
+                }
+                return count;
+        }
+    }
+
+    /**
+     * Inserts a cell into a sorted array unless it is already there or is the
+     * centre cell, which happens when a small torus wraps onto itself.
+     */
+    private static int insert(int[] out, int count, int value, int centre) {
+        if (value == centre) {
+            return count;
+        }
+        int i = count;
+        while (i > 0 && out[i - 1] > value) {
+            i--;
+        }
+        if (i > 0 && out[i - 1] == value) {
+            return count;
+        }
+        System.arraycopy(out, i, out, i + 1, count - i);
+        out[i] = value;
+        return count + 1;
+    }
+
+    /**
+     * Returns the topology selected by the "minesweeper.topology" system
+     * property (square, square_4, torus or hex), defaulting to SQUARE.
+     *
+     * @return the configured topology
+     * @throws IllegalArgumentException if the property names no topology
+     */
+    public static BoardTopology configured() {
+        return named(System.getProperty("minesweeper.topology", "square"));
+    }
+
+    /**
+     * Returns the topology with the given name, ignoring case and accepting "-"
+     * for "_".
+     *
+     * @param name the topology name
+     * @return the topology
+     * @throws IllegalArgumentException if no topology has this name
+     */
+    public static BoardTopology named(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown board topology: " + name);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * The BoardView interface is a graphical front end driven by a
+ * MineSweeperService. The service only refers to views through this
+ * interface, so a headless game never loads a view implementation, nor the
+ * AWT and Swing classes behind it.
+ *
+ * Implementations:
+ * - SwingBoardView: a Swing window with a BoardCanvas.
+ */
+public interface BoardView {
+
+    /**
+     * Builds the view and makes it visible.
+     */
+    void show();
+
+    /**
+     * Repaints the tiles changed by the last move.
+     *
+     * @param cells the changed cell ids; only the first count entries are read
+     * @param count the number of changed cells
+     */
+    void refresh(int[] cells, int count);
+
+    /**
+     * Repaints the whole board.
+     */
+    void refresh();
+
+    /**
+     * Displays a message to the player.
+     *
+     * @param message the message to display
+     */
+    void showMessage(String message);
+
+    /**
+     * Closes the view once the player has had time to read the last message.
+     */
+    void close();
+}
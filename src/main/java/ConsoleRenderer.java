@@ -0,0 +1,184 @@
+/**
+ * The ConsoleRenderer class prints a MineSweeperEngine board to the console.
+ * The whole output of a render is built in a single StringBuilder that is
+ * reused between renders and written to System.out in one call.
+ *
+ * Modes:
+ * - FULL: every render prints the whole board with row and column headers.
+ * - ANSI: the board is drawn once at the top of the terminal and later renders
+ * only redraw the changed cells using ANSI cursor addressing.
+ * - DIFF: later renders print a single line listing the changed cells, e.g.
+ * "Changed: A1=0 A2=1 B2=F".
+ *
+ * In the ANSI and DIFF modes a render costs time proportional to the number
+ * of cells changed by the move, not to the size of the board.
+ */
+public class ConsoleRenderer {
+
+    public enum Mode {
+        FULL, ANSI, DIFF
+    }
+
+    private static final String ESC = "\u001B[";
+    private static final String MINE = "💣";
+    private static final String FLAG = "🚩";
+
+    private final MineSweeperEngine engine;
+    private final Mode mode;
+    private final StringBuilder buffer;
+
+    private final int labelWidth;
+    private final int cellWidth;
+
+    private boolean boardDrawn = false;
+
+    public ConsoleRenderer(MineSweeperEngine engine, Mode mode) {
+        this.engine = engine;
+        this.mode = mode;
+        this.labelWidth = BoardLabels.rowLabel(engine.getNumRows() - 1).length() + 1;
+        this.cellWidth = Math.max(Integer.toString(engine.getNumCols()).length(), 2) + 1;
+
+        long boardChars = (long) (engine.getNumRows() + 1) * (labelWidth + (long) engine.getNumCols() * cellWidth + 1);
+        this.buffer = new StringBuilder((int) Math.min(boardChars, 1 << 20));
+    }
+
+    /**
+     * Returns the rendering mode selected by the "minesweeper.console" system
+     * property (full, ansi or diff), defaulting to FULL.
+     *
+     * @return the configured rendering mode
+     */
+    public static Mode configuredMode() {
+        return configuredMode(Mode.FULL);
+    }
+
+    /**
+     * Returns the rendering mode selected by the "minesweeper.console" system
+     * property (full, ansi or diff).
+     *
+     * @param fallback the mode used when the property is not set or not valid
+     * @return the configured rendering mode
+     */
+    public static Mode configuredMode(Mode fallback) {
+        String value = System.getProperty("minesweeper.console", "");
+        try {
+            return Mode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Prints the whole board. In ANSI mode the screen is cleared first and the
+     * board is drawn at the top of the terminal. On a HEX board the odd rows
+     * are shifted half a cell to the right.
+     */
+    public void renderFull() {
+        if (mode == Mode.ANSI) {
+            buffer.append(ESC).append('H').append(ESC).append("2J");
+        }
+
+        pad(labelWidth);
+        for (int col = 1; col <= engine.getNumCols(); col++) {
+            int start = buffer.length();
+            buffer.append(col);
+            pad(cellWidth - (buffer.length() - start));
+        }
+        buffer.append(System.lineSeparator());
+
+        for (int row = 0; row < engine.getNumRows(); row++) {
+            int start = buffer.length();
+            BoardLabels.appendRowLabel(buffer, row);
+            pad(labelWidth - (buffer.length() - start) + rowShift(row));
+            for (int col = 0; col < engine.getNumCols(); col++) {
+                pad(cellWidth - appendCell(row, col));
+            }
+            buffer.append(System.lineSeparator());
+        }
+
+        this.boardDrawn = true;
+        flush();
+    }
+
+    /**
+     * Prints the cells changed by the last move. Falls back to a full render in
+     * FULL mode and when the board has not been drawn yet.
+     *
+     * @param cells the changed cell ids; only the first count entries are read
+     * @param count the number of changed cells
+     */
+    public void renderChanges(int[] cells, int count) {
+        if (mode == Mode.FULL || !boardDrawn) {
+            renderFull();
+            return;
+        }
+
+        int numCols = engine.getNumCols();
+        if (mode == Mode.ANSI) {
+            for (int i = 0; i < count; i++) {
+                int row = cells[i] / numCols;
+                int col = cells[i] - row * numCols;
+                buffer.append(ESC).append(row + 2).append(';').append(labelWidth + rowShift(row) + col * cellWidth + 1)
+                        .append('H');
+                appendCell(row, col);
+            }
+            buffer.append(ESC).append(engine.getNumRows() + 2).append(";1H").append(ESC).append('J');
+        } else {
+            buffer.append("Changed:");
+            for (int i = 0; i < count; i++) {
+                int row = cells[i] / numCols;
+                int col = cells[i] - row * numCols;
+                BoardLabels.appendRowLabel(buffer.append(' '), row).append(col + 1).append('=');
+                appendCell(row, col);
+            }
+            buffer.append(System.lineSeparator());
+        }
+        flush();
+    }
+
+    private int rowShift(int row) {
+        return engine.getTopology() == BoardTopology.HEX && (row & 1) == 1 ? cellWidth / 2 : 0;
+    }
+
+    /**
+     * Appends the glyph of a cell to the buffer: the adjacent mine count for an
+     * uncovered tile, a bomb for a mine once the game is lost, a flag for a
+     * flagged tile and an underscore otherwise.
+     *
+     * @param row the row index of the cell
+     * @param col the column index of the cell
+     * @return the number of terminal columns the glyph occupies
+     */
+    private int appendCell(int row, int col) {
+        if (engine.isRevealed(row, col)) {
+            buffer.append((char) ('0' + engine.getMinesCount(row, col)));
+            return 1;
+        }
+        if (engine.isGameOver() && !engine.isGameWon() && engine.isMine(row, col)) {
+            buffer.append(MINE);
+            return 2;
+        }
+        if (engine.isFlagged(row, col)) {
+            buffer.append(FLAG);
+            return 2;
+        }
+        buffer.append('_');
+        return 1;
+    }
+
+    private void pad(int spaces) {
+        for (int i = 0; i < spaces; i++) {
+            buffer.append(' ');
+        }
+    }
+
+    private void flush() {
+        System.out.append(buffer);
+        System.out.flush();
+        buffer.setLength(0);
+    }
+}
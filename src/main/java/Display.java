@@ -0,0 +1,33 @@
+import java.awt.GraphicsEnvironment;
+
+/**
+ * The Display class decides whether games run without a window. It is the only
+ * place outside the Swing front end that refers to AWT, and it loads AWT only
+ * when nothing else decides: the "minesweeper.headless" and "java.awt.headless"
+ * system properties are read first, and on Linux and other X11 systems a
+ * missing DISPLAY (and WAYLAND_DISPLAY) means headless.
+ */
+final class Display {
+
+    private Display() {
+    }
+
+    /**
+     * Returns whether games should run without a window.
+     *
+     * @return true if no game window can or should be shown
+     */
+    static boolean isHeadless() {
+        if (Boolean.getBoolean("minesweeper.headless") || Boolean.getBoolean("java.awt.headless")) {
+            return true;
+        }
+        String os = System.getProperty("os.name", "").toLowerCase();
+        String display = System.getenv("DISPLAY");
+        String wayland = System.getenv("WAYLAND_DISPLAY");
+        if (!os.startsWith("windows") && !os.startsWith("mac")
+                && (display == null || display.isEmpty()) && (wayland == null || wayland.isEmpty())) {
+            return true;
+        }
+        return GraphicsEnvironment.isHeadless();
+    }
+}
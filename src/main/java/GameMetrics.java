@@ -0,0 +1,226 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameMetrics class collects counters and histograms for the game's hot
+ * paths. It records:
+ * - startGame and setMines latency,
+ * - checkMine latency and the number of tiles uncovered per click,
+ * - console render (printTrace) latency,
+ * - counters of games started, moves, wins and losses.
+ *
+ * Every recorder also commits a JDK Flight Recorder event when the JVM provides
+ * Flight Recorder, see JfrEvents. The event is begun by the matching begin
+ * method before the operation runs and passed back to the recorder after it;
+ * without Flight Recorder the begin methods return null.
+ *
+ * Metrics are off unless the "minesweeper.metrics" system property names an
+ * exporter (see MetricsExporter). When they are off configured() returns null
+ * and the service skips all timing behind a single null check, so the cost of
+ * disabled metrics is one branch per operation. When they are on, all
+ * services of the JVM share one instance, which is safe to update from any
+ * number of threads.
+ */
+public class GameMetrics {
+
+    private static final boolean JFR_AVAILABLE = jfrAvailable();
+    private static volatile GameMetrics configured;
+    private static volatile boolean configuredLoaded = false;
+
+    private final MetricsExporter exporter;
+
+    private final Histogram startGameNanos = new Histogram();
+    private final Histogram setMinesNanos = new Histogram();
+    private final Histogram checkMineNanos = new Histogram();
+    private final Histogram floodFillCells = new Histogram();
+    private final Histogram renderNanos = new Histogram();
+
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder losses = new LongAdder();
+
+    /**
+     * Creates metrics that are published to the given exporter at the end of
+     * every game.
+     *
+     * @param exporter the exporter, or null to only collect
+     */
+    public GameMetrics(MetricsExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    /**
+     * Returns the shared metrics selected by the "minesweeper.metrics" system
+     * property, or null when metrics are off.
+     *
+     * @return the shared metrics, or null
+     * @throws IllegalArgumentException if the exporter class cannot be created
+     */
+    public static GameMetrics configured() {
+        if (!configuredLoaded) {
+            synchronized (GameMetrics.class) {
+                if (!configuredLoaded) {
+                    String name = System.getProperty("minesweeper.metrics", "").trim();
+                    configured = name.isEmpty() || name.equals("off") ? null : new GameMetrics(exporterNamed(name));
+                    configuredLoaded = true;
+                }
+            }
+        }
+        return configured;
+    }
+
+    private static MetricsExporter exporterNamed(String name) {
+        if (name.equals("console")) {
+            return MetricsExporter.console();
+        }
+        try {
+            return (MetricsExporter) Class.forName(name).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Cannot create metrics exporter " + name, e);
+        }
+    }
+
+    private static boolean jfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Begins the Flight Recorder event of a startGame call.
+     *
+     * @return the event to pass to recordStartGame, or null
+     */
+    public Object beginStartGame() {
+        return JFR_AVAILABLE ? JfrEvents.beginStartGame() : null;
+    }
+
+    /**
+     * Begins the Flight Recorder event of a reveal move.
+     *
+     * @return the event to pass to recordReveal, or null
+     */
+    public Object beginReveal() {
+        return JFR_AVAILABLE ? JfrEvents.beginMove() : null;
+    }
+
+    /**
+     * Begins the Flight Recorder event of a console render.
+     *
+     * @return the event to pass to recordRender, or null
+     */
+    public Object beginRender() {
+        return JFR_AVAILABLE ? JfrEvents.beginRender() : null;
+    }
+
+    /**
+     * Records a started game.
+     *
+     * @param event          the event returned by beginStartGame()
+     * @param startGameNanos the time spent in startGame, including the first render
+     * @param setMinesNanos  the part of it spent placing the mines
+     * @param game           the started game
+     */
+    public void recordStartGame(Object event, long startGameNanos, long setMinesNanos, GameService game) {
+        gamesStarted.increment();
+        this.startGameNanos.record(startGameNanos);
+        this.setMinesNanos.record(setMinesNanos);
+        if (event != null) {
+            JfrEvents.commitStartGame(event, game.getNumRows(), game.getNumCols(), game.getTotalMines(),
+                    setMinesNanos);
+        }
+    }
+
+    /**
+     * Records a reveal move.
+     *
+     * @param event     the event returned by beginReveal()
+     * @param nanos     the time spent uncovering the tiles
+     * @param cell      the cell id of the move
+     * @param uncovered the number of tiles the move uncovered
+     */
+    public void recordReveal(Object event, long nanos, int cell, int uncovered) {
+        moves.increment();
+        checkMineNanos.record(nanos);
+        floodFillCells.record(uncovered);
+        if (event != null) {
+            JfrEvents.commitMove(event, cell, uncovered);
+        }
+    }
+
+    /**
+     * Records a console render.
+     *
+     * @param event the event returned by beginRender()
+     * @param nanos the time spent rendering
+     * @param cells the number of cells rendered
+     */
+    public void recordRender(Object event, long nanos, int cells) {
+        renderNanos.record(nanos);
+        if (event != null) {
+            JfrEvents.commitRender(event, cells);
+        }
+    }
+
+    /**
+     * Records the end of a game and publishes the metrics to the exporter.
+     *
+     * @param won true if the game was won
+     */
+    public void recordGameOver(boolean won) {
+        (won ? wins : losses).increment();
+        if (exporter != null) {
+            exporter.export(this);
+        }
+    }
+
+    public Histogram getStartGameNanos() {
+        return startGameNanos;
+    }
+
+    public Histogram getSetMinesNanos() {
+        return setMinesNanos;
+    }
+
+    public Histogram getCheckMineNanos() {
+        return checkMineNanos;
+    }
+
+    public Histogram getFloodFillCells() {
+        return floodFillCells;
+    }
+
+    public Histogram getRenderNanos() {
+        return renderNanos;
+    }
+
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getWins() {
+        return wins.sum();
+    }
+
+    public long getLosses() {
+        return losses.sum();
+    }
+
+    @Override
+    public String toString() {
+        String separator = System.lineSeparator();
+        return "games=" + getGamesStarted() + " moves=" + getMoves() + " wins=" + getWins() + " losses=" + getLosses()
+                + separator + "startGame.nanos " + startGameNanos
+                + separator + "setMines.nanos " + setMinesNanos
+                + separator + "checkMine.nanos " + checkMineNanos
+                + separator + "floodFill.cells " + floodFillCells
+                + separator + "render.nanos " + renderNanos;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * The GameResult class describes how a finished game ended: whether the
+ * player won, how many moves were played and how long the game took from
+ * startGame to the final move.
+ */
+public final class GameResult {
+
+    private final boolean won;
+    private final int moves;
+    private final long durationNanos;
+
+    public GameResult(boolean won, int moves, long durationNanos) {
+        this.won = won;
+        this.moves = moves;
+        this.durationNanos = durationNanos;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getDurationMillis() {
+        return durationNanos / 1_000_000L;
+    }
+
+    @Override
+    public String toString() {
+        return (won ? "won" : "lost") + " after " + moves + " moves in " + getDurationMillis() + " ms";
+    }
+}
@@ -0,0 +1,488 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The GameServer class hosts many Minesweeper games in one JVM behind a
+ * line-based TCP protocol on the loopback interface. Every game is a session
+ * holding a headless MineSweeperEngine, so no window, console or polling loop
+ * is involved, and a session costs little more than the engine's own arrays.
+ *
+ * Protocol (one command per line, one response line per command):
+ * - NEW rows cols mines [seed]: starts a game and makes it the connection's
+ * current session; answers "OK id".
+ * - RESUME id: makes an existing session current, e.g. after a reconnect.
+ * - REVEAL B3: uncovers a tile; answers "OK status count B3=1 B4=0 ..." with
+ * the uncovered cells.
+ * - FLAG B3: toggles a flag; answers "OK status B3=F" (or "B3=_").
+ * - STATE: answers "OK status rows cols mines moves board", where board lists
+ * the rows separated by '/', using the digit of uncovered tiles, F for flags,
+ * * for mines once lost and _ for covered tiles.
+ * - CLOSE: ends the current session. QUIT: closes the connection.
+ * status is PLAYING, WON or LOST; errors are answered with "ERR message".
+ *
+ * Each connection is served by its own thread from a cached pool. Sessions
+ * are not tied to connections; a sweeper evicts the sessions that have not
+ * been used for the configured idle time. Unseeded games take their board
+ * from a BoardPool when one is given, e.g. with the pool option (the number of
+ * boards kept ready per board size).
+ *
+ * Usage:
+ * MineSweeperRunner --server port=7070 idle=300 sessions=50000 pool=8
+ */
+public class GameServer implements Closeable {
+
+    static final int MAX_SESSION_CELLS = 1 << 20;
+    private static final int CONNECTION_STACK_SIZE = 256 * 1024;
+
+    private final int port;
+    private final long idleNanos;
+    private final int maxSessions;
+    private final BoardPool pool;
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    // Sessions open or being created; a slot is reserved before the board is built
+    private final AtomicInteger sessionSlots = new AtomicInteger();
+    private final AtomicLong nextSessionId = new AtomicLong(1);
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private ServerSocket serverSocket;
+    private ExecutorService connections;
+    private ScheduledExecutorService sweeper;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a server; call start() to begin accepting connections.
+     *
+     * @param port        the TCP port to listen on, or 0 for any free port
+     * @param idleMillis  the time after which an unused session is evicted
+     * @param maxSessions the maximum number of open sessions
+     */
+    public GameServer(int port, long idleMillis, int maxSessions) {
+        this(port, idleMillis, maxSessions, BoardPool.configured());
+    }
+
+    /**
+     * Creates a server that takes the boards of unseeded games from the given
+     * pool; call start() to begin accepting connections.
+     *
+     * @param port        the TCP port to listen on, or 0 for any free port
+     * @param idleMillis  the time after which an unused session is evicted
+     * @param maxSessions the maximum number of open sessions
+     * @param pool        the board pool, or null to build every board on the spot
+     */
+    public GameServer(int port, long idleMillis, int maxSessions, BoardPool pool) {
+        if (idleMillis <= 0 || maxSessions <= 0) {
+            throw new IllegalArgumentException("Idle time and session limit must be positive");
+        }
+        this.port = port;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.maxSessions = maxSessions;
+        this.pool = pool;
+    }
+
+    /**
+     * Binds the server socket and starts the accept thread and the idle
+     * session sweeper.
+     *
+     * @throws IOException if the socket cannot be bound
+     */
+    public void start() throws IOException {
+        this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.connections = Executors.newCachedThreadPool(task -> newThread(task, "minesweeper-connection-"));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> newThread(task, "minesweeper-sweeper-"));
+        this.running = true;
+
+        long period = Math.max(TimeUnit.NANOSECONDS.toMillis(idleNanos) / 4, 1);
+        sweeper.scheduleAtFixedRate(() -> evictIdle(System.nanoTime()), period, period, TimeUnit.MILLISECONDS);
+        newThread(this::acceptLoop, "minesweeper-accept-").start();
+    }
+
+    private Thread newThread(Runnable task, String prefix) {
+        Thread thread = new Thread(null, task, prefix + threadCount.incrementAndGet(), CONNECTION_STACK_SIZE);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(new Connection(socket));
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the port the server listens on, which is useful when it was
+     * started on port 0.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return the number of sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes every session that has not been used for the idle time.
+     *
+     * @param now the current System.nanoTime()
+     * @return the number of sessions evicted
+     */
+    int evictIdle(long now) {
+        int evicted = 0;
+        for (GameSession session : sessions.values()) {
+            if (now - session.lastUsed > idleNanos && remove(session)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Drops a session and frees its slot, unless another thread dropped it
+     * first.
+     *
+     * @return true if this call removed the session
+     */
+    private boolean remove(GameSession session) {
+        if (sessions.remove(session.id, session)) {
+            sessionSlots.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and drops all sessions.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        if (connections != null) {
+            connections.shutdownNow();
+        }
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        sessions.clear();
+        sessionSlots.set(0);
+    }
+
+    /**
+     * Runs a server from command line options until the JVM is stopped.
+     * Options are key=value pairs: port (default 7070), idle in seconds
+     * (default 300) and sessions (default 50000).
+     *
+     * @param args the options
+     * @throws IOException if the socket cannot be bound
+     */
+    public static void run(String[] args) throws IOException {
+        int port = 7070;
+        long idleSeconds = 300;
+        int maxSessions = 50000;
+        BoardPool pool = BoardPool.configured();
+
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                continue;
+            }
+            String key = arg.substring(0, split);
+            String value = arg.substring(split + 1);
+            switch (key) {
+                case "port":
+                    port = Integer.parseInt(value);
+                    break;
+                case "idle":
+                    idleSeconds = Long.parseLong(value);
+                    break;
+                case "sessions":
+                    maxSessions = Integer.parseInt(value);
+                    break;
+                case "pool":
+                    pool = new BoardPool(Integer.parseInt(value), BoardPool.DEFAULT_MAX_KEYS,
+                            Math.max(Runtime.getRuntime().availableProcessors() / 2, 1));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown server option: " + key);
+            }
+        }
+
+        GameServer server = new GameServer(port, TimeUnit.SECONDS.toMillis(idleSeconds), maxSessions, pool);
+        server.start();
+        System.out.println("Serving Minesweeper on port " + server.getPort());
+        while (true) {
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                server.close();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A hosted game. Moves on a session are serialized by locking the session,
+     * since several connections may resume the same one.
+     */
+    private static final class GameSession {
+        final long id;
+        final MineSweeperEngine engine;
+        volatile long lastUsed = System.nanoTime();
+
+        GameSession(long id, MineSweeperEngine engine) {
+            this.id = id;
+            this.engine = engine;
+        }
+    }
+
+    /**
+     * Serves one client connection: reads command lines and writes one response
+     * line for each, flushing once per response.
+     */
+    private final class Connection implements Runnable {
+        private final Socket socket;
+        private final StringBuilder response = new StringBuilder(64);
+        private GameSession current;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try (Socket s = socket;
+                    BufferedReader in = new BufferedReader(
+                            new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+                    Writer out = new BufferedWriter(
+                            new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    response.setLength(0);
+                    boolean open = execute(line.trim());
+                    out.append(response).append('\n');
+                    out.flush();
+                    if (!open) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // The client went away; its session stays until it is evicted
+            }
+        }
+
+        /**
+         * Executes one command and writes its response to the response buffer.
+         *
+         * @return false if the connection should be closed
+         */
+        private boolean execute(String line) {
+            String[] words = line.split("\\s+");
+            String command = words[0].toUpperCase();
+            try {
+                switch (command) {
+                    case "NEW":
+                        newGame(words);
+                        break;
+                    case "RESUME":
+                        resume(words);
+                        break;
+                    case "REVEAL":
+                        reveal(words);
+                        break;
+                    case "FLAG":
+                        flag(words);
+                        break;
+                    case "STATE":
+                        state();
+                        break;
+                    case "CLOSE":
+                        remove(session());
+                        current = null;
+                        response.append("OK");
+                        break;
+                    case "QUIT":
+                        response.append("BYE");
+                        return false;
+                    default:
+                        response.append("ERR unknown command ").append(words[0]);
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                response.setLength(0);
+                response.append("ERR ").append(e.getMessage());
+            }
+            return true;
+        }
+
+        private void newGame(String[] words) {
+            if (words.length < 4 || words.length > 5) {
+                throw new IllegalArgumentException("usage: NEW rows cols mines [seed]");
+            }
+            int numRows = Integer.parseInt(words[1]);
+            int numCols = Integer.parseInt(words[2]);
+            int minesCount = Integer.parseInt(words[3]);
+            if (numRows < 1 || numCols < 1 || (long) numRows * numCols > MAX_SESSION_CELLS) {
+                throw new IllegalArgumentException("board must have between 1 and " + MAX_SESSION_CELLS + " tiles");
+            }
+            int slots;
+            do {
+                slots = sessionSlots.get();
+                if (slots >= maxSessions) {
+                    throw new IllegalStateException("too many sessions");
+                }
+            } while (!sessionSlots.compareAndSet(slots, slots + 1));
+
+            MineSweeperEngine engine;
+            try {
+                if (words.length == 5) {
+                    engine = new MineSweeperEngine(numRows, numCols, minesCount, Long.parseLong(words[4]));
+                    engine.startGame();
+                } else if (pool != null) {
+                    engine = pool.take(numRows, numCols, minesCount, BoardMode.CLASSIC);
+                } else {
+                    engine = new MineSweeperEngine(numRows, numCols, minesCount);
+                    engine.startGame();
+                }
+            } catch (RuntimeException e) {
+                sessionSlots.decrementAndGet();
+                throw e;
+            }
+
+            GameSession session = new GameSession(nextSessionId.getAndIncrement(), engine);
+            sessions.put(session.id, session);
+            current = session;
+            response.append("OK ").append(session.id);
+        }
+
+        private void resume(String[] words) {
+            if (words.length != 2) {
+                throw new IllegalArgumentException("usage: RESUME id");
+            }
+            GameSession session = sessions.get(Long.parseLong(words[1]));
+            if (session == null) {
+                throw new IllegalStateException("unknown session " + words[1]);
+            }
+            session.lastUsed = System.nanoTime();
+            current = session;
+            response.append("OK ").append(session.id);
+        }
+
+        private void reveal(String[] words) {
+            GameSession session = session();
+            MineSweeperEngine engine = session.engine;
+            synchronized (session) {
+                int[] cell = parseCell(words, engine);
+                engine.reveal(cell[0], cell[1]);
+                appendStatus(engine);
+                int count = engine.getRevealedCount();
+                int[] cells = engine.getRevealedCells();
+                response.append(' ').append(count);
+                for (int i = 0; i < count; i++) {
+                    appendCell(engine, cells[i] / engine.getNumCols(), cells[i] % engine.getNumCols());
+                }
+            }
+        }
+
+        private void flag(String[] words) {
+            GameSession session = session();
+            MineSweeperEngine engine = session.engine;
+            synchronized (session) {
+                int[] cell = parseCell(words, engine);
+                engine.toggleFlag(cell[0], cell[1]);
+                appendStatus(engine);
+                appendCell(engine, cell[0], cell[1]);
+            }
+        }
+
+        private void state() {
+            GameSession session = session();
+            MineSweeperEngine engine = session.engine;
+            synchronized (session) {
+                appendStatus(engine);
+                response.append(' ').append(engine.getNumRows()).append(' ').append(engine.getNumCols())
+                        .append(' ').append(engine.getTotalMines()).append(' ').append(engine.getMoves()).append(' ');
+                for (int row = 0; row < engine.getNumRows(); row++) {
+                    if (row > 0) {
+                        response.append('/');
+                    }
+                    for (int col = 0; col < engine.getNumCols(); col++) {
+                        response.append(glyph(engine, row, col));
+                    }
+                }
+            }
+        }
+
+        private GameSession session() {
+            GameSession session = current;
+            if (session == null || sessions.get(session.id) != session) {
+                current = null;
+                throw new IllegalStateException("no session");
+            }
+            session.lastUsed = System.nanoTime();
+            return session;
+        }
+
+        private int[] parseCell(String[] words, MineSweeperEngine engine) {
+            int[] cell = words.length == 2
+                    ? BoardLabels.parseCell(words[1], engine.getNumRows(), engine.getNumCols())
+                    : null;
+            if (cell == null) {
+                throw new IllegalArgumentException("expected a tile such as B3");
+            }
+            return cell;
+        }
+
+        private void appendStatus(MineSweeperEngine engine) {
+            response.append("OK ").append(!engine.isGameOver() ? "PLAYING" : engine.isGameWon() ? "WON" : "LOST");
+        }
+
+        private void appendCell(MineSweeperEngine engine, int row, int col) {
+            BoardLabels.appendRowLabel(response.append(' '), row).append(col + 1)
+                    .append('=').append(glyph(engine, row, col));
+        }
+
+        private char glyph(MineSweeperEngine engine, int row, int col) {
+            if (engine.isRevealed(row, col)) {
+                return (char) ('0' + engine.getMinesCount(row, col));
+            }
+            if (engine.isGameOver() && !engine.isGameWon() && engine.isMine(row, col)) {
+                return '*';
+            }
+            return engine.isFlagged(row, col) ? 'F' : '_';
+        }
+    }
+}
@@ -1,4 +1,120 @@
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The GameService interface is the game as seen by its hosts: the runner, the
+ * game window and the tests.
+ *
+ * Services are created with create(), which opens a game window when a display
+ * is available, or headless(), which only plays on the console and never loads
+ * AWT or Swing. create() decides whether a display is available without
+ * loading AWT whenever it can: the "minesweeper.headless" and
+ * "java.awt.headless" system properties are read first, and on Linux and other
+ * X11 systems a missing DISPLAY (and WAYLAND_DISPLAY) means headless.
+ */
 public interface GameService {
+
+    /**
+     * Creates a game that opens a window when a display is available.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @return the game service
+     */
+    static GameService create(int numRows, int numCols, int minesCount) {
+        return new MineSweeperService(numRows, numCols, minesCount);
+    }
+
+    /**
+     * Creates a game that is only played on the console.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @return the game service
+     */
+    static GameService headless(int numRows, int numCols, int minesCount) {
+        return new MineSweeperService(numRows, numCols, minesCount, GameMetrics.configured(), BoardPool.configured(),
+                true);
+    }
+
     boolean isGameOver();
+    boolean isGameWon();
     void startGame();
+    int reveal(int row, int col);
+    void toggleFlag(int row, int col);
+
+    /**
+     * Takes back the last move. Undoing the move that won or lost the game
+     * reopens it, and getCompletion() then returns a new future.
+     *
+     * @return false if there is no move to take back
+     */
+    boolean undo();
+
+    /**
+     * Plays again the last move taken back by undo().
+     *
+     * @return false if there is no move to play again
+     */
+    boolean redo();
+
+    /**
+     * Returns the bus that publishes a MoveEvent for every reveal, flag and
+     * game end, so that spectators, loggers and other observers can follow the
+     * game without touching its front ends.
+     *
+     * @return the game's event bus
+     */
+    MoveEventBus getEvents();
+
+    int getNumRows();
+    int getNumCols();
+    int getTotalMines();
+
+    /**
+     * Returns the topology of the board, which decides the neighbours of a tile.
+     *
+     * @return the board topology
+     */
+    BoardTopology getTopology();
+    boolean isRevealed(int row, int col);
+    boolean isFlagged(int row, int col);
+
+    /**
+     * Returns the number of mines next to a tile. Players should only read the
+     * count of tiles that have been uncovered.
+     *
+     * @param row the row index of the tile
+     * @param col the column index of the tile
+     * @return the number of adjacent mines
+     */
+    int getMinesCount(int row, int col);
+
+    /**
+     * Returns the cell ids ({@code row * getNumCols() + col}) uncovered by the
+     * last move. Only the first getRevealedCount() entries are valid and the
+     * array may be reused by the next move.
+     *
+     * @return the cells uncovered by the last move
+     */
+    int[] getRevealedCells();
+    int getRevealedCount();
+
+    /**
+     * Returns the probability that each tile is a mine, judged only from what a
+     * player can see: the uncovered numbers and the total number of mines.
+     *
+     * @return an array indexed by cell id; uncovered tiles hold 0
+     */
+    double[] getMineProbabilities();
+
+    /**
+     * Returns a future that completes with the result of the game as soon as it
+     * is won or lost. Hosts can block on it or attach callbacks instead of
+     * polling isGameOver.
+     *
+     * @return the future result of the game
+     */
+    CompletableFuture<GameResult> getCompletion();
 }
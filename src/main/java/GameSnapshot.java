@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The GameSnapshot class saves a MineSweeperEngine to a compact binary file
+ * and restores it.
+ *
+ * File layout (little-endian):
+ * - header, HEADER_BYTES long: magic "MSWP", version, status flags (game over,
+ * won, mines still to be placed, guess-free, the BoardMode in bits 4-5 and the
+ * BoardTopology in bits 6-7), generator (0 splittable, 1 xoroshiro), rows,
+ * cols, mines, moves, seed, the time played so far in nanoseconds and the
+ * placement seed the NoGuessGenerator chose for a NO_GUESS board;
+ * - the mine bitset, then the uncovered and the flagged bit planes, each as
+ * (rows * cols + 63) / 64 longs in cell id order.
+ *
+ * Version 1 files only had the game over and won flags; they are still read,
+ * as CLASSIC boards on the SQUARE topology. Version 1 and 2 headers end
+ * before the placement seed, at OLD_HEADER_BYTES.
+ *
+ * A board costs 3 bits per cell on disk. A snapshot is built in one heap
+ * buffer and written with a few FileChannel calls. Restore reads the header,
+ * then maps the bit planes read-only and copies them straight into the
+ * engine, so the planes are never copied onto the heap first; the mapping is
+ * released as soon as they are copied. The adjacent counts are recomputed
+ * from the mines in O(mines).
+ */
+public final class GameSnapshot {
+
+    static final int MAGIC = 0x5057534D;
+    static final short VERSION = 3;
+    static final int HEADER_BYTES = 48;
+    static final int OLD_HEADER_BYTES = 40;
+
+    private static final int GAME_OVER = 1;
+    private static final int GAME_WON = 2;
+    private static final int MINES_PENDING = 4;
+    private static final int GUESS_FREE = 8;
+    private static final int MODE_SHIFT = 4;
+    private static final int TOPOLOGY_SHIFT = 6;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * Writes the current position of a game to a file, replacing it if it
+     * exists.
+     *
+     * @param engine the game to save
+     * @param file   the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(MineSweeperEngine engine, Path file) throws IOException {
+        write(capture(engine), file);
+    }
+
+    /**
+     * Copies the current position of a game into a buffer holding the whole
+     * snapshot file, so that it can be written later on another thread while
+     * the game goes on.
+     *
+     * @param engine the game to copy
+     * @return the snapshot, ready to be written
+     */
+    static ByteBuffer capture(MineSweeperEngine engine) {
+        int words = engine.getPlaneWords();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 3 * words * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        int status = (engine.isGameOver() ? GAME_OVER : 0) | (engine.isGameWon() ? GAME_WON : 0)
+                | (engine.isMinesPlaced() ? 0 : MINES_PENDING) | (engine.isGuessFree() ? GUESS_FREE : 0)
+                | engine.getMode().ordinal() << MODE_SHIFT
+                | engine.getTopology().ordinal() << TOPOLOGY_SHIFT;
+        buffer.putInt(MAGIC)
+                .putShort(VERSION)
+                .put((byte) status)
+                .put((byte) (engine.getRandom() instanceof BoardRandom.Xoroshiro128Plus ? 1 : 0))
+                .putInt(engine.getNumRows())
+                .putInt(engine.getNumCols())
+                .putInt(engine.getTotalMines())
+                .putInt(engine.getMoves())
+                .putLong(engine.getSeed())
+                .putLong(engine.getElapsedNanos())
+                .putLong(engine.getPlacementSeed());
+
+        engine.writePlanes(buffer.asLongBuffer());
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    /**
+     * Writes a snapshot made by capture() to a file, replacing it if it exists.
+     *
+     * @param snapshot the snapshot
+     * @param file     the file to write
+     * @throws IOException if the file cannot be written
+     */
+    static void write(ByteBuffer snapshot, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = snapshot.duplicate();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Reads a game saved by save(). The restored engine reproduces the saved
+     * position, and restarting it replays the same board.
+     *
+     * @param file the file to read
+     * @return the restored game
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static MineSweeperEngine restore(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ((Buffer) buffer).limit(OLD_HEADER_BYTES);
+            readFully(channel, buffer, file);
+            ((Buffer) buffer).flip();
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a Minesweeper snapshot: " + file);
+            }
+            short version = buffer.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            // Older versions left the status bits they did not define unset or, in version 1, unused
+            int status = buffer.get() & (version == 1 ? GAME_OVER | GAME_WON : version == 2 ? 0xF7 : 0xFF);
+            int generator = buffer.get();
+            int numRows = buffer.getInt();
+            int numCols = buffer.getInt();
+            int minesCount = buffer.getInt();
+            int moves = buffer.getInt();
+            long seed = buffer.getLong();
+            long elapsedNanos = buffer.getLong();
+            int headerBytes = OLD_HEADER_BYTES;
+            long placementSeed = seed;
+            if (version >= 3) {
+                ((Buffer) buffer).limit(HEADER_BYTES);
+                readFully(channel, buffer, file);
+                placementSeed = buffer.getLong(OLD_HEADER_BYTES);
+                headerBytes = HEADER_BYTES;
+            }
+
+            int modeIndex = (status >> MODE_SHIFT) & 3;
+            if (modeIndex >= BoardMode.values().length) {
+                throw new IOException("Corrupt snapshot header: board mode " + modeIndex);
+            }
+            BoardTopology topology = BoardTopology.values()[(status >> TOPOLOGY_SHIFT) & 3];
+            long cells = (long) numRows * numCols;
+            long planeBytes = 3 * ((cells + 63) >>> 6) * Long.BYTES;
+            if (numRows < 1 || numCols < 1 || fileSize != headerBytes + planeBytes) {
+                throw new IOException("Truncated snapshot: " + file);
+            }
+
+            MineSweeperEngine engine;
+            try {
+                BoardRandom random = generator == 1 ? BoardRandom.xoroshiro(seed) : BoardRandom.splittable(seed);
+                engine = new MineSweeperEngine(numRows, numCols, minesCount, random, BoardMode.values()[modeIndex],
+                        topology);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt snapshot header: " + e.getMessage(), e);
+            }
+
+            // A board of MAX_CELLS cells has planes of about 400 MB, well within one mapping
+            MappedByteBuffer planes = channel.map(FileChannel.MapMode.READ_ONLY, headerBytes, planeBytes);
+            try {
+                planes.order(ByteOrder.LITTLE_ENDIAN);
+                engine.restore(planes.asLongBuffer(), moves, elapsedNanos, (status & GAME_OVER) != 0,
+                        (status & GAME_WON) != 0, (status & MINES_PENDING) != 0);
+            } finally {
+                unmap(planes);
+            }
+            if ((status & MINES_PENDING) == 0) {
+                engine.setPlacement(placementSeed, (status & GUESS_FREE) != 0);
+            }
+            return engine;
+        }
+    }
+
+    /**
+     * Fills the buffer up to its limit from the channel's current position.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, Path file) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Not a Minesweeper snapshot: " + file);
+            }
+        }
+    }
+
+    /**
+     * Releases a mapping once the engine has copied the planes out of it,
+     * instead of when the buffer is garbage collected, so the file can be
+     * saved over or deleted straight after restore, also on Windows. The
+     * buffer must not be read afterwards. On a JVM that offers neither
+     * cleaner the mapping is left to the garbage collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (NoSuchMethodException e) {
+            // Java 8
+            try {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // Left to the garbage collector
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+    }
+}
@@ -0,0 +1,580 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The GameStatsStore class keeps the result of every finished game in a local,
+ * append-only file and answers aggregate queries over them: win rate, best
+ * time and solve time percentiles for each difficulty (board size and number
+ * of mines).
+ *
+ * File layout (little-endian): an 8-byte header (magic "MSWS" and version)
+ * followed by blocks of up to BLOCK_GAMES games. A block is stored column by
+ * column: the number of games, then the rows, columns, mines and moves of
+ * every game as ints, their seeds and durations in nanoseconds as longs, and
+ * a bitset of the games that were won. A block cut short by a crash is
+ * dropped when the store is opened again.
+ *
+ * Queries never scan the games. Every difficulty keeps a tally that is
+ * updated as games are recorded: counters, the best time and a Histogram of
+ * the solve times of won games with 32 buckets per power of two, from which
+ * percentiles are read with about 3% error. Queries return a Summary, an
+ * immutable copy of the tally taken under the store's lock. The tallies are
+ * saved next to the file, in {@code <file>.summary}, each time a block is
+ * written, together with the length of the file they cover; opening the store
+ * loads them and only reads the blocks written after them. A store of millions
+ * of games therefore opens and answers in time proportional to the number of
+ * difficulties.
+ *
+ * All methods are thread-safe. A write error does not interrupt the game that
+ * recorded its result; it is thrown by the next flush or close.
+ */
+public class GameStatsStore implements Closeable {
+
+    static final int MAGIC = 0x5357534D;
+    static final int SUMMARY_MAGIC = 0x4157534D;
+    static final short VERSION = 1;
+    static final short SUMMARY_VERSION = 2;
+    static final int SOLVE_SUB_BUCKET_BITS = 5;
+    static final int HEADER_BYTES = 8;
+    static final int BLOCK_GAMES = 4096;
+
+    private static volatile GameStatsStore configured;
+    private static volatile boolean configuredLoaded = false;
+
+    private final Path file;
+    private final Path summaryFile;
+    private final FileChannel channel;
+    private final Map<Key, Tally> tallies = new HashMap<>();
+
+    private final int[] rows = new int[BLOCK_GAMES];
+    private final int[] cols = new int[BLOCK_GAMES];
+    private final int[] mines = new int[BLOCK_GAMES];
+    private final int[] moves = new int[BLOCK_GAMES];
+    private final long[] seeds = new long[BLOCK_GAMES];
+    private final long[] durations = new long[BLOCK_GAMES];
+    private final long[] won = new long[BLOCK_GAMES / 64];
+    private final ByteBuffer block = ByteBuffer.allocate(blockBytes(BLOCK_GAMES)).order(ByteOrder.LITTLE_ENDIAN);
+    private int pending = 0;
+
+    private long games = 0;
+    private long fileBytes;
+    private IOException failure;
+
+    /**
+     * Opens a store, creating the file if it does not exist.
+     *
+     * @param file the store file
+     * @throws IOException if the file cannot be read or is not a store
+     */
+    public GameStatsStore(Path file) throws IOException {
+        this.file = file;
+        this.summaryFile = file.resolveSibling(file.getFileName() + ".summary");
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+                ((Buffer) header).flip();
+                writeFully(header, 0);
+                this.fileBytes = HEADER_BYTES;
+            } else {
+                ByteBuffer header = readFully(0, HEADER_BYTES);
+                if (header == null || header.getInt() != MAGIC) {
+                    throw new IOException("Not a Minesweeper stats store: " + file);
+                }
+                short version = header.getShort();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported stats store version " + version + ": " + file);
+                }
+                this.fileBytes = loadSummaries();
+                scanBlocks();
+                // Drop a block cut short by a crash, so new blocks follow the last complete one
+                channel.truncate(fileBytes);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the shared store named by the "minesweeper.stats" system
+     * property, or null when it is not set. The store is flushed and closed
+     * when the JVM exits.
+     *
+     * @return the shared store, or null
+     * @throws IllegalArgumentException if the store cannot be opened
+     */
+    public static GameStatsStore configured() {
+        if (!configuredLoaded) {
+            synchronized (GameStatsStore.class) {
+                if (!configuredLoaded) {
+                    String name = System.getProperty("minesweeper.stats", "").trim();
+                    if (!name.isEmpty() && !name.equals("off")) {
+                        try {
+                            GameStatsStore store = new GameStatsStore(Paths.get(name));
+                            Runtime.getRuntime().addShutdownHook(new Thread(store::closeQuietly, "minesweeper-stats"));
+                            configured = store;
+                        } catch (IOException e) {
+                            throw new IllegalArgumentException("Cannot open stats store " + name, e);
+                        }
+                    }
+                    configuredLoaded = true;
+                }
+            }
+        }
+        return configured;
+    }
+
+    /**
+     * Records the result of a finished game.
+     *
+     * @param engine the game
+     * @param result its result
+     */
+    public void record(MineSweeperEngine engine, GameResult result) {
+        record(engine.getNumRows(), engine.getNumCols(), engine.getTotalMines(), engine.getSeed(), result.isWon(),
+                result.getMoves(), result.getDurationNanos());
+    }
+
+    /**
+     * Records the result of a finished game. The game is written to the file
+     * with the next full block, or by flush.
+     *
+     * @param numRows       the number of rows
+     * @param numCols       the number of columns
+     * @param minesCount    the number of mines
+     * @param seed          the seed the mines were placed from
+     * @param won           true if the game was won
+     * @param moveCount     the number of moves played
+     * @param durationNanos the duration of the game
+     */
+    public synchronized void record(int numRows, int numCols, int minesCount, long seed, boolean won, int moveCount,
+                                    long durationNanos) {
+        int i = pending++;
+        rows[i] = numRows;
+        cols[i] = numCols;
+        mines[i] = minesCount;
+        moves[i] = moveCount;
+        seeds[i] = seed;
+        durations[i] = durationNanos;
+        if (won) {
+            this.won[i >>> 6] |= 1L << i;
+        }
+        games++;
+        summarize(numRows, numCols, minesCount, won, moveCount, durationNanos);
+        if (pending == BLOCK_GAMES) {
+            try {
+                writeBlock();
+                saveSummaries();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private void summarize(int numRows, int numCols, int minesCount, boolean won, int moveCount, long durationNanos) {
+        Tally tally = tallyOf(numRows, numCols, minesCount);
+        tally.games++;
+        tally.moves += moveCount;
+        if (won) {
+            tally.wins++;
+            tally.best = Math.min(tally.best, durationNanos);
+            tally.solveNanos.record(durationNanos);
+        }
+    }
+
+    private Tally tallyOf(int numRows, int numCols, int minesCount) {
+        return tallies.computeIfAbsent(new Key(numRows, numCols, minesCount),
+                key -> new Tally(numRows, numCols, minesCount));
+    }
+
+    /**
+     * Returns the summary of the games played at one difficulty.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @return a copy of the summary, or null if no such game was recorded
+     */
+    public synchronized Summary getSummary(int numRows, int numCols, int minesCount) {
+        Tally tally = tallies.get(new Key(numRows, numCols, minesCount));
+        return tally == null ? null : new Summary(tally);
+    }
+
+    /**
+     * Returns the summaries of every difficulty, from the smallest board to the
+     * largest and, for one board size, from the fewest mines to the most.
+     *
+     * @return copies of the summaries
+     */
+    public synchronized List<Summary> getSummaries() {
+        List<Summary> list = new ArrayList<>(tallies.size());
+        for (Tally tally : tallies.values()) {
+            list.add(new Summary(tally));
+        }
+        list.sort(Comparator.comparingLong((Summary summary) -> (long) summary.numRows * summary.numCols)
+                .thenComparingInt(summary -> summary.numRows)
+                .thenComparingInt(summary -> summary.minesCount));
+        return list;
+    }
+
+    /**
+     * Returns the number of games recorded, including those not written yet.
+     *
+     * @return the number of games
+     */
+    public synchronized long getGames() {
+        return games;
+    }
+
+    /**
+     * Writes the recorded games and the summaries to disk.
+     *
+     * @throws IOException if a write has failed
+     */
+    public synchronized void flush() throws IOException {
+        IOException e = failure;
+        failure = null;
+        if (e != null) {
+            throw e;
+        }
+        if (pending > 0) {
+            writeBlock();
+            saveSummaries();
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Flushes the store and closes the file.
+     *
+     * @throws IOException if a write has failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Cannot save game statistics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static int blockBytes(int count) {
+        return Integer.BYTES + 4 * Integer.BYTES * count + 2 * Long.BYTES * count + Long.BYTES * ((count + 63) >>> 6);
+    }
+
+    private void writeBlock() throws IOException {
+        int count = pending;
+        ((Buffer) block).clear();
+        block.putInt(count);
+        block.asIntBuffer().put(rows, 0, count);
+        ((Buffer) block).position(block.position() + count * Integer.BYTES);
+        block.asIntBuffer().put(cols, 0, count);
+        ((Buffer) block).position(block.position() + count * Integer.BYTES);
+        block.asIntBuffer().put(mines, 0, count);
+        ((Buffer) block).position(block.position() + count * Integer.BYTES);
+        block.asIntBuffer().put(moves, 0, count);
+        ((Buffer) block).position(block.position() + count * Integer.BYTES);
+        block.asLongBuffer().put(seeds, 0, count);
+        ((Buffer) block).position(block.position() + count * Long.BYTES);
+        block.asLongBuffer().put(durations, 0, count);
+        ((Buffer) block).position(block.position() + count * Long.BYTES);
+        int words = (count + 63) >>> 6;
+        block.asLongBuffer().put(won, 0, words);
+        ((Buffer) block).position(block.position() + words * Long.BYTES);
+        ((Buffer) block).flip();
+
+        pending = 0;
+        Arrays.fill(won, 0L);
+        writeFully(block, fileBytes);
+        fileBytes += blockBytes(count);
+    }
+
+    /**
+     * Reads the blocks written after the saved summaries and adds their games
+     * to them. Stops at the first incomplete block.
+     */
+    private void scanBlocks() throws IOException {
+        long size = channel.size();
+        while (fileBytes + Integer.BYTES <= size) {
+            ByteBuffer counter = readFully(fileBytes, Integer.BYTES);
+            int count = counter.getInt();
+            if (count < 1 || count > BLOCK_GAMES || fileBytes + blockBytes(count) > size) {
+                return;
+            }
+            ByteBuffer data = readFully(fileBytes + Integer.BYTES, blockBytes(count) - Integer.BYTES);
+            int rowsAt = 0;
+            int colsAt = rowsAt + count * Integer.BYTES;
+            int minesAt = colsAt + count * Integer.BYTES;
+            int movesAt = minesAt + count * Integer.BYTES;
+            int durationsAt = movesAt + count * Integer.BYTES + count * Long.BYTES;
+            int wonAt = durationsAt + count * Long.BYTES;
+            for (int i = 0; i < count; i++) {
+                boolean gameWon = (data.getLong(wonAt + (i >>> 6) * Long.BYTES) >>> i & 1) != 0;
+                summarize(data.getInt(rowsAt + i * Integer.BYTES), data.getInt(colsAt + i * Integer.BYTES),
+                        data.getInt(minesAt + i * Integer.BYTES), gameWon, data.getInt(movesAt + i * Integer.BYTES),
+                        data.getLong(durationsAt + i * Long.BYTES));
+            }
+            games += count;
+            fileBytes += blockBytes(count);
+        }
+    }
+
+    /**
+     * Loads the saved summaries if they match this store.
+     *
+     * @return the length of the file they cover, or the header length when
+     *         there are none
+     */
+    private long loadSummaries() throws IOException {
+        if (!Files.isRegularFile(summaryFile)) {
+            return HEADER_BYTES;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(summaryFile)).order(ByteOrder.LITTLE_ENDIAN);
+        int fixed = HEADER_BYTES + 2 * Long.BYTES + Integer.BYTES;
+        int buckets = Histogram.bucketCount(SOLVE_SUB_BUCKET_BITS);
+        int entry = 3 * Integer.BYTES + 6 * Long.BYTES + buckets * Long.BYTES;
+        // Summaries of an older version are ignored and rebuilt from the blocks
+        if (in.remaining() < fixed || in.getInt() != SUMMARY_MAGIC || in.getShort() != SUMMARY_VERSION) {
+            return HEADER_BYTES;
+        }
+        in.getShort();
+        long covered = in.getLong();
+        long coveredGames = in.getLong();
+        int count = in.getInt();
+        if (covered < HEADER_BYTES || covered > channel.size() || count < 0
+                || in.remaining() != (long) count * entry) {
+            return HEADER_BYTES;
+        }
+        long[] counts = new long[buckets];
+        for (int i = 0; i < count; i++) {
+            Tally tally = tallyOf(in.getInt(), in.getInt(), in.getInt());
+            tally.games = in.getLong();
+            tally.wins = in.getLong();
+            tally.moves = in.getLong();
+            tally.best = in.getLong();
+            long sum = in.getLong();
+            long max = in.getLong();
+            in.asLongBuffer().get(counts);
+            ((Buffer) in).position(in.position() + counts.length * Long.BYTES);
+            tally.solveNanos.add(counts, sum, max);
+        }
+        this.games = coveredGames;
+        return covered;
+    }
+
+    /**
+     * Saves the summaries of the games written so far. Called only when no game
+     * is pending, so the summaries match the file length they are saved with.
+     */
+    private void saveSummaries() throws IOException {
+        int entry = 3 * Integer.BYTES + 6 * Long.BYTES + Histogram.bucketCount(SOLVE_SUB_BUCKET_BITS) * Long.BYTES;
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + 2 * Long.BYTES + Integer.BYTES + tallies.size() * entry)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(SUMMARY_MAGIC).putShort(SUMMARY_VERSION).putShort((short) 0);
+        out.putLong(fileBytes).putLong(games).putInt(tallies.size());
+        for (Tally tally : tallies.values()) {
+            out.putInt(tally.numRows).putInt(tally.numCols).putInt(tally.minesCount);
+            out.putLong(tally.games).putLong(tally.wins).putLong(tally.moves).putLong(tally.best);
+            out.putLong(tally.solveNanos.getSum()).putLong(tally.solveNanos.getMax());
+            for (long bucket : tally.solveNanos.getBucketCounts()) {
+                out.putLong(bucket);
+            }
+        }
+        Path temporary = summaryFile.resolveSibling(summaryFile.getFileName() + ".tmp");
+        Files.write(temporary, out.array());
+        Files.move(temporary, summaryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Reads length bytes at the given position.
+     *
+     * @return the bytes, or null if the file ends first
+     */
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return null;
+            }
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder text = new StringBuilder("games=").append(games);
+        for (Summary summary : getSummaries()) {
+            text.append('\n').append(summary);
+        }
+        return text.toString();
+    }
+
+    /**
+     * The Tally class holds the pre-aggregated results of the games played at
+     * one difficulty. It is only touched under the store's lock.
+     */
+    private static final class Tally {
+        final int numRows;
+        final int numCols;
+        final int minesCount;
+        long games = 0;
+        long wins = 0;
+        long moves = 0;
+        long best = Long.MAX_VALUE;
+        final Histogram solveNanos = new Histogram(SOLVE_SUB_BUCKET_BITS);
+
+        Tally(int numRows, int numCols, int minesCount) {
+            this.numRows = numRows;
+            this.numCols = numCols;
+            this.minesCount = minesCount;
+        }
+    }
+
+    /**
+     * The Summary class is an immutable copy of the results of the games
+     * played at one difficulty, as they were when it was queried. Games
+     * recorded later do not change it.
+     */
+    public static final class Summary {
+        private final int numRows;
+        private final int numCols;
+        private final int minesCount;
+        private final long games;
+        private final long wins;
+        private final long moves;
+        private final long best;
+        private final Histogram solveNanos;
+
+        private Summary(Tally tally) {
+            this.numRows = tally.numRows;
+            this.numCols = tally.numCols;
+            this.minesCount = tally.minesCount;
+            this.games = tally.games;
+            this.wins = tally.wins;
+            this.moves = tally.moves;
+            this.best = tally.best;
+            this.solveNanos = tally.solveNanos.copy();
+        }
+
+        public int getNumRows() {
+            return numRows;
+        }
+
+        public int getNumCols() {
+            return numCols;
+        }
+
+        public int getMinesCount() {
+            return minesCount;
+        }
+
+        public long getGames() {
+            return games;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        public double getMeanMoves() {
+            return games == 0 ? 0 : (double) moves / games;
+        }
+
+        /**
+         * Returns the duration of the fastest won game.
+         *
+         * @return the best time in nanoseconds, or -1 if no game was won
+         */
+        public long getBestNanos() {
+            return wins == 0 ? -1 : best;
+        }
+
+        /**
+         * Returns the distribution of the durations of won games, e.g.
+         * {@code getSolveNanos().getPercentile(0.95)} for p95. Each call
+         * returns a new copy, so recording to it does not change the summary.
+         *
+         * @return the solve times in nanoseconds
+         */
+        public Histogram getSolveNanos() {
+            return solveNanos.copy();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%dx%d %d mines: games=%d wins=%d winRate=%.1f%% best=%.1fms"
+                            + " p50=%.1fms p95=%.1fms p99=%.1fms",
+                    numRows, numCols, minesCount, games, wins, getWinRate() * 100,
+                    (wins == 0 ? 0 : best) / 1e6, solveNanos.getPercentile(0.5) / 1e6,
+                    solveNanos.getPercentile(0.95) / 1e6, solveNanos.getPercentile(0.99) / 1e6);
+        }
+    }
+
+    private static final class Key {
+        final int numRows;
+        final int numCols;
+        final int minesCount;
+
+        Key(int numRows, int numCols, int minesCount) {
+            this.numRows = numRows;
+            this.numCols = numCols;
+            this.minesCount = minesCount;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return numRows == key.numRows && numCols == key.numCols && minesCount == key.minesCount;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(numRows, numCols, minesCount);
+        }
+    }
+}
@@ -0,0 +1,727 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The HintEngine class computes the exact probability that each covered tile
+ * holds a mine, given what the player can see through the GameService API:
+ * the uncovered numbers and the total number of mines. Flags are treated as
+ * covered tiles, since a player may have placed them wrongly.
+ *
+ * The frontier (covered tiles next to an uncovered number) is split into
+ * independent components: two frontier tiles belong to the same component
+ * when a chain of numbers connects them. Every component is enumerated
+ * separately, in parallel, by a backtracking search that counts its valid mine
+ * layouts by number of mines. The per-component counts are then combined with
+ * the remaining covered tiles, which share the mines not placed on the
+ * frontier, to weigh every layout by the number of boards it is part of.
+ *
+ * The frontier is kept up to date between queries rather than rebuilt: the
+ * engine reports the tiles every move uncovered or covered again, they are
+ * queued like the Solver's dirty cells, and a query only updates the
+ * neighbour counts around the queued tiles. Every tile keeps the number of
+ * uncovered and covered tiles around it, and the covered tiles next to a
+ * number and the numbers next to a covered tile are kept in two int lists
+ * with O(1) removal. A query then joins the components over these lists
+ * alone, never over the whole board.
+ *
+ * Component results are cached by the tiles and numbers that define the
+ * component. A move only changes the components around the tiles it
+ * uncovered, so a query after a move enumerates just those components again.
+ *
+ * A component whose search exceeds NODE_BUDGET steps is not enumerated; its
+ * tiles are estimated from their most constrained number instead and are
+ * left out of the global weighting.
+ */
+public class HintEngine {
+
+    static final long NODE_BUDGET = 20_000_000L;
+
+    private static final byte OUTSIDE = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte CONSTRAINT = 2;
+
+    private final GameService game;
+    private final int numRows;
+    private final int numCols;
+    private final BoardTopology topology;
+    private final NeighbourTable table;
+
+    // The board as of the last query, and the uncovered and covered neighbours of every tile
+    private final boolean[] revealed;
+    private final byte[] revealedAround;
+    private final byte[] coveredAround;
+    // Covered tiles next to a number, numbers next to a covered tile, and each tile's index in its list
+    private final byte[] member;
+    private final int[] position;
+    private int[] frontier = new int[16];
+    private int frontierCount;
+    private int[] constraints = new int[16];
+    private int constraintCount;
+    private int covered;
+
+    // Tiles changed since the last query
+    private final int[] dirty;
+    private final boolean[] inDirty;
+    private int dirtyCount;
+    private boolean stale = true;
+
+    private final int[] neighbours = new int[8];
+
+    private Map<ComponentKey, ComponentResult> cache = new HashMap<>();
+    private int lastEnumerated;
+
+    /**
+     * Creates the hint engine of a game, which must report every tile it
+     * uncovers or covers again through changed(), and call reset() when the
+     * whole board changes.
+     *
+     * @param game the game
+     */
+    HintEngine(GameService game) {
+        this.game = game;
+        this.numRows = game.getNumRows();
+        this.numCols = game.getNumCols();
+        this.topology = game.getTopology();
+        this.table = NeighbourTable.of(topology, numRows, numCols);
+        int cells = numRows * numCols;
+        this.revealed = new boolean[cells];
+        this.revealedAround = new byte[cells];
+        this.coveredAround = new byte[cells];
+        this.member = new byte[cells];
+        this.position = new int[cells];
+        this.dirty = new int[cells];
+        this.inDirty = new boolean[cells];
+    }
+
+    /**
+     * Queues tiles whose state may have changed since the last query. Tiles
+     * that end up as they were, e.g. a flag, are skipped by the next query.
+     *
+     * @param cells the cell ids; the first count entries are read
+     * @param count the number of cells
+     */
+    void changed(int[] cells, int count) {
+        if (stale) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            if (!inDirty[cell]) {
+                inDirty[cell] = true;
+                dirty[dirtyCount++] = cell;
+            }
+        }
+    }
+
+    /**
+     * Makes the next query read the whole board again, after a new game or a
+     * restored position.
+     */
+    void reset() {
+        stale = true;
+    }
+
+    /**
+     * Returns the number of components the last query had to enumerate, i.e.
+     * the components that were not found in the cache.
+     *
+     * @return the number of components enumerated by the last query
+     */
+    public int getLastEnumerated() {
+        return lastEnumerated;
+    }
+
+    /**
+     * Computes the mine probability of every covered tile.
+     *
+     * @return an array indexed by cell id holding the probability that the
+     *         tile is a mine; uncovered tiles hold 0
+     */
+    public double[] getMineProbabilities() {
+        if (stale) {
+            rebuild();
+        } else {
+            ingest();
+        }
+        double[] probabilities = new double[numRows * numCols];
+
+        // Join the covered tiles around each number into components
+        int[] parent = new int[frontierCount];
+        for (int i = 0; i < frontierCount; i++) {
+            parent[i] = i;
+        }
+        for (int q = 0; q < constraintCount; q++) {
+            int n = neighbours(constraints[q]);
+            int first = -1;
+            for (int j = 0; j < n; j++) {
+                if (!revealed[neighbours[j]]) {
+                    int index = position[neighbours[j]];
+                    if (first < 0) {
+                        first = index;
+                    } else {
+                        parent[find(parent, index)] = find(parent, first);
+                    }
+                }
+            }
+        }
+
+        // Number the components and sort their tiles and numbers into ranges
+        int[] componentOf = new int[frontierCount];
+        int components = 0;
+        for (int i = 0; i < frontierCount; i++) {
+            componentOf[i] = find(parent, i) == i ? components++ : -1;
+        }
+        for (int i = 0; i < frontierCount; i++) {
+            componentOf[i] = componentOf[find(parent, i)];
+        }
+        int[] constraintOf = new int[constraintCount];
+        for (int q = 0; q < constraintCount; q++) {
+            int n = neighbours(constraints[q]);
+            for (int j = 0; j < n; j++) {
+                if (!revealed[neighbours[j]]) {
+                    constraintOf[q] = componentOf[position[neighbours[j]]];
+                    break;
+                }
+            }
+        }
+        int[] cellStarts = new int[components + 1];
+        int[] cellsByComponent = group(frontier, frontierCount, componentOf, cellStarts);
+        int[] constraintStarts = new int[components + 1];
+        int[] constraintsByComponent = group(constraints, constraintCount, constraintOf, constraintStarts);
+
+        List<ComponentKey> keys = new ArrayList<>(components);
+        for (int c = 0; c < components; c++) {
+            int[] componentConstraints = Arrays.copyOfRange(constraintsByComponent, constraintStarts[c],
+                    constraintStarts[c + 1]);
+            int[] counts = new int[componentConstraints.length];
+            for (int q = 0; q < counts.length; q++) {
+                counts[q] = game.getMinesCount(componentConstraints[q] / numCols, componentConstraints[q] % numCols);
+            }
+            keys.add(new ComponentKey(Arrays.copyOfRange(cellsByComponent, cellStarts[c], cellStarts[c + 1]),
+                    componentConstraints, counts));
+        }
+
+        // Enumerate the components that are not cached, in parallel
+        Map<ComponentKey, ComponentResult> results = new HashMap<>();
+        List<ComponentKey> missing = new ArrayList<>();
+        for (ComponentKey key : keys) {
+            ComponentResult cached = cache.get(key);
+            if (cached != null) {
+                results.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        List<ComponentProblem> problems = new ArrayList<>();
+        for (ComponentKey key : missing) {
+            problems.add(new ComponentProblem(key));
+        }
+        problems.parallelStream().forEach(ComponentProblem::enumerate);
+        for (ComponentProblem problem : problems) {
+            results.put(problem.key, problem.result);
+        }
+        this.cache = results;
+        this.lastEnumerated = missing.size();
+
+        combine(keys, results, covered, probabilities);
+        return probabilities;
+    }
+
+    /**
+     * Reads the whole board and builds the neighbour counts and both lists
+     * from scratch.
+     */
+    private void rebuild() {
+        int cells = numRows * numCols;
+        Arrays.fill(member, OUTSIDE);
+        frontierCount = 0;
+        constraintCount = 0;
+        covered = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            revealed[cell] = isRevealed(cell);
+            if (!revealed[cell]) {
+                covered++;
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            int n = neighbours(cell);
+            int around = 0;
+            for (int j = 0; j < n; j++) {
+                if (revealed[neighbours[j]]) {
+                    around++;
+                }
+            }
+            revealedAround[cell] = (byte) around;
+            coveredAround[cell] = (byte) (n - around);
+            place(cell);
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            inDirty[dirty[i]] = false;
+        }
+        dirtyCount = 0;
+        stale = false;
+    }
+
+    /**
+     * Applies the tiles queued since the last query: each one that was
+     * uncovered or covered again moves between the lists, together with the
+     * neighbours whose counts it changed.
+     */
+    private void ingest() {
+        while (dirtyCount > 0) {
+            int cell = dirty[--dirtyCount];
+            inDirty[cell] = false;
+            boolean now = isRevealed(cell);
+            if (now == revealed[cell]) {
+                continue;
+            }
+            revealed[cell] = now;
+            covered += now ? -1 : 1;
+            int n = neighbours(cell);
+            for (int j = 0; j < n; j++) {
+                int neighbour = neighbours[j];
+                revealedAround[neighbour] += now ? 1 : -1;
+                coveredAround[neighbour] -= now ? 1 : -1;
+                place(neighbour);
+            }
+            place(cell);
+        }
+    }
+
+    /**
+     * Puts a tile in the list it now belongs to: the frontier for a covered
+     * tile next to a number, the constraints for a number next to a covered
+     * tile, or neither.
+     */
+    private void place(int cell) {
+        byte list = revealed[cell] ? (coveredAround[cell] > 0 ? CONSTRAINT : OUTSIDE)
+                : (revealedAround[cell] > 0 ? FRONTIER : OUTSIDE);
+        if (list == member[cell]) {
+            return;
+        }
+        if (member[cell] == FRONTIER) {
+            frontierCount = remove(frontier, frontierCount, cell);
+        } else if (member[cell] == CONSTRAINT) {
+            constraintCount = remove(constraints, constraintCount, cell);
+        }
+        if (list == FRONTIER) {
+            if (frontierCount == frontier.length) {
+                frontier = Arrays.copyOf(frontier, frontierCount * 2);
+            }
+            position[cell] = frontierCount;
+            frontier[frontierCount++] = cell;
+        } else if (list == CONSTRAINT) {
+            if (constraintCount == constraints.length) {
+                constraints = Arrays.copyOf(constraints, constraintCount * 2);
+            }
+            position[cell] = constraintCount;
+            constraints[constraintCount++] = cell;
+        }
+        member[cell] = list;
+    }
+
+    /**
+     * Removes a tile from a list by moving the last entry into its place.
+     *
+     * @return the new length of the list
+     */
+    private int remove(int[] list, int count, int cell) {
+        int last = list[--count];
+        list[position[cell]] = last;
+        position[last] = position[cell];
+        return count;
+    }
+
+    /**
+     * Sorts the first count values by the group each belongs to, and by value
+     * within a group.
+     *
+     * @param values  the values
+     * @param count   the number of values
+     * @param groupOf the group of each value, by index
+     * @param starts  filled with the start of every group, plus the end
+     * @return the grouped values
+     */
+    private static int[] group(int[] values, int count, int[] groupOf, int[] starts) {
+        for (int i = 0; i < count; i++) {
+            starts[groupOf[i] + 1]++;
+        }
+        for (int g = 1; g < starts.length; g++) {
+            starts[g] += starts[g - 1];
+        }
+        int[] next = Arrays.copyOf(starts, starts.length - 1);
+        int[] grouped = new int[count];
+        for (int i = 0; i < count; i++) {
+            grouped[next[groupOf[i]]++] = values[i];
+        }
+        for (int g = 0; g + 1 < starts.length; g++) {
+            Arrays.sort(grouped, starts[g], starts[g + 1]);
+        }
+        return grouped;
+    }
+
+    /**
+     * Weighs the layouts of every component by the number of ways the remaining
+     * mines can be spread over the covered tiles off the frontier, and writes
+     * the resulting probabilities.
+     */
+    private void combine(List<ComponentKey> keys, Map<ComponentKey, ComponentResult> results,
+            int covered, double[] probabilities) {
+        List<ComponentKey> exact = new ArrayList<>();
+        int others = covered;
+        for (ComponentKey key : keys) {
+            ComponentResult result = results.get(key);
+            if (result.solutions != null) {
+                exact.add(key);
+                others -= key.cells.length;
+            } else {
+                for (int i = 0; i < key.cells.length; i++) {
+                    probabilities[key.cells[i]] = result.estimates[i];
+                }
+                others -= key.cells.length;
+            }
+        }
+
+        int components = exact.size();
+        double[][] prefix = new double[components + 1][];
+        double[][] suffix = new double[components + 1][];
+        prefix[0] = new double[] { 1 };
+        suffix[components] = new double[] { 1 };
+        for (int c = 0; c < components; c++) {
+            prefix[c + 1] = convolve(prefix[c], results.get(exact.get(c)).solutions);
+        }
+        for (int c = components - 1; c >= 0; c--) {
+            suffix[c] = convolve(suffix[c + 1], results.get(exact.get(c)).solutions);
+        }
+
+        int mines = game.getTotalMines();
+        double[] otherWeights = binomialWeights(others, mines);
+
+        for (int c = 0; c < components; c++) {
+            ComponentKey key = exact.get(c);
+            ComponentResult result = results.get(key);
+            double[] rest = convolve(prefix[c], suffix[c + 1]);
+
+            double total = 0;
+            double[] weights = new double[result.solutions.length];
+            for (int k = 0; k < weights.length; k++) {
+                double weight = 0;
+                for (int r = 0; r < rest.length; r++) {
+                    weight += rest[r] * weightOf(otherWeights, mines - k - r);
+                }
+                weights[k] = weight;
+                total += result.solutions[k] * weight;
+            }
+            int size = key.cells.length;
+            int rows = result.cellMines.length / Math.max(size, 1);
+            for (int i = 0; i < size; i++) {
+                double mine = 0;
+                for (int row = 0; row < rows; row++) {
+                    mine += result.cellMines[row * size + i] * weights[result.minesFrom + row];
+                }
+                probabilities[key.cells[i]] = total > 0 ? mine / total : 0;
+            }
+        }
+
+        if (others > 0) {
+            double[] all = prefix[components];
+            double total = 0;
+            double expected = 0;
+            for (int k = 0; k < all.length; k++) {
+                double weight = all[k] * weightOf(otherWeights, mines - k);
+                total += weight;
+                expected += weight * (mines - k);
+            }
+            double other = total > 0 ? expected / total / others : 0;
+            for (int cell = 0; cell < probabilities.length; cell++) {
+                if (member[cell] == OUTSIDE && !revealed[cell]) {
+                    probabilities[cell] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns C(n, r) for every r from 0 to max, divided by the largest of them
+     * so the values stay within double range.
+     */
+    private static double[] binomialWeights(int n, int max) {
+        int top = Math.min(n, max);
+        double[] logs = new double[top + 1];
+        double peak = 0;
+        for (int r = 1; r <= top; r++) {
+            logs[r] = logs[r - 1] + Math.log((double) (n - r + 1) / r);
+            peak = Math.max(peak, logs[r]);
+        }
+        double[] weights = new double[top + 1];
+        for (int r = 0; r <= top; r++) {
+            weights[r] = Math.exp(logs[r] - peak);
+        }
+        return weights;
+    }
+
+    private static double weightOf(double[] weights, int r) {
+        return r >= 0 && r < weights.length ? weights[r] : 0;
+    }
+
+    /**
+     * Multiplies two polynomials given by their coefficients, then divides the
+     * result by its largest coefficient. Probabilities are ratios of these
+     * values, so the scaling cancels out.
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        double[] out = new double[a.length + b.length - 1];
+        double peak = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                out[i + j] += a[i] * b[j];
+            }
+        }
+        for (double value : out) {
+            peak = Math.max(peak, value);
+        }
+        if (peak > 0) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] /= peak;
+            }
+        }
+        return out;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private boolean isRevealed(int cell) {
+        return game.isRevealed(cell / numCols, cell % numCols);
+    }
+
+    private int neighbours(int cell) {
+        return neighbours(cell, neighbours);
+    }
+
+    private int neighbours(int cell, int[] out) {
+        return table != null ? table.copyNeighbours(cell, out) : topology.neighbours(numRows, numCols, cell, out);
+    }
+
+    /**
+     * Identifies a component by its covered tiles, the numbers around them and
+     * their values, so two components with the same key have the same layouts.
+     */
+    private static final class ComponentKey {
+        final int[] cells;
+        final int[] constraints;
+        final int[] counts;
+        private final int hash;
+
+        ComponentKey(int[] cells, int[] constraints, int[] counts) {
+            this.cells = cells;
+            this.constraints = constraints;
+            this.counts = counts;
+            this.hash = 31 * (31 * Arrays.hashCode(cells) + Arrays.hashCode(constraints)) + Arrays.hashCode(counts);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ComponentKey)) {
+                return false;
+            }
+            ComponentKey other = (ComponentKey) o;
+            return hash == other.hash && Arrays.equals(cells, other.cells)
+                    && Arrays.equals(constraints, other.constraints) && Arrays.equals(counts, other.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The layouts of a component: solutions[k] is the (scaled) number of valid
+     * layouts with k mines and cellMines[(k - minesFrom) * size + i] the
+     * number of those in which the component's i-th tile is a mine. A layout
+     * holds at least as many mines as the largest number and at most their
+     * sum, so cellMines only covers the mine counts in between. When the
+     * search ran out of budget solutions is null and estimates holds a local
+     * estimate per tile.
+     */
+    private static final class ComponentResult {
+        double[] solutions;
+        double[] cellMines;
+        int minesFrom;
+        double[] estimates;
+    }
+
+    /**
+     * The backtracking search over one component. Tiles are assigned in
+     * breadth-first order through the numbers, so each number sees all its
+     * tiles assigned soon after the first one and bad branches are cut early.
+     * The search reads nothing from the game, so problems can be enumerated on
+     * any thread.
+     */
+    private final class ComponentProblem {
+        final ComponentKey key;
+        final int[][] cellConstraints;
+        final int[] order;
+        final int[] need;
+        final int[] unknowns;
+        final int[] assigned;
+        final int[] left;
+        final boolean[] mine;
+        ComponentResult result;
+        private long nodes;
+
+        ComponentProblem(ComponentKey key) {
+            this.key = key;
+            int size = key.cells.length;
+            int constraintCount = key.constraints.length;
+            this.need = key.counts;
+            this.unknowns = new int[constraintCount];
+            this.assigned = new int[constraintCount];
+            this.left = new int[constraintCount];
+            this.mine = new boolean[size];
+
+            int[][] constraintCells = new int[constraintCount][];
+            int[] around = new int[8];
+            int[] inside = new int[8];
+            int[] perCell = new int[size];
+            for (int q = 0; q < constraintCount; q++) {
+                int n = neighbours(key.constraints[q], around);
+                int count = 0;
+                for (int j = 0; j < n; j++) {
+                    int i = Arrays.binarySearch(key.cells, around[j]);
+                    if (i >= 0) {
+                        perCell[i]++;
+                        inside[count++] = i;
+                    }
+                }
+                constraintCells[q] = Arrays.copyOf(inside, count);
+                unknowns[q] = count;
+            }
+            System.arraycopy(unknowns, 0, left, 0, constraintCount);
+            // Constraints are visited in increasing order, so every cell's list comes out sorted
+            this.cellConstraints = new int[size][];
+            for (int i = 0; i < size; i++) {
+                cellConstraints[i] = new int[perCell[i]];
+                perCell[i] = 0;
+            }
+            for (int q = 0; q < constraintCount; q++) {
+                for (int i : constraintCells[q]) {
+                    cellConstraints[i][perCell[i]++] = q;
+                }
+            }
+
+            this.order = new int[size];
+            boolean[] queued = new boolean[size];
+            boolean[] visited = new boolean[constraintCount];
+            int head = 0;
+            int tail = 0;
+            order[tail++] = 0;
+            queued[0] = true;
+            while (head < tail) {
+                for (int q : cellConstraints[order[head++]]) {
+                    if (visited[q]) {
+                        continue;
+                    }
+                    visited[q] = true;
+                    for (int i : constraintCells[q]) {
+                        if (!queued[i]) {
+                            queued[i] = true;
+                            order[tail++] = i;
+                        }
+                    }
+                }
+            }
+        }
+
+        void enumerate() {
+            int size = key.cells.length;
+            int minesFrom = 0;
+            long minesTo = 0;
+            for (int value : need) {
+                minesFrom = Math.max(minesFrom, value);
+                minesTo += value;
+            }
+            minesTo = Math.min(minesTo, size);
+            result = new ComponentResult();
+            result.solutions = new double[size + 1];
+            result.minesFrom = Math.min(minesFrom, size);
+            result.cellMines = new double[(int) Math.max(0, minesTo - minesFrom + 1) * size];
+            try {
+                search(0, 0);
+                double peak = 0;
+                for (double value : result.solutions) {
+                    peak = Math.max(peak, value);
+                }
+                for (int k = 0; k <= size && peak > 0; k++) {
+                    result.solutions[k] /= peak;
+                }
+                for (int j = 0; j < result.cellMines.length && peak > 0; j++) {
+                    result.cellMines[j] /= peak;
+                }
+            } catch (BudgetExceededException e) {
+                result.solutions = null;
+                result.cellMines = null;
+                result.estimates = new double[size];
+                for (int i = 0; i < size; i++) {
+                    for (int q : cellConstraints[i]) {
+                        result.estimates[i] = Math.max(result.estimates[i], (double) need[q] / unknowns[q]);
+                    }
+                }
+            }
+        }
+
+        private void search(int position, int mines) {
+            if (++nodes > NODE_BUDGET) {
+                throw new BudgetExceededException();
+            }
+            if (position == order.length) {
+                result.solutions[mines]++;
+                int base = (mines - result.minesFrom) * mine.length;
+                for (int j = 0; j < mine.length; j++) {
+                    if (mine[j]) {
+                        result.cellMines[base + j]++;
+                    }
+                }
+                return;
+            }
+            int i = order[position];
+            for (int value = 0; value <= 1; value++) {
+                mine[i] = value == 1;
+                boolean valid = true;
+                for (int q : cellConstraints[i]) {
+                    assigned[q] += value;
+                    left[q]--;
+                    if (assigned[q] > need[q] || assigned[q] + left[q] < need[q]) {
+                        valid = false;
+                    }
+                }
+                if (valid) {
+                    search(position + 1, mines + value);
+                }
+                for (int q : cellConstraints[i]) {
+                    assigned[q] -= value;
+                    left[q]++;
+                }
+            }
+            mine[i] = false;
+        }
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Histogram class records the distribution of non-negative long values,
+ * such as latencies in nanoseconds or flood fill sizes, from any number of
+ * threads without locking.
+ *
+ * Values are counted in log-linear buckets: every power of two is split into
+ * 2^subBucketBits buckets, so a percentile is reported with an error of at
+ * most 1 / 2^subBucketBits using a fixed array of counters. The default of 2
+ * bits gives 25% with 248 counters; 5 bits give about 3% with 1888. Count and
+ * sum are LongAdders, which stay cheap when many threads record at once.
+ */
+public class Histogram {
+
+    static final int DEFAULT_SUB_BUCKET_BITS = 2;
+
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final AtomicLongArray buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Creates a histogram with 2^subBucketBits buckets per power of two.
+     *
+     * @param subBucketBits the precision, from 1 to 10 bits
+     */
+    public Histogram(int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 10) {
+            throw new IllegalArgumentException("Sub-bucket bits must be between 1 and 10");
+        }
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+        this.buckets = new AtomicLongArray(bucketCount(subBucketBits));
+    }
+
+    /**
+     * Returns the number of buckets of a histogram of the given precision.
+     *
+     * @param subBucketBits the precision in bits
+     * @return the number of buckets
+     */
+    static int bucketCount(int subBucketBits) {
+        return (64 - subBucketBits) << subBucketBits;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        buckets.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    int bucketOf(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+        return subBuckets + (exponent - subBucketBits) * subBuckets + sub;
+    }
+
+    /**
+     * Returns the largest value that falls in the given bucket.
+     */
+    long upperBoundOf(int bucket) {
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+        int exponent = (bucket - subBuckets) / subBuckets + subBucketBits;
+        int sub = (bucket - subBuckets) % subBuckets;
+        long lower = (long) (subBuckets + sub) << (exponent - subBucketBits);
+        return lower + (1L << (exponent - subBucketBits)) - 1;
+    }
+
+    int getSubBucketBits() {
+        return subBucketBits;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+    /**
+     * Returns an upper estimate of the value below which the given fraction of
+     * the recorded values fall, never above the largest recorded value.
+     *
+     * @param fraction the fraction, between 0 and 1, e.g. 0.99 for p99
+     * @return the estimated percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(double fraction) {
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            total += buckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns a copy of the bucket counters, e.g. to save the histogram.
+     *
+     * @return the count of every bucket, see bucketOf
+     */
+    long[] getBucketCounts() {
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Adds saved bucket counters to this histogram, as if their values had been
+     * recorded again.
+     *
+     * @param counts the count of every bucket, as returned by getBucketCounts
+     *               of a histogram of the same precision
+     * @param sum    the sum of the saved values
+     * @param max    the largest saved value
+     */
+    void add(long[] counts, long sum, long max) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                buckets.addAndGet(i, counts[i]);
+                count.add(counts[i]);
+            }
+        }
+        this.sum.add(sum);
+        this.max.accumulate(max);
+    }
+
+    /**
+     * Returns a histogram holding the values recorded so far, which later
+     * records to this one do not change.
+     *
+     * @return the copy
+     */
+    Histogram copy() {
+        Histogram copy = new Histogram(subBucketBits);
+        copy.add(getBucketCounts(), getSum(), getMax());
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d",
+                getCount(), getMean(), getPercentile(0.5), getPercentile(0.9), getPercentile(0.99), getMax());
+    }
+}
@@ -0,0 +1,119 @@
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The JfrEvents class emits the game's JDK Flight Recorder events. They show
+ * up under "Minesweeper" in JDK Mission Control when a recording is running,
+ * e.g. with -XX:StartFlightRecording.
+ *
+ * Every event is begun before its operation and committed after it, so its
+ * duration is the Flight Recorder's own timing of the operation. The begin
+ * methods return the event as an Object, or null when it is not enabled, so
+ * that callers never name a jdk.jfr type.
+ *
+ * Flight Recorder is part of Java 11 and later, and building this class needs
+ * a JDK 11 or later. This is the only class that refers to jdk.jfr, and
+ * GameMetrics only calls it after checking that the JVM provides the API, so
+ * the game still runs on a Java 8 JVM, without the events.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    static Object beginStartGame() {
+        return begin(new StartGameJfrEvent());
+    }
+
+    static Object beginMove() {
+        return begin(new MoveJfrEvent());
+    }
+
+    static Object beginRender() {
+        return begin(new RenderJfrEvent());
+    }
+
+    private static Event begin(Event event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commitStartGame(Object begun, int rows, int cols, int mines, long setMinesNanos) {
+        StartGameJfrEvent event = (StartGameJfrEvent) begun;
+        if (event != null && end(event)) {
+            event.rows = rows;
+            event.cols = cols;
+            event.mines = mines;
+            event.setMinesDuration = setMinesNanos;
+            event.commit();
+        }
+    }
+
+    static void commitMove(Object begun, int cell, int uncovered) {
+        MoveJfrEvent event = (MoveJfrEvent) begun;
+        if (event != null && end(event)) {
+            event.cell = cell;
+            event.uncovered = uncovered;
+            event.commit();
+        }
+    }
+
+    static void commitRender(Object begun, int cells) {
+        RenderJfrEvent event = (RenderJfrEvent) begun;
+        if (event != null && end(event)) {
+            event.cells = cells;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ends the event and returns whether it passes the recording's threshold.
+     */
+    private static boolean end(Event event) {
+        event.end();
+        return event.shouldCommit();
+    }
+
+    @Name("minesweeper.StartGame")
+    @Label("Start Game")
+    @Category("Minesweeper")
+    static final class StartGameJfrEvent extends Event {
+        @Label("Rows")
+        int rows;
+
+        @Label("Columns")
+        int cols;
+
+        @Label("Mines")
+        int mines;
+
+        @Label("Set Mines Duration")
+        @Timespan
+        long setMinesDuration;
+    }
+
+    @Name("minesweeper.Move")
+    @Label("Move")
+    @Category("Minesweeper")
+    static final class MoveJfrEvent extends Event {
+        @Label("Cell")
+        int cell;
+
+        @Label("Tiles Uncovered")
+        int uncovered;
+    }
+
+    @Name("minesweeper.Render")
+    @Label("Render")
+    @Category("Minesweeper")
+    static final class RenderJfrEvent extends Event {
+        @Label("Cells")
+        int cells;
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The JournalReplayer class rebuilds game positions from a MoveJournal. To
+ * reach the position after a given number of moves it restores the latest
+ * snapshot taken at or before that move and replays the journal forward from
+ * there, so the cost follows the snapshot interval rather than the length of
+ * the game.
+ *
+ * A record cut short at the end of the file, e.g. by a crash during a write,
+ * ends the replay. UNDO and REDO records are played with the undo history of
+ * the replayed engine, which a snapshot does not hold: the replay therefore
+ * starts from the latest snapshot that no later undo or redo reaches back
+ * past. A first pass over the records follows the undo stack, as record
+ * numbers, to find it.
+ */
+public final class JournalReplayer {
+
+    private JournalReplayer() {
+    }
+
+    /**
+     * Returns the number of complete moves recorded in a journal.
+     *
+     * @param journal the journal file
+     * @return the number of moves
+     * @throws IOException if the journal cannot be read
+     */
+    public static long countMoves(Path journal) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            MappedByteBuffer records = openRecords(channel, journal);
+            long moves = 0;
+            while (records.hasRemaining()) {
+                if (records.get() >= 0) {
+                    moves++;
+                }
+            }
+            return moves;
+        }
+    }
+
+    /**
+     * Rebuilds the position after the given number of moves, or after the last
+     * recorded move if the journal holds fewer.
+     *
+     * @param journal the journal file
+     * @param moves   the number of moves to replay
+     * @return the game at that position
+     * @throws IOException if the journal or its snapshots cannot be read
+     */
+    public static MineSweeperEngine replay(Path journal, long moves) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+            MappedByteBuffer records = openRecords(channel, journal);
+            int actionBits = records.getShort(4) == 1 ? 2 : 3;
+            long start = nearestSnapshot(journal, moves, undoReach(records, actionBits, moves));
+            if (start < 0) {
+                throw new IOException("No snapshot found for journal " + journal);
+            }
+            MineSweeperEngine engine = GameSnapshot.restore(MoveJournal.snapshotPath(journal, start));
+            int numCols = engine.getNumCols();
+            int limit = engine.getHistoryLimit();
+            if (moves - start > limit) {
+                engine.setHistoryLimit((int) Math.min(moves - start, Integer.MAX_VALUE));
+            }
+
+            ((Buffer) records).position(MoveJournal.HEADER_BYTES);
+            for (long skipped = 0; skipped < start && records.hasRemaining(); ) {
+                if (records.get() >= 0) {
+                    skipped++;
+                }
+            }
+
+            for (long played = start; played < moves; played++) {
+                long value = readRecord(records);
+                if (value < 0) {
+                    break;
+                }
+                int action = (int) (value & ((1 << actionBits) - 1));
+                long cell = value >>> actionBits;
+                if (cell >= (long) engine.getNumRows() * numCols) {
+                    throw new IOException("Corrupt journal record " + played + ": cell " + cell);
+                }
+                int row = (int) (cell / numCols);
+                int col = (int) (cell % numCols);
+                switch (action) {
+                    case MoveListener.REVEAL:
+                        engine.reveal(row, col);
+                        break;
+                    case MoveListener.FLAG:
+                        engine.toggleFlag(row, col);
+                        break;
+                    case MoveListener.UNCOVER:
+                        engine.checkMine(row, col);
+                        break;
+                    case MoveListener.UNDO:
+                        engine.undo();
+                        break;
+                    case MoveListener.REDO:
+                        engine.redo();
+                        break;
+                    case MoveListener.LOSE:
+                        engine.revealMines();
+                        break;
+                    default:
+                        throw new IOException("Corrupt journal record " + played + ": action " + action);
+                }
+            }
+            engine.setHistoryLimit(limit);
+            return engine;
+        }
+    }
+
+    /**
+     * Reads the next varint record.
+     *
+     * @return the record, or -1 if the records end before it is complete
+     */
+    private static long readRecord(MappedByteBuffer records) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (!records.hasRemaining()) {
+                return -1;
+            }
+            b = records.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Follows the undo stack over the first given number of records. Each
+     * UNDO or REDO among them steps over a move recorded earlier, and a replay
+     * can only play it if it starts before that move: a replay may start after
+     * s moves only if every UNDO or REDO recorded after move s steps over a
+     * move after s.
+     *
+     * @return the record numbers of the UNDO and REDO records, in order, and
+     *         for each of them the earliest move stepped over by it or a later one
+     */
+    private static long[][] undoReach(MappedByteBuffer records, int actionBits, long moves) {
+        long[] stack = new long[16];
+        int position = 0;
+        int end = 0;
+        long[] steps = new long[16];
+        long[] reach = new long[16];
+        int count = 0;
+        for (long record = 1; record <= moves; record++) {
+            long value = readRecord(records);
+            if (value < 0) {
+                break;
+            }
+            int action = (int) (value & ((1 << actionBits) - 1));
+            long move;
+            if (action == MoveListener.UNDO) {
+                if (position == 0) {
+                    continue;
+                }
+                move = stack[--position];
+            } else if (action == MoveListener.REDO) {
+                if (position == end) {
+                    continue;
+                }
+                move = stack[position++];
+            } else {
+                if (position == stack.length) {
+                    stack = Arrays.copyOf(stack, position * 2);
+                }
+                stack[position++] = record;
+                end = position;
+                continue;
+            }
+            if (count == steps.length) {
+                steps = Arrays.copyOf(steps, count * 2);
+                reach = Arrays.copyOf(reach, count * 2);
+            }
+            steps[count] = record;
+            reach[count++] = move;
+        }
+        for (int i = count - 2; i >= 0; i--) {
+            reach[i] = Math.min(reach[i], reach[i + 1]);
+        }
+        return new long[][] { Arrays.copyOf(steps, count), Arrays.copyOf(reach, count) };
+    }
+
+    /**
+     * Finds the largest snapshot move count that does not exceed the target
+     * and that no later UNDO or REDO reaches back past, see undoReach().
+     *
+     * @return the move count of the snapshot, or -1 if there is none
+     */
+    private static long nearestSnapshot(Path journal, long moves, long[][] reach) throws IOException {
+        String prefix = journal.getFileName() + ".";
+        Path directory = journal.toAbsolutePath().getParent();
+        long best = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*.snap")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String number = name.substring(prefix.length(), name.length() - ".snap".length());
+                try {
+                    long snapshot = Long.parseLong(number);
+                    if (snapshot <= moves && snapshot > best && !isReached(reach, snapshot)) {
+                        best = snapshot;
+                    }
+                } catch (NumberFormatException e) {
+                    // Not one of this journal's snapshots
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean isReached(long[][] reach, long snapshot) {
+        // The first UNDO or REDO recorded after the snapshot
+        int first = Arrays.binarySearch(reach[0], snapshot + 1);
+        if (first < 0) {
+            first = -first - 1;
+        }
+        return first < reach[1].length && reach[1][first] <= snapshot;
+    }
+
+    private static MappedByteBuffer openRecords(FileChannel channel, Path journal) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < MoveJournal.HEADER_BYTES || buffer.getInt() != MoveJournal.MAGIC) {
+            throw new IOException("Not a Minesweeper journal: " + journal);
+        }
+        short version = buffer.getShort();
+        if (version != 1 && version != MoveJournal.VERSION) {
+            throw new IOException("Unsupported journal version " + version + ": " + journal);
+        }
+        buffer.getShort();
+        return buffer;
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * The MetricsExporter interface publishes GameMetrics, e.g. to the console, a
+ * log or a monitoring system. GameMetrics calls it at the end of every game.
+ *
+ * An exporter is selected with the "minesweeper.metrics" system property:
+ * "console" prints the metrics to System.out, and any other value is the name
+ * of a class implementing this interface with a public no-argument
+ * constructor.
+ */
+public interface MetricsExporter {
+
+    /**
+     * Publishes the current values of the metrics.
+     *
+     * @param metrics the metrics to publish
+     */
+    void export(GameMetrics metrics);
+
+    /**
+     * Returns an exporter that prints the metrics to System.out.
+     *
+     * @return the console exporter
+     */
+    static MetricsExporter console() {
+        return metrics -> System.out.println(metrics);
+    }
+}
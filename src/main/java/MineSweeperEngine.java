@@ -0,0 +1,1043 @@
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The MineSweeperEngine class is the headless core of the Minesweeper game.
+ * It implements the GameService interface without touching any Swing or AWT
+ * class, so a game can be played on a machine with no display.
+ *
+ * The board is stored in primitive arrays indexed by cell id
+ * ({@code row * numCols + col}):
+ * - a bitset of mine positions packed into a long array,
+ * - a byte array of adjacent mine counts,
+ * - a byte array with the HIDDEN / REVEALED / FLAGGED state of each cell.
+ *
+ * Boards may be rectangular and hold up to MAX_CELLS cells. A board costs a
+ * little over 2 bytes per cell, plus up to 4 bytes per cell for the flood
+ * fill queue, which only grows as large as the biggest region uncovered by a
+ * single move, and 4 to 8 bytes per uncovered cell for the undo history (see
+ * MoveHistory), which also keeps up to 4096 moves of 8 bytes. A 10000 x 5000
+ * board therefore needs about 105 MB, and about 505 MB after a click that
+ * opens the whole board.
+ *
+ * With BoardMode.SAFE_START or NO_GUESS the mines are placed by the first
+ * move instead of startGame, around the tile it uncovers.
+ *
+ * The BoardTopology decides which tiles are neighbours. Mine counting, the
+ * safe area and the flood fill walk the neighbours through the shared
+ * NeighbourTable of the board size, a contiguous int range per cell with no
+ * bounds checks. Boards too large for a table walk the clamped 3 x 3 block
+ * around a cell when they are SQUARE, and compute the neighbours of each cell
+ * from the topology otherwise.
+ *
+ * The Swing and console front ends are views that read this state and forward
+ * the user's moves to {@link #reveal(int, int)} and {@link #toggleFlag(int, int)}.
+ */
+public class MineSweeperEngine implements GameService {
+
+    /**
+     * The largest number of cells on a board. Cell ids, flood fill queue
+     * offsets and counters are ints, and every per-cell array must stay below
+     * the JVM's array size limit.
+     */
+    public static final int MAX_CELLS = 1 << 30;
+
+    static final byte HIDDEN = 0;
+    static final byte REVEALED = 1;
+    static final byte FLAGGED = 2;
+
+    private final int numRows;
+    private final int numCols;
+    private final int minesCount;
+    private final BoardRandom random;
+    private final BoardMode mode;
+    private final BoardTopology topology;
+    private final NeighbourTable table;
+    private final int[] around = new int[8];
+    private boolean minesPlaced = false;
+    private long placementSeed;
+    private boolean guessFree = false;
+
+    private final long[] mines;
+    private final byte[] adjacent;
+    private final byte[] state;
+
+    private int[] revealed = new int[16];
+    private int revealedCount = 0;
+
+    private int tilesClicked = 0;
+    private int moves = 0;
+    private long startNanos;
+    private boolean won = false;
+    private volatile boolean gameOver = false;
+    private volatile CompletableFuture<GameResult> completion = new CompletableFuture<>();
+
+    private HintEngine hints;
+    private MoveListener moveListener;
+    private final MoveHistory history;
+    private final MoveEventBus events = new MoveEventBus();
+
+    public MineSweeperEngine(int numRows, int numCols, int minesCount) {
+        this(numRows, numCols, minesCount, BoardRandom.splittable(System.nanoTime()));
+    }
+
+    public MineSweeperEngine(int numRows, int numCols, int minesCount, long seed) {
+        this(numRows, numCols, minesCount, BoardRandom.splittable(seed));
+    }
+
+    public MineSweeperEngine(int numRows, int numCols, int minesCount, BoardRandom random) {
+        this(numRows, numCols, minesCount, random, BoardMode.CLASSIC);
+    }
+
+    public MineSweeperEngine(int numRows, int numCols, int minesCount, BoardRandom random, BoardMode mode) {
+        this(numRows, numCols, minesCount, random, mode, BoardTopology.SQUARE);
+    }
+
+    public MineSweeperEngine(int numRows, int numCols, int minesCount, BoardRandom random, BoardMode mode,
+                             BoardTopology topology) {
+        if (numRows < 1 || numCols < 1) {
+            throw new IllegalArgumentException("Board must have at least one row and one column");
+        }
+        if ((long) numRows * numCols > MAX_CELLS) {
+            throw new IllegalArgumentException("Board may not have more than " + MAX_CELLS + " cells");
+        }
+        if (minesCount < 0 || minesCount >= numRows * numCols) {
+            throw new IllegalArgumentException("Mines count must be between 0 and " + (numRows * numCols - 1));
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.minesCount = minesCount;
+        this.random = random;
+        this.mode = mode;
+        this.topology = topology;
+        this.table = NeighbourTable.of(topology, numRows, numCols);
+
+        int cells = numRows * numCols;
+        this.mines = new long[(int) ((cells + 63L) >>> 6)];
+        this.adjacent = new byte[cells];
+        this.state = new byte[cells];
+        this.history = new MoveHistory(MoveHistory.DEFAULT_LIMIT);
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Returns true if the game ended because every safe tile was uncovered.
+     *
+     * @return true if the player has won the game
+     */
+    @Override
+    public boolean isGameWon() {
+        return won;
+    }
+
+    /**
+     * Returns a future that is completed by the move that wins or loses the
+     * game, on the thread that played it.
+     *
+     * @return the future result of the game
+     */
+    @Override
+    public CompletableFuture<GameResult> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Starts the game by placing the mines on the board. In the SAFE_START and
+     * NO_GUESS modes the board is cleared instead and the mines are placed by
+     * the first move.
+     */
+    @Override
+    public void startGame() {
+        if (mode == BoardMode.CLASSIC) {
+            setMines();
+        } else {
+            Arrays.fill(mines, 0L);
+            Arrays.fill(adjacent, (byte) 0);
+            this.minesPlaced = false;
+        }
+        this.guessFree = false;
+        history.clear();
+        this.startNanos = System.nanoTime();
+        if (hints != null) {
+            hints.reset();
+        }
+    }
+
+    /**
+     * Plays a single move: uncovers the tile at the given position.
+     * If the tile contains a mine all mines are revealed and the game is lost.
+     * Otherwise the tile (and, for a zero tile, its whole empty region) is
+     * uncovered and the game is won once every safe tile has been uncovered.
+     *
+     * @param r the row index of the tile
+     * @param c the column index of the tile
+     * @return the number of tiles uncovered by this move
+     */
+    @Override
+    public int reveal(int r, int c) {
+        this.revealedCount = 0;
+        if (this.gameOver || isOutOfBounds(r, c) || state[index(r, c)] != HIDDEN) {
+            return 0;
+        }
+        this.moves++;
+        int cell = index(r, c);
+        if (!minesPlaced) {
+            placeMinesAround(cell);
+        }
+        int uncovered = 0;
+        if (isMine(cell)) {
+            finish(false);
+        } else {
+            uncovered = uncover(r, c);
+            gameompletedCheck();
+        }
+        history.push(MoveListener.REVEAL, cell, gameOver, revealed, revealedCount);
+        if (moveListener != null) {
+            moveListener.onMove(MoveListener.REVEAL, cell);
+        }
+        if (uncovered > 0) {
+            publish(MoveEvent.UNCOVERED, cell, revealedCount);
+        }
+        if (gameOver) {
+            publish(MoveEvent.GAME_OVER, cell, 0);
+        }
+        return uncovered;
+    }
+
+    /**
+     * Places or removes a flag on a covered tile. Uncovered tiles and finished
+     * games are left untouched.
+     *
+     * @param r the row index of the tile
+     * @param c the column index of the tile
+     */
+    @Override
+    public void toggleFlag(int r, int c) {
+        if (this.gameOver || isOutOfBounds(r, c)) {
+            return;
+        }
+        int cell = index(r, c);
+        if (state[cell] == HIDDEN) {
+            state[cell] = FLAGGED;
+        } else if (state[cell] == FLAGGED) {
+            state[cell] = HIDDEN;
+        } else {
+            return;
+        }
+        this.moves++;
+        history.push(MoveListener.FLAG, cell, false, revealed, 0);
+        if (moveListener != null) {
+            moveListener.onMove(MoveListener.FLAG, cell);
+        }
+        publish(state[cell] == FLAGGED ? MoveEvent.FLAGGED : MoveEvent.UNFLAGGED, cell, 0);
+    }
+
+    /**
+     * Checks if the game is completed by comparing the number of uncovered tiles
+     * with the number of safe tiles, and marks the game as won if it is.
+     */
+    private void gameompletedCheck() {
+        if (this.tilesClicked == (this.numRows * this.numCols) - this.minesCount && !this.gameOver) {
+            finish(true);
+        }
+    }
+
+    /**
+     * Ends the game and completes the game's future with its result. The plain
+     * fields are written before the volatile gameOver flag, so any thread that
+     * sees the game as over also sees whether it was won.
+     *
+     * @param won true if the game was won, false if a mine was hit
+     */
+    private void finish(boolean won) {
+        this.won = won;
+        this.gameOver = true;
+        completion.complete(new GameResult(won, moves, System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Randomly places mines on the board using Floyd's sampling algorithm, a
+     * partial Fisher-Yates shuffle that needs no index array: for each of the
+     * last minesCount positions j a cell t in [0, j] is drawn, and j is taken
+     * instead when t already holds a mine. Every draw places exactly one mine,
+     * so placement costs O(minesCount) at any density, and the same seed always
+     * produces the same board.
+     */
+    private void setMines() {
+        Arrays.fill(mines, 0L);
+
+        int cells = this.numRows * this.numCols;
+        for (int j = cells - minesCount; j < cells; j++) {
+            int t = random.nextInt(j + 1);
+            int cell = isMine(t) ? j : t;
+            mines[cell >>> 6] |= 1L << cell;
+        }
+        countMines();
+        this.minesPlaced = true;
+    }
+
+    /**
+     * Places the mines for a game whose placement was delayed to the first
+     * move. The first tile and its neighbours are excluded from Floyd's
+     * sampling by mapping sample indices onto the remaining cells; when the
+     * board is too dense for that, only the first tile is excluded. In NO_GUESS
+     * mode the NoGuessGenerator picks the generator seed of a board the Solver
+     * can clear without guessing.
+     *
+     * @param firstCell the cell id uncovered by the first move
+     */
+    private void placeMinesAround(int firstCell) {
+        BoardRandom placement = random;
+        if (mode == BoardMode.NO_GUESS) {
+            NoGuessGenerator.Choice choice = NoGuessGenerator.findSeed(numRows, numCols, minesCount, topology,
+                    firstCell, random);
+            this.placementSeed = choice.getSeed();
+            this.guessFree = choice.isGuessFree();
+            placement = BoardRandom.splittable(placementSeed);
+        }
+        placeMinesAvoiding(firstCell, placement);
+    }
+
+    /**
+     * Places the mines anywhere but around the given cell, using the given
+     * generator. Two boards of the same size placed from generators with the
+     * same seed around the same cell are identical.
+     *
+     * @param firstCell the cell id to keep free, with its neighbours
+     * @param placement the generator to draw the positions from
+     */
+    void placeMinesAvoiding(int firstCell, BoardRandom placement) {
+        int cells = this.numRows * this.numCols;
+        int[] excluded = safeArea(firstCell);
+        if (cells - excluded.length < minesCount) {
+            excluded = new int[] { firstCell };
+        }
+
+        Arrays.fill(mines, 0L);
+        int free = cells - excluded.length;
+        for (int j = free - minesCount; j < free; j++) {
+            int t = placement.nextInt(j + 1);
+            int cell = skipExcluded(t, excluded);
+            if (isMine(cell)) {
+                cell = skipExcluded(j, excluded);
+            }
+            mines[cell >>> 6] |= 1L << cell;
+        }
+        countMines();
+        this.minesPlaced = true;
+    }
+
+    /**
+     * Returns the cell id of a tile and its neighbours, in ascending order.
+     */
+    private int[] safeArea(int cell) {
+        int n = neighbours(cell, around);
+        int[] area = new int[n + 1];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (around[i] > cell && count == i) {
+                area[count++] = cell;
+            }
+            area[count++] = around[i];
+        }
+        if (count == n) {
+            area[count] = cell;
+        }
+        return area;
+    }
+
+    /**
+     * Fills the given array with the neighbours of a cell, in ascending order.
+     *
+     * @param cell the cell id
+     * @param out  the array to fill, with room for 8 cells
+     * @return the number of neighbours
+     */
+    public int neighbours(int cell, int[] out) {
+        return table != null ? table.copyNeighbours(cell, out) : topology.neighbours(numRows, numCols, cell, out);
+    }
+
+    /**
+     * Maps an index among the cells that are not excluded to its cell id.
+     *
+     * @param index    the index among the allowed cells
+     * @param excluded the excluded cell ids, in ascending order
+     * @return the cell id
+     */
+    private static int skipExcluded(int index, int[] excluded) {
+        int cell = index;
+        for (int e : excluded) {
+            if (e <= cell) {
+                cell++;
+            }
+        }
+        return cell;
+    }
+
+    /**
+     * Fills the adjacency array by walking the set bits of the mine bitset and
+     * incrementing the count of each neighbour of every mine. This costs
+     * O(mines * 8) instead of O(cells * 8) and is done once per board, so
+     * reading a count afterwards is a single array access.
+     */
+    private void countMines() {
+        Arrays.fill(adjacent, (byte) 0);
+        int[] list = table != null ? table.neighbours : around;
+        boolean clamped = table == null && topology == BoardTopology.SQUARE;
+        for (int word = 0; word < mines.length; word++) {
+            long bits = mines[word];
+            while (bits != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                if (clamped) {
+                    int r = cell / this.numCols;
+                    int c = cell - r * this.numCols;
+                    int rowTo = Math.min(r + 1, this.numRows - 1);
+                    int colFrom = Math.max(c - 1, 0);
+                    int colTo = Math.min(c + 1, this.numCols - 1);
+                    for (int nr = Math.max(r - 1, 0); nr <= rowTo; nr++) {
+                        int base = nr * this.numCols;
+                        for (int nc = colFrom; nc <= colTo; nc++) {
+                            adjacent[base + nc]++;
+                        }
+                    }
+                    adjacent[cell]--;
+                    continue;
+                }
+                int from = table != null ? table.offsets[cell] : 0;
+                int to = table != null ? table.offsets[cell + 1] : topology.neighbours(numRows, numCols, cell, around);
+                for (int i = from; i < to; i++) {
+                    adjacent[list[i]]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Restarts the game clock, for a board that was started ahead of time and
+     * is handed to a player now (see BoardPool).
+     */
+    void restartClock() {
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Forgets the moves played so far while keeping the board as it is, for an
+     * opening played ahead of time that the player must not count or undo
+     * (see BoardPool).
+     */
+    void clearMoves() {
+        this.moves = 0;
+        history.clear();
+    }
+
+    /**
+     * Covers every tile again and clears the move counters while keeping the
+     * mines where they are, so the same board can be played again.
+     */
+    void restartBoard() {
+        Arrays.fill(state, HIDDEN);
+        this.revealedCount = 0;
+        this.tilesClicked = 0;
+        this.moves = 0;
+        this.won = false;
+        this.gameOver = false;
+        this.completion = new CompletableFuture<>();
+        history.clear();
+        this.startNanos = System.nanoTime();
+        if (hints != null) {
+            hints.reset();
+        }
+    }
+
+    /**
+     * Writes the board as three bit planes of getPlaneWords() longs each: the
+     * mine bitset, then the uncovered tiles, then the flagged tiles.
+     *
+     * @param out the buffer to write the planes to
+     */
+    void writePlanes(LongBuffer out) {
+        out.put(mines);
+        for (byte plane = REVEALED; plane <= FLAGGED; plane++) {
+            int cells = state.length;
+            for (int base = 0; base < cells; base += 64) {
+                long word = 0;
+                int end = Math.min(base + 64, cells);
+                for (int cell = base; cell < end; cell++) {
+                    if (state[cell] == plane) {
+                        word |= 1L << cell;
+                    }
+                }
+                out.put(word);
+            }
+        }
+    }
+
+    /**
+     * Replaces the board with a saved position: reads the three bit planes
+     * written by writePlanes, recomputes the adjacent counts and restores the
+     * counters. A finished game is finished again, so its completion future is
+     * already done.
+     *
+     * @param in           the buffer holding the planes
+     * @param moves        the number of moves played
+     * @param elapsedNanos the time played so far
+     * @param over         true if the game had ended
+     * @param won          true if the game had been won
+     * @param minesPending true if the mines are still to be placed by the first move
+     */
+    void restore(LongBuffer in, int moves, long elapsedNanos, boolean over, boolean won, boolean minesPending) {
+        in.get(mines);
+        this.minesPlaced = !minesPending;
+        int tail = state.length & 63;
+        if (tail != 0) {
+            mines[mines.length - 1] &= (1L << tail) - 1;
+        }
+        countMines();
+        Arrays.fill(state, HIDDEN);
+        int clicked = 0;
+        for (byte plane = REVEALED; plane <= FLAGGED; plane++) {
+            for (int word = 0; word < mines.length; word++) {
+                long bits = in.get();
+                if (word == mines.length - 1 && tail != 0) {
+                    bits &= (1L << tail) - 1;
+                }
+                if (plane == REVEALED) {
+                    clicked += Long.bitCount(bits);
+                }
+                while (bits != 0) {
+                    state[(word << 6) + Long.numberOfTrailingZeros(bits)] = plane;
+                    bits &= bits - 1;
+                }
+            }
+        }
+        this.revealedCount = 0;
+        this.tilesClicked = clicked;
+        this.moves = moves;
+        this.won = false;
+        this.gameOver = false;
+        this.completion = new CompletableFuture<>();
+        history.clear();
+        this.startNanos = System.nanoTime() - elapsedNanos;
+        if (hints != null) {
+            hints.reset();
+        }
+        if (over) {
+            finish(won);
+        }
+    }
+
+    /**
+     * Returns the number of longs in each bit plane of the board.
+     *
+     * @return the number of 64-cell words
+     */
+    int getPlaneWords() {
+        return mines.length;
+    }
+
+    /**
+     * Returns the time played so far, or the duration of the game once it is
+     * over.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    long getElapsedNanos() {
+        GameResult result = completion.getNow(null);
+        return result != null ? result.getDurationNanos() : System.nanoTime() - startNanos;
+    }
+
+    BoardRandom getRandom() {
+        return random;
+    }
+
+    public BoardMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns false while a SAFE_START or NO_GUESS game waits for its first
+     * move to place the mines.
+     *
+     * @return true once the mines are on the board
+     */
+    public boolean isMinesPlaced() {
+        return minesPlaced;
+    }
+
+    /**
+     * Returns whether the board is known to be clearable without guessing:
+     * true for a NO_GUESS game once its first move placed a board the Solver
+     * clears by deduction alone. False before that, in the other modes, and
+     * when the NoGuessGenerator found no such board within its candidates and
+     * fell back to a SAFE_START board.
+     *
+     * @return true if the no-guess guarantee holds
+     */
+    public boolean isGuessFree() {
+        return guessFree;
+    }
+
+    /**
+     * Returns the seed the mines of a NO_GUESS board were placed from, as
+     * chosen by the NoGuessGenerator; placing them from
+     * BoardRandom.splittable(seed) around the first move rebuilds the board.
+     * For the other modes, and before the first move, this is getSeed().
+     *
+     * @return the placement seed
+     */
+    public long getPlacementSeed() {
+        return mode == BoardMode.NO_GUESS && minesPlaced ? placementSeed : getSeed();
+    }
+
+    /**
+     * Sets the resolved placement of a NO_GUESS board whose mines were
+     * restored from a snapshot.
+     *
+     * @param seed      the placement seed
+     * @param guessFree true if the board needs no guess
+     */
+    void setPlacement(long seed, boolean guessFree) {
+        this.placementSeed = seed;
+        this.guessFree = guessFree;
+    }
+
+    /**
+     * Sets the listener told about every move played on this engine, e.g. a
+     * MoveJournal. Pass null to remove it.
+     *
+     * @param listener the listener, or null
+     */
+    public void setMoveListener(MoveListener listener) {
+        this.moveListener = listener;
+    }
+
+    /**
+     * Marks the game as lost.
+     */
+    public void revealMines() {
+        if (!this.gameOver) {
+            finish(false);
+            history.push(MoveListener.LOSE, 0, true, revealed, 0);
+            if (moveListener != null) {
+                moveListener.onMove(MoveListener.LOSE, 0);
+            }
+            publish(MoveEvent.GAME_OVER, 0, 0);
+        }
+    }
+
+    /**
+     * Uncovers the tile at the specified row and column, and for a zero tile its
+     * whole empty region, without counting a move or checking for a mine or a
+     * win. See {@link #uncover(int, int)}.
+     *
+     * @param r the row index of the tile to check
+     * @param c the column index of the tile to check
+     * @return the number of tiles uncovered
+     */
+    public int checkMine(int r, int c) {
+        if (!minesPlaced && !isOutOfBounds(r, c) && state[index(r, c)] == HIDDEN) {
+            placeMinesAround(index(r, c));
+        }
+        int uncovered = uncover(r, c);
+        if (uncovered > 0) {
+            history.push(MoveListener.UNCOVER, index(r, c), false, revealed, uncovered);
+            if (moveListener != null) {
+                moveListener.onMove(MoveListener.UNCOVER, index(r, c));
+            }
+            publish(MoveEvent.UNCOVERED, index(r, c), uncovered);
+        }
+        return uncovered;
+    }
+
+    /**
+     * Takes back the last move: the tiles it uncovered are covered again, a
+     * flag it placed or removed is toggled back, and a game it won or lost is
+     * played on with a new completion future. Mines placed by the first move of
+     * a SAFE_START or NO_GUESS game stay where they are. Only the cells the
+     * move changed are touched; they are then listed by getRevealedCells().
+     *
+     * @return false if there is no move to take back
+     */
+    @Override
+    public boolean undo() {
+        this.revealedCount = 0;
+        if (!history.canUndo()) {
+            return false;
+        }
+        long record = history.undo();
+        int action = MoveHistory.action(record);
+        int cell = MoveHistory.cell(record);
+        int count = MoveHistory.count(record);
+        int[] cells = history.getCells();
+        int from = history.getCellsPosition();
+        int tail = 0;
+        for (int i = from; i < from + count; i++) {
+            state[cells[i]] = HIDDEN;
+            tail = enqueue(tail, cells[i]);
+        }
+        this.tilesClicked -= count;
+        if (action == MoveListener.FLAG) {
+            state[cell] = state[cell] == FLAGGED ? HIDDEN : FLAGGED;
+            tail = enqueue(tail, cell);
+        }
+        if (action == MoveListener.REVEAL || action == MoveListener.FLAG) {
+            this.moves--;
+        }
+        if (MoveHistory.ended(record)) {
+            this.won = false;
+            this.gameOver = false;
+            this.completion = new CompletableFuture<>();
+        }
+        this.revealedCount = tail;
+        if (hints != null) {
+            hints.changed(revealed, tail);
+        }
+        if (moveListener != null) {
+            moveListener.onMove(MoveListener.UNDO, cell);
+        }
+        publishStep(action, cell, count, false);
+        if (MoveHistory.ended(record)) {
+            publish(MoveEvent.REOPENED, cell, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Plays again the last move taken back by undo(), touching only the cells
+     * it changed. A new move played after undo() discards the moves that could
+     * have been redone.
+     *
+     * @return false if there is no move to play again
+     */
+    @Override
+    public boolean redo() {
+        this.revealedCount = 0;
+        if (!history.canRedo()) {
+            return false;
+        }
+        int from = history.getCellsPosition();
+        long record = history.redo();
+        int action = MoveHistory.action(record);
+        int cell = MoveHistory.cell(record);
+        int count = MoveHistory.count(record);
+        int[] cells = history.getCells();
+        int tail = 0;
+        for (int i = from; i < from + count; i++) {
+            state[cells[i]] = REVEALED;
+            tail = enqueue(tail, cells[i]);
+        }
+        this.tilesClicked += count;
+        if (action == MoveListener.FLAG) {
+            state[cell] = state[cell] == FLAGGED ? HIDDEN : FLAGGED;
+            tail = enqueue(tail, cell);
+        }
+        if (action == MoveListener.REVEAL || action == MoveListener.FLAG) {
+            this.moves++;
+        }
+        this.revealedCount = tail;
+        if (hints != null) {
+            hints.changed(revealed, tail);
+        }
+        if (MoveHistory.ended(record)) {
+            finish(action == MoveListener.REVEAL && !isMine(cell));
+        }
+        if (moveListener != null) {
+            moveListener.onMove(MoveListener.REDO, cell);
+        }
+        publishStep(action, cell, count, true);
+        if (MoveHistory.ended(record)) {
+            publish(MoveEvent.GAME_OVER, cell, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Publishes what an undone or redone move changed: the tiles it covered or
+     * uncovered again, or the flag it toggled.
+     */
+    private void publishStep(int action, int cell, int count, boolean redo) {
+        if (action == MoveListener.FLAG) {
+            publish(state[cell] == FLAGGED ? MoveEvent.FLAGGED : MoveEvent.UNFLAGGED, cell, 0);
+        } else if (count > 0) {
+            publish(redo ? MoveEvent.UNCOVERED : MoveEvent.COVERED, cell, count);
+        }
+    }
+
+    /**
+     * Publishes an event carrying the first count cells of the revealed
+     * buffer, if anybody subscribed to the game's events.
+     */
+    private void publish(int type, int cell, int count) {
+        if (events.hasSubscribers()) {
+            int status = !gameOver ? MoveEvent.PLAYING : won ? MoveEvent.WON : MoveEvent.LOST;
+            events.publish(type, cell, revealed, count, status);
+        }
+    }
+
+    /**
+     * Returns the bus that publishes what every move changes on this board.
+     * Observers subscribe to it and are called on background threads, so they
+     * never slow down or block the moves.
+     *
+     * @return the game's event bus
+     */
+    @Override
+    public MoveEventBus getEvents() {
+        return events;
+    }
+
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    /**
+     * Sets how many moves undo() can take back; older moves are forgotten. The
+     * default is MoveHistory.DEFAULT_LIMIT.
+     *
+     * @param limit the largest number of moves kept, at least 1
+     */
+    public void setHistoryLimit(int limit) {
+        history.setLimit(limit);
+    }
+
+    int getHistoryLimit() {
+        return history.getLimit();
+    }
+
+    /**
+     * Uncovers the tile at the specified row and column.
+     * If the tile is out of bounds or not covered, the method returns
+     * immediately. If no mines are found around the tile, its whole empty region
+     * and the numbered border around it are uncovered as well.
+     *
+     * The flood fill is iterative: every uncovered cell is appended to an int
+     * work queue that is reused across moves, and cells whose count is zero
+     * enqueue their covered neighbours. Stack depth stays constant and no
+     * object is allocated per cell. Once the fill is done the queue holds
+     * exactly the cells uncovered by this call, see {@link #getRevealedCells()}.
+     *
+     * @param r the row index of the tile to check
+     * @param c the column index of the tile to check
+     * @return the number of tiles uncovered
+     */
+    private int uncover(int r, int c) {
+        this.revealedCount = 0;
+        if (isOutOfBounds(r, c) || state[index(r, c)] != HIDDEN) {
+            return 0;
+        }
+
+        int start = index(r, c);
+        state[start] = REVEALED;
+        int tail = enqueue(0, start);
+        int[] list = table != null ? table.neighbours : around;
+        boolean clamped = table == null && topology == BoardTopology.SQUARE;
+
+        for (int head = 0; head < tail; head++) {
+            int cell = revealed[head];
+            if (adjacent[cell] != 0) {
+                continue;
+            }
+            if (clamped) {
+                int row = cell / this.numCols;
+                int col = cell - row * this.numCols;
+                int rowTo = Math.min(row + 1, this.numRows - 1);
+                int colFrom = Math.max(col - 1, 0);
+                int colTo = Math.min(col + 1, this.numCols - 1);
+                for (int nr = Math.max(row - 1, 0); nr <= rowTo; nr++) {
+                    int base = nr * this.numCols;
+                    for (int nc = colFrom; nc <= colTo; nc++) {
+                        int neighbour = base + nc;
+                        if (state[neighbour] == HIDDEN) {
+                            state[neighbour] = REVEALED;
+                            tail = enqueue(tail, neighbour);
+                        }
+                    }
+                }
+                continue;
+            }
+            int from = table != null ? table.offsets[cell] : 0;
+            int to = table != null ? table.offsets[cell + 1] : topology.neighbours(numRows, numCols, cell, around);
+            for (int i = from; i < to; i++) {
+                int neighbour = list[i];
+                if (state[neighbour] == HIDDEN) {
+                    state[neighbour] = REVEALED;
+                    tail = enqueue(tail, neighbour);
+                }
+            }
+        }
+
+        this.revealedCount = tail;
+        this.tilesClicked += tail;
+        if (hints != null) {
+            hints.changed(revealed, tail);
+        }
+        return tail;
+    }
+
+    /**
+     * Appends a cell to the work queue, doubling its capacity when it is full.
+     * The queue never grows beyond the number of cells on the board.
+     *
+     * @param tail the current number of queued cells
+     * @param cell the cell id to append
+     * @return the new number of queued cells
+     */
+    private int enqueue(int tail, int cell) {
+        if (tail == revealed.length) {
+            int capacity = (int) Math.min((long) revealed.length << 1, this.numRows * this.numCols);
+            revealed = Arrays.copyOf(revealed, Math.max(capacity, 16));
+        }
+        revealed[tail] = cell;
+        return tail + 1;
+    }
+
+    /**
+     * Returns the cell ids uncovered by the last move, in the order the flood
+     * fill reached them. Only the first {@link #getRevealedCount()} entries are
+     * valid and the array is reused by the next move, so callers must copy
+     * anything they want to keep.
+     *
+     * @return the shared buffer of cells uncovered by the last move
+     */
+    @Override
+    public int[] getRevealedCells() {
+        return revealed;
+    }
+
+    /**
+     * Returns the number of cells uncovered by the last move.
+     *
+     * @return the number of valid entries in {@link #getRevealedCells()}
+     */
+    @Override
+    public int getRevealedCount() {
+        return revealedCount;
+    }
+
+    /**
+     * Returns the mine probability of every tile. The HintEngine is created on
+     * the first call and keeps its frontier and per-component cache between
+     * calls; every later move tells it which tiles changed, so a query after a
+     * move only enumerates the components the move changed.
+     *
+     * @return an array indexed by cell id; uncovered tiles hold 0
+     */
+    @Override
+    public double[] getMineProbabilities() {
+        return getHintEngine().getMineProbabilities();
+    }
+
+    /**
+     * Returns the hint engine of this game, creating it on the first call.
+     *
+     * @return the hint engine
+     */
+    HintEngine getHintEngine() {
+        if (hints == null) {
+            hints = new HintEngine(this);
+        }
+        return hints;
+    }
+
+    /**
+     * Returns the number of mines surrounding a given cell, as computed when the
+     * mines were placed.
+     *
+     * @param r the row index of the cell
+     * @param c the column index of the cell
+     * @return the count of mines surrounding the specified cell
+     */
+    @Override
+    public int getMinesCount(int r, int c) {
+        return adjacent[index(r, c)];
+    }
+
+    /**
+     * Returns true if the tile at the given position contains a mine.
+     *
+     * @param r the row index of the tile
+     * @param c the column index of the tile
+     * @return true if the tile contains a mine
+     */
+    public boolean isMine(int r, int c) {
+        return isMine(index(r, c));
+    }
+
+    private boolean isMine(int cell) {
+        return (mines[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public boolean isRevealed(int r, int c) {
+        return state[index(r, c)] == REVEALED;
+    }
+
+    @Override
+    public boolean isFlagged(int r, int c) {
+        return state[index(r, c)] == FLAGGED;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * Returns the seed of the generator used to place the mines. Creating an
+     * engine with the same size, mines count and seed reproduces the board.
+     *
+     * @return the seed of the mine placement generator
+     */
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+    @Override
+    public BoardTopology getTopology() {
+        return topology;
+    }
+
+    @Override
+    public int getTotalMines() {
+        return minesCount;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public int getTilesClicked() {
+        return tilesClicked;
+    }
+
+    /**
+     * Checks if the given row and column are out of bounds.
+     *
+     * @param r the row index to check
+     * @param c the column index to check
+     * @return true if the position is out of bounds, false otherwise
+     */
+    private boolean isOutOfBounds(int r, int c) {
+        return r < 0 || r >= this.numRows || c < 0 || c >= this.numCols;
+    }
+
+    private int index(int r, int c) {
+        return r * this.numCols + c;
+    }
+}
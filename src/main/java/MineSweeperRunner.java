@@ -1,37 +1,98 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 /**
  * The MineSweeperRunner class is the entry point for the Minesweeper game.
  * It handles user interaction and game loop.
  *
  * The main method initializes the user interaction and game service,
- * and runs the game in a loop until the user decides to exit.
+ * and runs the game in a loop until the user decides to exit. When no display
+ * is available, or the runner is started with "--headless", the moves are read
+ * from the console instead of the game window and AWT is never loaded;
+ * otherwise the runner waits on the game's completion future until the last
+ * move is played in the window.
  *
  * Methods:
  * - main(String[] args): The main method that starts the Minesweeper game.
  *
  * Usage:
- * Run this class to start the Minesweeper game.
+ * Run this class to start the Minesweeper game. Run it with "--batch" followed
+ * by BatchSimulator options to simulate many headless games instead, or with
+ * "--server" followed by GameServer options to host games over TCP, or with
+ * "--script" followed by a file name (or nothing to read standard input) to play
+ * the commands of a script, see ScriptDriver, or with "--stats" followed by a
+ * GameStatsStore file to print the win rate and solve times recorded in it.
  */
 public class MineSweeperRunner {
 
     public static void main(String[] args) {
 
+        if (args.length > 0 && args[0].equals("--batch")) {
+            try {
+                BatchSimulator.run(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Batch failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--server")) {
+            try {
+                GameServer.run(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Server failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--script")) {
+            try (InputStream script = args.length > 1 ? Files.newInputStream(Paths.get(args[1])) : System.in) {
+                new ScriptDriver(script, System.out).run();
+            } catch (IOException e) {
+                System.out.println("Script failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (args.length > 1 && args[0].equals("--stats")) {
+            try (GameStatsStore store = new GameStatsStore(Paths.get(args[1]))) {
+                System.out.println(store);
+            } catch (IOException e) {
+                System.out.println("Stats failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        boolean headless = args.length > 0 && args[0].equals("--headless") || Display.isHeadless();
         UserInteraction userInteraction = new UserInteraction();
 
         while (true) {
             System.out.println("Welcome to Minesweeper!");
 
-            int rowSize = userInteraction.getGridSize();
-            int minesCount = userInteraction.getMinesCount(rowSize);
+            int[] gridSize = userInteraction.getGridDimensions();
+            int numRows = gridSize[0];
+            int numCols = gridSize[1];
+            int minesCount = userInteraction.getMinesCount(numRows, numCols);
 
-            GameService service = new MineSweeperService(rowSize, minesCount);
+            GameService service = headless
+                    ? GameService.headless(numRows, numCols, minesCount)
+                    : GameService.create(numRows, numCols, minesCount);
             service.startGame();
 
-            while (!service.isGameOver()) {
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+            if (headless) {
+                while (!service.isGameOver()) {
+                    int[] move = userInteraction.getMove(numRows, numCols);
+                    if (move == null) {
+                        break;
+                    }
+                    service.reveal(move[0], move[1]);
                 }
+            } else {
+                GameResult result = service.getCompletion().join();
+                System.out.println("Game " + result + ".");
             }
 
             if (userInteraction.playAgain().equalsIgnoreCase("exit")) {
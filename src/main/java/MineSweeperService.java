@@ -1,379 +1,453 @@
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.MouseAdapter;
-import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * The MineSweeperService class implements the IService interface and provides
- * the core functionality for a Minesweeper game. It manages the game state,
- * initializes the game board, handles user interactions, and determines the
- * game outcome.
+ * The MineSweeperService class implements the GameService interface and ties
+ * the headless MineSweeperEngine to its front ends. The engine owns the game
+ * state; this class forwards moves to it, prints the board to the console and,
+ * unless it runs headless, drives a SwingBoardView.
+ *
+ * A headless service never touches AWT or Swing: the view is only created,
+ * through the BoardView interface, when startGame runs with a display. Use
+ * GameService.headless to force headless mode, e.g. for servers and tests.
  *
  * Key functionalities include:
  * - Initializing the game board with a specified number of rows and mines.
- * - Preparing the initial game panel and tile panel.
  * - Handling user interactions with the game tiles.
- * - Placing mines randomly on the board.
- * - Checking for mines around a tile and updating the game state.
  * - Revealing all mines when the game is over.
  * - Printing the current state of the board to the console.
  *
- * The class uses a 2D array of Tiles objects to represent the game board and
- * a list to keep track of tiles containing mines. It also manages the game
- * frame and label for displaying game messages.
+ * When metrics are on (see GameMetrics) the service times startGame, mine
+ * placement, every reveal and every console render, and records the number of
+ * tiles each reveal uncovered.
+ *
+ * When a BoardPool is configured the board is taken from the pool, already
+ * started, so startGame only opens the front ends. When a GameStatsStore is
+ * configured the result of every finished game is recorded to it.
  */
 public class MineSweeperService implements GameService {
 
-    private final int numRows;
-    private final int numCols;
-    private final int minesCount;
+    private final MineSweeperEngine engine;
+    private volatile CompletableFuture<GameResult> completion = new CompletableFuture<>();
+    private final ConsoleRenderer renderer;
+    private final GameMetrics metrics;
+    private final GameStatsStore stats;
+    private final boolean headless;
+    private boolean pooled;
+    private boolean recorded;
+    private BoardView view;
 
-    private final JFrame frame = new JFrame("Minesweeper");
-    private final JLabel label;
+    public MineSweeperService(int numRows, int minesCount) {
+        this(numRows, numRows, minesCount);
+    }
 
-    private final Tiles[][] board;
-    private List<Tiles> tilesList;
+    public MineSweeperService(int numRows, int numCols, int minesCount) {
+        this(numRows, numCols, minesCount, GameMetrics.configured());
+    }
 
-    private int tilesClicked = 0;
-    private boolean gameOver = false;
+    /**
+     * Creates a service that records its timings to the given metrics.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param metrics    the metrics to record to, or null to record nothing
+     */
+    public MineSweeperService(int numRows, int numCols, int minesCount, GameMetrics metrics) {
+        this(numRows, numCols, minesCount, metrics, BoardPool.configured());
+    }
 
-    private static final int[][] DIRECTIONS = {
-            { -1, -1 }, { -1, 0 }, { -1, 1 },
-            { 0, -1 }, { 0, 1 },
-            { 1, -1 }, { 1, 0 }, { 1, 1 }
-    };
+    /**
+     * Creates a service that plays a board taken from the given pool.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param metrics    the metrics to record to, or null to record nothing
+     * @param pool       the pool to take the board from, or null to build it in startGame
+     */
+    public MineSweeperService(int numRows, int numCols, int minesCount, GameMetrics metrics, BoardPool pool) {
+        this(numRows, numCols, minesCount, metrics, pool, Display.isHeadless());
+    }
 
-    public MineSweeperService(int numRows, int minesCount) {
-        this.numRows = numRows;
-        this.numCols = numRows;
-        this.minesCount = minesCount;
-        this.board = new Tiles[this.numRows][this.numCols];
-        this.label = new JLabel();
+    /**
+     * Creates a service that plays a board taken from the given pool, with or
+     * without a game window.
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param metrics    the metrics to record to, or null to record nothing
+     * @param pool       the pool to take the board from, or null to build it in startGame
+     * @param headless   true to only play on the console, without loading AWT
+     */
+    public MineSweeperService(int numRows, int numCols, int minesCount, GameMetrics metrics, BoardPool pool,
+                              boolean headless) {
+        this(numRows, numCols, minesCount, metrics, pool, headless, GameStatsStore.configured());
+    }
+
+    /**
+     * Creates a service that records the result of its game to the given
+     * stats store.
+     *
+     * @param stats the store to record to, or null to record nothing
+     */
+    MineSweeperService(int numRows, int numCols, int minesCount, GameMetrics metrics, BoardPool pool,
+                       boolean headless, GameStatsStore stats) {
+        this.headless = headless;
+        BoardMode mode = BoardMode.configured();
+        BoardTopology topology = BoardTopology.configured();
+        this.engine = pool != null
+                ? pool.take(numRows, numCols, minesCount, mode, topology)
+                : new MineSweeperEngine(numRows, numCols, minesCount, BoardRandom.splittable(System.nanoTime()), mode,
+                        topology);
+        this.pooled = pool != null;
+        // With a game window the console only needs to list each move's changes
+        this.renderer = new ConsoleRenderer(engine,
+                ConsoleRenderer.configuredMode(headless ? ConsoleRenderer.Mode.FULL : ConsoleRenderer.Mode.DIFF));
+        this.metrics = metrics;
+        this.stats = stats;
     }
 
     @Override
     public boolean isGameOver() {
-        return gameOver;
+        return engine.isGameOver();
     }
 
     /**
-     * Starts the Minesweeper game by preparing the initial game panel, setting up
-     * the tile panel,
-     * placing mines on the board, and printing the initial state of the minefield
-     * to the console.
+     * Starts the Minesweeper game by placing mines on the board, opening the
+     * game window unless the service is headless, and printing the initial state
+     * of the minefield to the console.
      */
     @Override
     public void startGame() {
-        this.prepareInitialPanel();
-        this.prepareTilePanel();
-        setMines();
+        Object event = metrics != null ? metrics.beginStartGame() : null;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (pooled) {
+            // The pooled board is already started; a second startGame deals a new board
+            pooled = false;
+            engine.restartClock();
+        } else {
+            engine.startGame();
+        }
+        recorded = false;
+        long placed = metrics != null ? System.nanoTime() : 0;
+        if (!headless) {
+            this.view = new SwingBoardView(engine, this);
+            this.view.show();
+        }
         System.out.println("Here is your minefield:");
-        printTrace(this.board);
+        printTrace();
+        if (metrics != null) {
+            metrics.recordStartGame(event, System.nanoTime() - start, placed - start, this);
+        }
     }
 
     /**
-     * Prepares the initial panel for the Minesweeper game.
+     * Returns a future that completes with the result of the game once the
+     * final message has been printed and shown in the game window.
      *
-     * This method sets up the main frame with a specified size based on the number
-     * of columns and rows.
-     * It configures the frame's properties such as size, location, resizability,
-     * default close operation,
-     * and layout. It also sets up a label with a specific font and text to display
-     * the Minesweeper title
-     * and mines count. The label is added to a panel, which is then added to the
-     * frame.
+     * @return the future result of the game
      */
-    private void prepareInitialPanel() {
-        int titleSize = 70;
-        int borderWidth = this.numCols * titleSize;
-        int borderHeight = this.numRows * titleSize;
-        frame.setSize(borderWidth, borderHeight);
-        frame.setLocationRelativeTo(null);
-        frame.setResizable(false);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setLayout(new BorderLayout());
-        frame.setLocation(0, 0);
-
-        label.setFont(new Font("Arial", Font.BOLD, 25));
-        label.setHorizontalAlignment(JLabel.CENTER);
-        label.setText("Minesweeper: " + minesCount);
-        label.setOpaque(true);
-
-        JPanel panel = new JPanel();
-        panel.setLayout(new BorderLayout());
-        panel.add(label);
-        frame.add(panel);
-        frame.add(panel, BorderLayout.NORTH);
+    @Override
+    public CompletableFuture<GameResult> getCompletion() {
+        return completion;
+    }
+
+    @Override
+    public int reveal(int row, int col) {
+        return onReveal(row, col);
+    }
+
+    @Override
+    public void toggleFlag(int row, int col) {
+        onFlag(row, col);
     }
 
     /**
-     * Prepares the tile panel for the Minesweeper game.
-     * This method initializes a JPanel with a grid layout based on the number of
-     * rows and columns.
-     * It sets the background color of the panel to green and adds it to the frame.
-     * Then, it iterates through each cell in the grid and adds a tile to the board.
-     * Finally, it makes the frame visible.
+     * Handles a reveal move from either front end.
+     *
+     * If the game is over or the tile is already uncovered, the method returns
+     * immediately. If the tile holds a mine, all mines are revealed. Otherwise,
+     * the tile is uncovered, the number of adjacent mines is printed and the
+     * game is checked for completion.
+     *
+     * @param row the row index of the tile
+     * @param col the column index of the tile
+     * @return the number of tiles uncovered by the move
      */
-    private void prepareTilePanel() {
-        JPanel boardPanel = new JPanel();
-        boardPanel.setLayout(new GridLayout(this.numRows, this.numCols));
-        boardPanel.setBackground(Color.GREEN);
-        frame.add(boardPanel);
-
-        for (int row = 0; row < this.numRows; row++) {
-            for (int col = 0; col < this.numCols; col++) {
-                addTileToBoard(row, col, boardPanel);
-            }
+    int onReveal(int row, int col) {
+        if (engine.isGameOver() || engine.isRevealed(row, col) || engine.isFlagged(row, col)) {
+            return 0;
+        }
+        Object event = metrics != null ? metrics.beginReveal() : null;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int revealed = engine.reveal(row, col);
+        if (metrics != null) {
+            metrics.recordReveal(event, System.nanoTime() - start, row * engine.getNumCols() + col, revealed);
         }
+        if (engine.isGameOver() && !engine.isGameWon()) {
+            revealMines();
+            return 0;
+        }
+        refreshView(engine.getRevealedCells(), engine.getRevealedCount());
+        System.out.println("This square contains " + engine.getMinesCount(row, col) + " adjacent mines.");
+        printChanges(engine.getRevealedCells(), engine.getRevealedCount());
 
-        frame.setVisible(true);
+        gameompletedCheck();
+        return revealed;
     }
 
     /**
-     * Adds a tile to the game board at the specified row and column.
+     * Handles a flag move from either front end.
      *
-     * @param row        the row index where the tile will be added
-     * @param col        the column index where the tile will be added
-     * @param boardPanel the JPanel representing the game board
+     * @param row the row index of the tile
+     * @param col the column index of the tile
      */
-    private void addTileToBoard(int row, int col, JPanel boardPanel) {
-        Tiles tile = new Tiles(row, col);
-        board[row][col] = tile;
-
-        tile.setFocusable(false);
-        tile.setMargin(new Insets(0, 0, 0, 0));
-        tile.setFont(new Font("Arial Unicode MS", Font.PLAIN, 45));
-        tile.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mousePressed(MouseEvent e) {
-                moveEventCallBack(e);
-            }
-        });
-        boardPanel.add(tile);
+    void onFlag(int row, int col) {
+        if (engine.isGameOver() || engine.isRevealed(row, col)) {
+            return;
+        }
+        engine.toggleFlag(row, col);
+        int[] changed = { row * engine.getNumCols() + col };
+        refreshView(changed, 1);
+        printChanges(changed, 1);
     }
 
     /**
-     * Handles the mouse event callback for a move action in the Minesweeper game.
+     * Takes back the last move and shows the squares it changed. When the move
+     * had ended the game, the game is reopened with a new completion future and,
+     * unless the service is headless, a new game window.
      *
-     * @param e the MouseEvent triggered by the user's action
-     *
-     *          If the game is over, the method returns immediately.
-     *          If the left mouse button is clicked on a tile, the method checks if
-     *          the tile is empty.
-     *          If the tile is part of the mines list, it reveals all mines.
-     *          Otherwise, it checks the tile for mines, prints the number of
-     *          adjacent mines,
-     *          and checks if the game is completed.
+     * @return false if there is no move to take back
      */
-    private void moveEventCallBack(MouseEvent e) {
-        if (this.gameOver) {
-            return;
+    @Override
+    public boolean undo() {
+        boolean over = engine.isGameOver();
+        if (!engine.undo()) {
+            return false;
         }
-        Tiles tile = (Tiles) e.getSource();
-
-        if (e.getButton() == MouseEvent.BUTTON1) {
-            if (tile.getText().equalsIgnoreCase("")) {
-                if (tilesList.contains(tile)) {
-                    revealMines();
-                } else {
-                    checkMine(tile.row, tile.col);
-                    System.out.println("This square contains " + tile.getText() + " adjacent mines.");
-                    printTrace(board);
-
-                    gameompletedCheck();
-                }
+        if (over && !engine.isGameOver()) {
+            completion = new CompletableFuture<>();
+            if (!headless) {
+                this.view = new SwingBoardView(engine, this);
+                this.view.show();
             }
         }
+        refreshView(engine.getRevealedCells(), engine.getRevealedCount());
+        printChanges(engine.getRevealedCells(), engine.getRevealedCount());
+        return true;
     }
 
     /**
-     * Checks if the game is completed by comparing the number of clicked tiles
-     * with the total number of tiles minus the number of tiles in the tilesList.
-     * If the game is completed and not already marked as over, it prints a
-     * congratulatory message, updates the label, sets the gameOver flag to true,
-     * and disposes of the game frame.
+     * Plays again the last move taken back by undo() and shows the squares it
+     * changed, ending the game again if the move had ended it.
+     *
+     * @return false if there is no move to play again
      */
-    private void gameompletedCheck() {
-        if ((this.tilesClicked == (this.numRows * this.numCols) - this.tilesList.size()) && !this.gameOver) {
-            System.out.println("Congratulations, you have won the game!");
-            label.setText("Congratulations, you have won the game!");
-            this.gameOver = true;
-            disposeFrame();
+    @Override
+    public boolean redo() {
+        if (!engine.redo()) {
+            return false;
         }
+        if (engine.isGameOver() && !engine.isGameWon()) {
+            refreshView();
+            System.out.println("Oh no, you detonated a mine! Game over.");
+            showMessage("Oh no, you detonated a mine! Game over.");
+            finish();
+            return true;
+        }
+        refreshView(engine.getRevealedCells(), engine.getRevealedCount());
+        printChanges(engine.getRevealedCells(), engine.getRevealedCount());
+        gameompletedCheck();
+        return true;
     }
 
     /**
-     * Randomly places mines on the board. The method ensures that the specified
-     * number of mines
-     * are placed on unique tiles. It uses a random number generator to select tiles
-     * and adds them
-     * to the tilesList if they do not already contain a mine.
+     * Prints a congratulatory message and closes the game window once the
+     * engine reports that the game has been won.
      */
-    private void setMines() {
-        Random random = new Random();
-        this.tilesList = new ArrayList<>();
-
-        int minesLeft = minesCount;
-        while (minesLeft > 0) {
-            int r = random.nextInt(this.numRows);
-            int c = random.nextInt(this.numCols);
-
-            Tiles tile = board[r][c];
-            if (!tilesList.contains(tile)) {
-                tilesList.add(tile);
-                minesLeft -= 1;
-            }
+    private void gameompletedCheck() {
+        if (engine.isGameWon()) {
+            System.out.println("Congratulations, you have won the game!");
+            showMessage("Congratulations, you have won the game!");
+            finish();
         }
     }
 
     /**
-     * Reveals all mines on the game board by setting the text of each tile to a
-     * bomb icon.
-     * Displays a game over message and updates the game state to indicate that the
-     * game is over.
-     * Disposes of the game frame.
+     * Reveals all mines on the game board, displays a game over message and
+     * closes the game window.
      */
     public void revealMines() {
-        for (Tiles tile : tilesList) {
-            tile.setText("💣");
-        }
+        engine.revealMines();
+        refreshView();
 
         System.out.println("Oh no, you detonated a mine! Game over.");
-        label.setText("Oh no, you detonated a mine! Game over.");
-        this.gameOver = true;
-        disposeFrame();
+        showMessage("Oh no, you detonated a mine! Game over.");
+        finish();
     }
 
     /**
-     * Disposes the current frame after a specified delay.
-     * A timer is set to trigger the disposal action after 3000 milliseconds.
-     * The timer does not repeat.
+     * Completes the game's future and records the result. A game is recorded
+     * once, with the result it first ended with: a game whose last move is
+     * undone and that ends again completes its new future, but is not recorded
+     * a second time.
      */
-    private void disposeFrame() {
-        int delay = 3000;
-        Timer timer = new Timer(delay, e -> frame.dispose());
-        timer.setRepeats(false);
-        timer.start();
+    private void finish() {
+        GameResult result = engine.getCompletion().getNow(null);
+        if (completion.complete(result) && result != null && !recorded) {
+            recorded = true;
+            if (metrics != null) {
+                metrics.recordGameOver(result.isWon());
+            }
+            if (stats != null) {
+                stats.record(engine, result);
+            }
+        }
     }
 
     /**
-     * Checks the tile at the specified row and column for a mine.
-     * If the tile is out of bounds or already disabled, the method returns
-     * immediately.
-     * If the tile is enabled, it disables the tile and increments the count of
-     * clicked tiles.
-     * If mines are found around the tile, it sets the tile's text to the number of
-     * mines.
-     * If no mines are found, it sets the tile's text to "0" and recursively checks
-     * surrounding tiles.
+     * Uncovers the tile at the specified row and column, and for a zero tile its
+     * whole empty region. Mine and win detection are left to the move handlers.
      *
      * @param r the row index of the tile to check
      * @param c the column index of the tile to check
      */
     public void checkMine(int r, int c) {
-        if (isOutOfBounds(r, c) || !board[r][c].isEnabled()) {
-            return;
-        }
+        engine.checkMine(r, c);
+        refreshView(engine.getRevealedCells(), engine.getRevealedCount());
+    }
+
+    @Override
+    public boolean isGameWon() {
+        return engine.isGameWon();
+    }
 
-        Tiles tile = board[r][c];
-        tile.setEnabled(false);
-        tilesClicked++;
+    @Override
+    public int getNumRows() {
+        return engine.getNumRows();
+    }
 
-        int minesFound = getMinesCount(r, c);
-        tile.setText(minesFound > 0 ? Integer.toString(minesFound) : "0");
+    @Override
+    public int getNumCols() {
+        return engine.getNumCols();
+    }
 
-        if (minesFound == 0) {
-            checkMineRecursion(r, c);
-        }
+    @Override
+    public BoardTopology getTopology() {
+        return engine.getTopology();
     }
 
-    /**
-     * Checks if the given row and column are out of bounds.
-     *
-     * @param r the row index to check
-     * @param c the column index to check
-     * @return true if the position is out of bounds, false otherwise
-     */
-    private boolean isOutOfBounds(int r, int c) {
-        return r < 0 || r >= this.numRows || c < 0 || c >= this.numCols;
+    @Override
+    public int getTotalMines() {
+        return engine.getTotalMines();
     }
 
-    /**
-     * Calculates the number of mines surrounding a given cell in the Minesweeper
-     * grid.
-     *
-     * @param r the row index of the cell
-     * @param c the column index of the cell
-     * @return the count of mines surrounding the specified cell
-     */
-    private int getMinesCount(int r, int c) {
-        return Arrays.stream(DIRECTIONS)
-                .mapToInt(direction -> countMine(r + direction[0], c + direction[1]))
-                .sum();
+    @Override
+    public boolean isRevealed(int row, int col) {
+        return engine.isRevealed(row, col);
     }
 
-    /**
-     * Checks the surrounding cells of a given cell (r, c) for mines.
-     * This method calls the checkMine method for each of the eight neighboring
-     * cells.
-     *
-     * @param r the row index of the cell to check around
-     * @param c the column index of the cell to check around
-     */
-    private void checkMineRecursion(int r, int c) {
-        Arrays.stream(DIRECTIONS).forEach(direction -> checkMine(r + direction[0], c + direction[1]));
+    @Override
+    public boolean isFlagged(int row, int col) {
+        return engine.isFlagged(row, col);
     }
 
-    /**
-     * Counts the number of mines at the specified position on the board.
-     *
-     * @param r the row index of the position to check
-     * @param c the column index of the position to check
-     * @return 1 if the position contains a mine, 0 otherwise or if the position is
-     *         out of bounds
-     */
-    private int countMine(int r, int c) {
-        return (r >= 0 && r < this.numRows && c >= 0 && c < this.numCols && tilesList.contains(board[r][c])) ? 1 : 0;
+    @Override
+    public int getMinesCount(int row, int col) {
+        return engine.getMinesCount(row, col);
+    }
+
+    @Override
+    public int[] getRevealedCells() {
+        return engine.getRevealedCells();
+    }
+
+    @Override
+    public int getRevealedCount() {
+        return engine.getRevealedCount();
+    }
+
+    @Override
+    public double[] getMineProbabilities() {
+        return engine.getMineProbabilities();
     }
 
     /**
-     * Prints the current state of the minefield to the console.
-     * The minefield is represented by a 2D array of Tiles.
-     * The method displays the minefield with row and column headers.
-     * Empty tiles are represented by an underscore ("_").
+     * Returns whether this service plays without a game window.
      *
-     * @param board A 2D array of Tiles representing the minefield.
+     * @return true if headless
      */
-    public void printTrace(Tiles[][] board) {
-        System.out.println("");
-        System.out.println("Here is your updated minefield:");
+    public boolean isHeadless() {
+        return headless;
+    }
 
-        String[][] arr = new String[board.length + 1][board.length + 1];
+    @Override
+    public MoveEventBus getEvents() {
+        return engine.getEvents();
+    }
 
-        IntStream.rangeClosed(1, board.length).forEach(i -> arr[0][i] = Integer.toString(i));
+    public MineSweeperEngine getEngine() {
+        return engine;
+    }
 
-        IntStream.rangeClosed(1, board.length).forEach(i -> arr[i][0] = Character.toString((char) ('A' + i - 1)));
+    private void refreshView() {
+        if (view != null) {
+            view.refresh();
+        }
+    }
 
-        IntStream.rangeClosed(1, board.length).forEach(i -> IntStream.rangeClosed(1, board.length).forEach(j -> {
-            Tiles tile = board[i - 1][j - 1];
-            arr[i][j] = tile.getText().isEmpty() ? "_" : tile.getText();
-        }));
+    private void refreshView(int[] cells, int count) {
+        if (view != null) {
+            view.refresh(cells, count);
+        }
+    }
 
-        IntStream.rangeClosed(1, board.length).forEach(i -> IntStream.rangeClosed(1, board.length).forEach(j -> {
-            Tiles tile = board[i - 1][j - 1];
-            arr[i][j] = tile.getText().isEmpty() ? "_" : tile.getText();
-        }));
+    private void showMessage(String message) {
+        if (view != null) {
+            view.showMessage(message);
+            view.close();
+        }
+    }
 
-        IntStream.rangeClosed(0, board.length).forEach(i -> {
-            IntStream.rangeClosed(0, board.length)
-                    .forEach(j -> System.out.print((arr[i][j] == null ? "  " : arr[i][j] + " ")));
-            System.out.println();
-        });
+    /**
+     * Prints the current state of the minefield to the console.
+     * The method displays the minefield with row and column headers.
+     * Covered tiles are represented by an underscore ("_").
+     */
+    public void printTrace() {
+        Object event = metrics != null ? metrics.beginRender() : null;
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (renderer.getMode() != ConsoleRenderer.Mode.ANSI) {
+            System.out.println("");
+            System.out.println("Here is your updated minefield:");
+        }
+        renderer.renderFull();
         System.out.println("");
+        if (metrics != null) {
+            metrics.recordRender(event, System.nanoTime() - start, engine.getNumRows() * engine.getNumCols());
+        }
+    }
+
+    /**
+     * Prints the cells changed by the last move. In the FULL console mode,
+     * the default of a headless game, this prints the whole minefield like
+     * {@link #printTrace()}; a game with a window defaults to DIFF, so a click
+     * costs a line proportional to the tiles it changed.
+     *
+     * @param cells the changed cell ids; only the first count entries are read
+     * @param count the number of changed cells
+     */
+    private void printChanges(int[] cells, int count) {
+        if (renderer.getMode() == ConsoleRenderer.Mode.FULL) {
+            printTrace();
+        } else {
+            Object event = metrics != null ? metrics.beginRender() : null;
+            long start = metrics != null ? System.nanoTime() : 0;
+            renderer.renderChanges(cells, count);
+            if (metrics != null) {
+                metrics.recordRender(event, System.nanoTime() - start, count);
+            }
+        }
     }
-}
\ No newline at end of file
+}
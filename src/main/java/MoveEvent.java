@@ -0,0 +1,95 @@
+/**
+ * The MoveEvent class describes what one move changed on the board, as
+ * published by a MoveEventBus. Events say what happened to the tiles rather
+ * than which command was played, so an observer can follow a game without
+ * reading the board:
+ *
+ * - UNCOVERED: getCells() were uncovered; a flood fill is one event.
+ * - COVERED: getCells() were covered again by an undo.
+ * - FLAGGED and UNFLAGGED: a flag was placed on or removed from getCell().
+ * - GAME_OVER: the game was won or lost, see getStatus().
+ * - REOPENED: an undo took back the move that had ended the game.
+ * - MISSED: the subscriber's queue overflowed and events were dropped; it
+ * should read the whole board again.
+ *
+ * Events are immutable and shared by every subscriber.
+ */
+public final class MoveEvent {
+
+    public static final int UNCOVERED = 0;
+    public static final int COVERED = 1;
+    public static final int FLAGGED = 2;
+    public static final int UNFLAGGED = 3;
+    public static final int GAME_OVER = 4;
+    public static final int REOPENED = 5;
+    public static final int MISSED = 6;
+
+    public static final int PLAYING = 0;
+    public static final int WON = 1;
+    public static final int LOST = 2;
+
+    static final int[] NO_CELLS = new int[0];
+
+    private final long sequence;
+    private final int type;
+    private final int cell;
+    private final int[] cells;
+    private final int status;
+
+    MoveEvent(long sequence, int type, int cell, int[] cells, int status) {
+        this.sequence = sequence;
+        this.type = type;
+        this.cell = cell;
+        this.cells = cells;
+        this.status = status;
+    }
+
+    /**
+     * Returns the number of the event; the events of a game are numbered from 1
+     * without gaps, so a subscriber can tell how many it missed. A MISSED event
+     * carries the number of the last event delivered before it.
+     *
+     * @return the sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Returns the cell id of the move that caused the event.
+     *
+     * @return the cell id, or -1 for MISSED
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    /**
+     * Returns the cells uncovered or covered by the move, in the order the
+     * flood fill reached them. The array must not be modified.
+     *
+     * @return the changed cells; empty for the other event types
+     */
+    public int[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns the state of the game after the move: PLAYING, WON or LOST.
+     *
+     * @return the game status
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "MoveEvent#" + sequence + " type=" + type + " cell=" + cell + " cells=" + cells.length
+                + " status=" + status;
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The MoveEventBus class broadcasts the MoveEvents of one game to any number
+ * of observers, such as spectator views, loggers or a console renderer,
+ * without letting them slow the game down.
+ *
+ * Every subscriber has its own bounded queue and is called on a background
+ * thread, one event at a time and in order. Publishing only offers the event
+ * to each queue and never waits: when a subscriber falls so far behind that
+ * its queue is full, the following events are dropped for it alone until it
+ * has caught up, and it then receives a single MISSED event telling it to read
+ * the board again. A slow or failing subscriber therefore costs the move path
+ * one failed offer, and the other subscribers do not notice it.
+ *
+ * With no subscriber, publishing is a single check, so an engine nobody
+ * observes pays nothing for its bus. Deliveries of every bus share one pool of
+ * daemon threads, which are started as subscribers need them and end when they
+ * have been idle for a minute.
+ */
+public class MoveEventBus {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final int DRAIN_BATCH = 256;
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "minesweeper-events-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private long sequence = 0;
+    private volatile int status = MoveEvent.PLAYING;
+
+    /**
+     * Subscribes an observer with a queue of DEFAULT_CAPACITY events.
+     *
+     * @param subscriber the observer
+     * @return the subscription, to be closed to unsubscribe
+     */
+    public Subscription subscribe(Consumer<MoveEvent> subscriber) {
+        return subscribe(subscriber, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Subscribes an observer, which is called on a background thread for every
+     * event published from now on. An observer that throws is unsubscribed.
+     *
+     * @param subscriber the observer
+     * @param capacity   the number of events queued for it before events are dropped
+     * @return the subscription, to be closed to unsubscribe
+     */
+    public Subscription subscribe(Consumer<MoveEvent> subscriber, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Subscriber capacity must be positive");
+        }
+        Subscription subscription = new Subscription(subscriber, capacity);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Publishes an event to every subscriber. Called on the thread that played
+     * the move, which must be the only thread publishing to this bus.
+     *
+     * @param type   the event type
+     * @param cell   the cell of the move
+     * @param cells  the changed cells; the first count entries are copied
+     * @param count  the number of changed cells
+     * @param status the game status after the move
+     */
+    void publish(int type, int cell, int[] cells, int count, int status) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        int[] copy = count == 0 ? MoveEvent.NO_CELLS : new int[count];
+        System.arraycopy(cells, 0, copy, 0, count);
+        this.status = status;
+        MoveEvent event = new MoveEvent(++sequence, type, cell, copy, status);
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * The Subscription class is one observer's queue. Closing it unsubscribes
+     * the observer and drops the events still queued for it.
+     */
+    public final class Subscription implements Closeable {
+        private final Consumer<MoveEvent> subscriber;
+        private final ArrayBlockingQueue<MoveEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final LongAdder dropped = new LongAdder();
+        private volatile boolean overflowed = false;
+        private volatile boolean closed = false;
+        private volatile long lastSequence = 0;
+
+        Subscription(Consumer<MoveEvent> subscriber, int capacity) {
+            this.subscriber = subscriber;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /**
+         * Queues an event, or drops it once the queue has overflowed, and makes
+         * sure a delivery is scheduled.
+         */
+        void offer(MoveEvent event) {
+            if (overflowed || !queue.offer(event)) {
+                overflowed = true;
+                dropped.increment();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                DELIVERY.execute(this::drain);
+            }
+        }
+
+        /**
+         * Delivers up to DRAIN_BATCH events, then hands the thread back so
+         * that one busy subscriber cannot hold it forever.
+         */
+        private void drain() {
+            try {
+                for (int delivered = 0; delivered < DRAIN_BATCH && !closed; delivered++) {
+                    MoveEvent event = queue.poll();
+                    if (event == null) {
+                        if (!overflowed) {
+                            break;
+                        }
+                        // Caught up after an overflow: later events are queued again, after this one
+                        overflowed = false;
+                        event = new MoveEvent(lastSequence, MoveEvent.MISSED, -1, MoveEvent.NO_CELLS, status);
+                    }
+                    lastSequence = event.getSequence();
+                    subscriber.accept(event);
+                }
+            } catch (RuntimeException e) {
+                close();
+            } finally {
+                scheduled.set(false);
+                if (!closed && (!queue.isEmpty() || overflowed) && scheduled.compareAndSet(false, true)) {
+                    DELIVERY.execute(this::drain);
+                }
+            }
+        }
+
+        /**
+         * Returns the number of events dropped because the queue was full.
+         *
+         * @return the number of dropped events
+         */
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            queue.clear();
+        }
+    }
+}
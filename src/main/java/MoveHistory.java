@@ -0,0 +1,168 @@
+/**
+ * The MoveHistory class keeps the undo and redo history of a
+ * MineSweeperEngine as reversible move deltas instead of copies of the board.
+ *
+ * Every move is one long record packing its action code (see MoveListener),
+ * its cell, whether it ended the game and the number of cells it uncovered.
+ * The uncovered cells themselves are appended to a shared int log, so undoing
+ * or redoing a move touches exactly the cells it changed. Records and cells
+ * form a stack: undo moves a cursor back, redo forward, and a new move drops
+ * everything after the cursor.
+ *
+ * A line of play uncovers each cell at most once, so the cell log never holds
+ * more than one entry per cell, and the number of kept moves is bounded by the
+ * limit (DEFAULT_LIMIT unless set); when it is reached the oldest move is
+ * forgotten. A session's history therefore costs 8 bytes per kept move, 32 KB
+ * by default, plus 4 bytes per uncovered cell, up to 8 while the log is
+ * grown, however long the game is played.
+ */
+final class MoveHistory {
+
+    static final int DEFAULT_LIMIT = 4096;
+
+    private static final int CELL_BITS = 30;
+    private static final int ACTION_SHIFT = CELL_BITS;
+    private static final int ENDED_SHIFT = ACTION_SHIFT + 2;
+    private static final int COUNT_SHIFT = ENDED_SHIFT + 1;
+
+    private long[] records = new long[16];
+    private int first = 0;
+    private int position = 0;
+    private int end = 0;
+
+    private int[] cells = new int[16];
+    private int cellsFirst = 0;
+    private int cellsPosition = 0;
+
+    private int limit;
+
+    MoveHistory(int limit) {
+        this.limit = limit;
+    }
+
+    void setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("History limit must be positive");
+        }
+        this.limit = limit;
+        while (position - first > limit) {
+            dropOldest();
+        }
+        end = Math.min(end, first + limit);
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Records a move and forgets the moves that had been undone.
+     *
+     * @param action    the action code
+     * @param cell      the cell of the move
+     * @param ended     true if the move ended the game
+     * @param uncovered the cells the move uncovered
+     * @param count     the number of uncovered cells
+     */
+    void push(int action, int cell, boolean ended, int[] uncovered, int count) {
+        end = position;
+        if (position - first == limit) {
+            dropOldest();
+        }
+        if (position == records.length) {
+            records = grow(records, first, position);
+            position -= first;
+            first = 0;
+        }
+        if (cells.length - cellsPosition < count) {
+            int used = cellsPosition - cellsFirst;
+            int[] grown = used + count <= cells.length / 2 ? cells : new int[Math.max(cells.length * 2, used + count)];
+            System.arraycopy(cells, cellsFirst, grown, 0, used);
+            cells = grown;
+            cellsFirst = 0;
+            cellsPosition = used;
+        }
+        System.arraycopy(uncovered, 0, cells, cellsPosition, count);
+        cellsPosition += count;
+        records[position++] = (long) count << COUNT_SHIFT | (ended ? 1L << ENDED_SHIFT : 0)
+                | (long) action << ACTION_SHIFT | cell;
+        end = position;
+    }
+
+    private void dropOldest() {
+        cellsFirst += count(records[first]);
+        first++;
+    }
+
+    private static long[] grow(long[] array, int from, int to) {
+        int used = to - from;
+        long[] grown = used <= array.length / 2 ? array : new long[array.length * 2];
+        System.arraycopy(array, from, grown, 0, used);
+        return grown;
+    }
+
+    boolean canUndo() {
+        return position > first;
+    }
+
+    boolean canRedo() {
+        return position < end;
+    }
+
+    /**
+     * Steps back over the last move; its cells are then those from
+     * getCellsPosition() on.
+     *
+     * @return the record of the undone move
+     */
+    long undo() {
+        long record = records[--position];
+        cellsPosition -= count(record);
+        return record;
+    }
+
+    /**
+     * Steps forward over the next undone move; its cells are those from
+     * getCellsPosition() on, before the call.
+     *
+     * @return the record of the redone move
+     */
+    long redo() {
+        long record = records[position++];
+        cellsPosition += count(record);
+        return record;
+    }
+
+    void clear() {
+        first = position = end = 0;
+        cellsFirst = cellsPosition = 0;
+    }
+
+    int[] getCells() {
+        return cells;
+    }
+
+    int getCellsPosition() {
+        return cellsPosition;
+    }
+
+    int size() {
+        return position - first;
+    }
+
+    static int action(long record) {
+        return (int) (record >>> ACTION_SHIFT) & 3;
+    }
+
+    static int cell(long record) {
+        return (int) record & ((1 << CELL_BITS) - 1);
+    }
+
+    static boolean ended(long record) {
+        return (record >>> ENDED_SHIFT & 1) != 0;
+    }
+
+    static int count(long record) {
+        return (int) (record >>> COUNT_SHIFT);
+    }
+}
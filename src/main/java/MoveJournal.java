@@ -0,0 +1,245 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MoveJournal class records every move played on a MineSweeperEngine to an
+ * append-only binary file, so a game can be audited or reproduced later with
+ * the JournalReplayer.
+ *
+ * File layout: an 8-byte header (magic "MSWJ" and version, little-endian)
+ * followed by one record per move. A record is the unsigned varint of
+ * {@code cell << 3 | action}, with the action codes of MoveListener, so a move
+ * on a board of up to 2^30 cells takes 1 to 5 bytes. Version 1 journals, which
+ * had no UNDO or REDO records, used {@code cell << 2 | action}.
+ *
+ * Moves are appended to an in-memory batch on the thread that plays them. The
+ * batch is handed to a background writer when it is full and every
+ * FLUSH_MILLIS, so a move costs a few array writes and never waits for the
+ * disk. A crash loses at most the moves of the last unwritten batch.
+ *
+ * A GameSnapshot of the board is saved next to the journal when the journal is
+ * attached and after every snapshotInterval moves, named
+ * {@code <journal>.<moves>.snap}, so that a position can be rebuilt without
+ * replaying the whole game. The move thread only copies the bit planes; the
+ * file is written by the background writer, after the batches before it.
+ * When the first move of a SAFE_START or NO_GUESS game places the mines, a
+ * snapshot is also taken right after it, so the journal keeps the board and
+ * placement seed that move chose.
+ * UNDO and REDO records are ordinary records; the JournalReplayer plays them
+ * with the undo history of the engine it rebuilds.
+ */
+public class MoveJournal implements MoveListener, Closeable {
+
+    static final int MAGIC = 0x4A57534D;
+    static final short VERSION = 2;
+    static final int HEADER_BYTES = 8;
+
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+    private static final int BATCH_BYTES = 8192;
+    private static final long FLUSH_MILLIS = 100;
+
+    private final MineSweeperEngine engine;
+    private final Path file;
+    private final int snapshotInterval;
+    private final FileChannel channel;
+    private final ScheduledExecutorService writer;
+    private final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+
+    private final byte[] batch = new byte[BATCH_BYTES];
+    private int batchLength = 0;
+    private long records = 0;
+    private boolean minesPending;
+    private volatile IOException failure;
+
+    /**
+     * Creates a journal file, replacing any existing one and its snapshots,
+     * saves the current position of the game as its first snapshot and starts
+     * recording the game's moves.
+     *
+     * @param engine           the game to record
+     * @param file             the journal file
+     * @param snapshotInterval the number of moves between snapshots
+     * @throws IOException if the journal or the snapshot cannot be written
+     */
+    public MoveJournal(MineSweeperEngine engine, Path file, int snapshotInterval) throws IOException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        this.engine = engine;
+        this.file = file;
+        this.snapshotInterval = snapshotInterval;
+
+        deleteSnapshots(file);
+        GameSnapshot.save(engine, snapshotPath(file, 0));
+        this.minesPending = !engine.isMinesPlaced();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+        ((Buffer) header).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+
+        this.writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "minesweeper-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::submitBatch, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        engine.setMoveListener(this);
+    }
+
+    /**
+     * Returns the path of the snapshot taken after the given number of moves.
+     *
+     * @param journal the journal file
+     * @param moves   the number of recorded moves
+     * @return the snapshot path
+     */
+    static Path snapshotPath(Path journal, long moves) {
+        return journal.resolveSibling(journal.getFileName() + "." + moves + ".snap");
+    }
+
+    private static void deleteSnapshots(Path journal) throws IOException {
+        Path directory = journal.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, journal.getFileName() + ".*.snap")) {
+            for (Path snapshot : files) {
+                Files.delete(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of moves recorded so far.
+     *
+     * @return the number of records
+     */
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    @Override
+    public synchronized void onMove(int action, int cell) {
+        long value = ((long) cell << 3) | action;
+        while ((value & ~0x7FL) != 0) {
+            batch[batchLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        batch[batchLength++] = (byte) value;
+        records++;
+        if (batchLength > BATCH_BYTES - 5) {
+            submitBatch();
+        }
+        if (minesPending && engine.isMinesPlaced()) {
+            // Keep the board and placement seed the first move chose, whatever the interval
+            minesPending = false;
+            submitSnapshot();
+        } else if (records % snapshotInterval == 0) {
+            submitSnapshot();
+        }
+    }
+
+    /**
+     * Copies the board as it is after the current record and hands the copy to
+     * the writer thread, so the move thread never waits for the snapshot file.
+     */
+    private void submitSnapshot() {
+        ByteBuffer snapshot = GameSnapshot.capture(engine);
+        Path path = snapshotPath(file, records);
+        if (!writer.isShutdown()) {
+            writer.execute(() -> {
+                try {
+                    GameSnapshot.write(snapshot, path);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            });
+        }
+    }
+
+    /**
+     * Hands the current batch to the writer thread. Batches are queued in the
+     * order they were filled, so the file always holds a prefix of the moves.
+     */
+    private synchronized void submitBatch() {
+        if (batchLength == 0) {
+            return;
+        }
+        pending.add(ByteBuffer.wrap(Arrays.copyOf(batch, batchLength)));
+        batchLength = 0;
+        if (!writer.isShutdown()) {
+            writer.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        ByteBuffer buffer;
+        while ((buffer = pending.poll()) != null) {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Writes every recorded move to the file and waits until it is written.
+     *
+     * @throws IOException if a write has failed
+     */
+    public void flush() throws IOException {
+        submitBatch();
+        try {
+            writer.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing the journal", e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops recording, writes the remaining moves and closes the file.
+     *
+     * @throws IOException if a write has failed
+     */
+    @Override
+    public void close() throws IOException {
+        engine.setMoveListener(null);
+        try {
+            flush();
+        } finally {
+            writer.shutdownNow();
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+}
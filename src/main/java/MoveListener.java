@@ -0,0 +1,30 @@
+/**
+ * The MoveListener interface is told about every move played on a
+ * MineSweeperEngine, after the move has been applied. It is called on the
+ * thread that played the move, so implementations should return quickly.
+ *
+ * Action codes:
+ * - REVEAL: reveal(row, col) was played on the cell.
+ * - FLAG: toggleFlag(row, col) placed or removed a flag on the cell.
+ * - UNCOVER: checkMine(row, col) uncovered the cell without a move being counted.
+ * - LOSE: revealMines() ended the game; the cell is 0.
+ * - UNDO: undo() took back the move played on the cell.
+ * - REDO: redo() played the move on the cell again.
+ */
+public interface MoveListener {
+
+    int REVEAL = 0;
+    int FLAG = 1;
+    int UNCOVER = 2;
+    int LOSE = 3;
+    int UNDO = 4;
+    int REDO = 5;
+
+    /**
+     * Called after a move has been applied to the board.
+     *
+     * @param action the action code
+     * @param cell   the cell id ({@code row * numCols + col}) of the move
+     */
+    void onMove(int action, int cell);
+}
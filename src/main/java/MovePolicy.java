@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * The MovePolicy interface chooses the moves of a game played without a user,
+ * e.g. by the BatchSimulator. A policy instance plays a single game and may
+ * keep state between moves.
+ *
+ * Implementations:
+ * - random(): uncovers covered tiles in random order.
+ * - solver(): plays by deduction using the Solver.
+ * - scripted(Path, int, int): replays the squares listed in a file.
+ */
+public interface MovePolicy {
+
+    /**
+     * Chooses the next tile to uncover.
+     *
+     * @param game the game being played
+     * @return the cell id to uncover, or -1 to stop playing this game
+     */
+    int nextMove(GameService game);
+
+    /**
+     * Returns a factory of policies that uncover covered tiles in random order.
+     * Each game's policy is seeded from the game's seed.
+     *
+     * @return a factory of random policies, keyed by game seed
+     */
+    static LongFunction<MovePolicy> random() {
+        return seed -> new RandomMoves(BoardRandom.splittable(~seed));
+    }
+
+    /**
+     * Returns a factory of Solver policies, which play by deduction and only
+     * guess when no deduction applies.
+     *
+     * @return a factory of solvers
+     */
+    static LongFunction<MovePolicy> solver() {
+        return seed -> new Solver();
+    }
+
+    /**
+     * Returns a factory of policies that replay the squares listed in a file,
+     * one square per line (e.g. "C7"). Blank lines and lines starting with '#'
+     * are ignored. A game stops when the script runs out of moves.
+     *
+     * @param script  the file holding the moves
+     * @param numRows the number of rows of the boards the script is played on
+     * @param numCols the number of columns of the boards the script is played on
+     * @return a factory of scripted policies
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a square on the board
+     */
+    static LongFunction<MovePolicy> scripted(Path script, int numRows, int numCols) throws IOException {
+        List<String> lines = Files.readAllLines(script, StandardCharsets.UTF_8);
+        int[] moves = new int[lines.size()];
+        int count = 0;
+        for (String line : lines) {
+            String square = line.trim();
+            if (square.isEmpty() || square.startsWith("#")) {
+                continue;
+            }
+            int[] cell = BoardLabels.parseCell(square, numRows, numCols);
+            if (cell == null) {
+                throw new IllegalArgumentException("Invalid square in " + script + ": " + square);
+            }
+            moves[count++] = cell[0] * numCols + cell[1];
+        }
+        int[] parsed = Arrays.copyOf(moves, count);
+        return seed -> new ScriptedMoves(parsed);
+    }
+
+    /**
+     * Uncovers covered tiles in random order by running a Fisher-Yates shuffle
+     * one step per move, skipping tiles that were uncovered by a flood fill.
+     */
+    final class RandomMoves implements MovePolicy {
+        private final BoardRandom random;
+        private int[] order;
+        private int remaining;
+
+        RandomMoves(BoardRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public int nextMove(GameService game) {
+            int numCols = game.getNumCols();
+            if (order == null) {
+                remaining = game.getNumRows() * numCols;
+                order = new int[remaining];
+                for (int i = 0; i < remaining; i++) {
+                    order[i] = i;
+                }
+            }
+            while (remaining > 0) {
+                int pick = random.nextInt(remaining);
+                int cell = order[pick];
+                order[pick] = order[--remaining];
+                order[remaining] = cell;
+                if (!game.isRevealed(cell / numCols, cell % numCols)) {
+                    return cell;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Replays a fixed list of moves.
+     */
+    final class ScriptedMoves implements MovePolicy {
+        private final int[] moves;
+        private int next;
+
+        ScriptedMoves(int[] moves) {
+            this.moves = moves;
+        }
+
+        @Override
+        public int nextMove(GameService game) {
+            return next < moves.length ? moves[next++] : -1;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The NeighbourTable class holds the neighbours of every cell of a board in
+ * compressed sparse row form: the neighbours of cell i are
+ * {@code neighbours[offsets[i]]} to {@code neighbours[offsets[i + 1] - 1]}, in
+ * ascending order. Walking a cell's neighbours is then a loop over a
+ * contiguous int range with no bounds checks, whatever the topology.
+ *
+ * A table costs about 4 bytes per neighbour plus 4 per cell (about 36 bytes
+ * per cell on a SQUARE board), far more than the board itself, so tables are
+ * only built for boards of up to MAX_CELLS cells; larger boards compute their
+ * neighbours with BoardTopology.neighbours. Tables are immutable and shared by
+ * every board of the same size and topology, and at most MAX_CACHED tables are
+ * kept.
+ */
+public final class NeighbourTable {
+
+    /**
+     * The largest board for which a table is built.
+     */
+    public static final int MAX_CELLS = 1 << 18;
+
+    static final int MAX_CACHED = 64;
+
+    private static final Map<Key, NeighbourTable> CACHE = new ConcurrentHashMap<>();
+
+    final int[] offsets;
+    final int[] neighbours;
+
+    private NeighbourTable(BoardTopology topology, int numRows, int numCols) {
+        int cells = numRows * numCols;
+        int[] scratch = new int[topology.getMaxDegree()];
+        this.offsets = new int[cells + 1];
+        int[] all = new int[cells * topology.getMaxDegree()];
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            offsets[cell] = count;
+            int n = topology.neighbours(numRows, numCols, cell, scratch);
+            System.arraycopy(scratch, 0, all, count, n);
+            count += n;
+        }
+        offsets[cells] = count;
+        this.neighbours = count == all.length ? all : Arrays.copyOf(all, count);
+    }
+
+    /**
+     * Returns the shared table for a board, building it on first use.
+     *
+     * @param topology the board topology
+     * @param numRows  the number of rows
+     * @param numCols  the number of columns
+     * @return the table, or null if the board has more than MAX_CELLS cells
+     */
+    public static NeighbourTable of(BoardTopology topology, int numRows, int numCols) {
+        if ((long) numRows * numCols > MAX_CELLS) {
+            return null;
+        }
+        Key key = new Key(topology, numRows, numCols);
+        NeighbourTable table = CACHE.get(key);
+        if (table == null) {
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            table = CACHE.computeIfAbsent(key, k -> new NeighbourTable(topology, numRows, numCols));
+        }
+        return table;
+    }
+
+    /**
+     * Returns the index in getNeighbours() of the first neighbour of a cell.
+     *
+     * @param cell the cell id
+     * @return the start of the cell's range; the range ends at the next cell's start
+     */
+    public int getOffset(int cell) {
+        return offsets[cell];
+    }
+
+    public int[] getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * Copies the neighbours of a cell, in ascending order, into the given array.
+     *
+     * @param cell the cell id
+     * @param out  the array to fill, with room for the topology's maximum degree
+     * @return the number of neighbours
+     */
+    public int copyNeighbours(int cell, int[] out) {
+        int from = offsets[cell];
+        int n = offsets[cell + 1] - from;
+        System.arraycopy(neighbours, from, out, 0, n);
+        return n;
+    }
+
+    private static final class Key {
+        final BoardTopology topology;
+        final int numRows;
+        final int numCols;
+
+        Key(BoardTopology topology, int numRows, int numCols) {
+            this.topology = topology;
+            this.numRows = numRows;
+            this.numCols = numCols;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return topology == key.topology && numRows == key.numRows && numCols == key.numCols;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(topology, numRows, numCols);
+        }
+    }
+}
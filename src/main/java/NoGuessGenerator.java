@@ -0,0 +1,111 @@
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The NoGuessGenerator class finds boards that can be cleared by deduction
+ * alone from a given first click, for BoardMode.NO_GUESS.
+ *
+ * Candidate boards are SAFE_START boards placed from a sequence of generator
+ * seeds derived from the game's own generator. Each candidate is played by the
+ * Solver from the first click and rejected as soon as the Solver has to guess.
+ * Candidates are checked in parallel rounds on the common ForkJoinPool, and the
+ * lowest solvable candidate index is kept, so the chosen board depends only on
+ * the game's seed and the first click, not on the number of threads.
+ *
+ * Very dense boards may have no solvable candidate at all. After
+ * MAX_CANDIDATES the search gives up and the first candidate is used: a
+ * SAFE_START board the Solver may have to guess on, which the returned Choice
+ * reports. The search is bounded by the number of candidates alone, never by
+ * time, so the same seed, size, mines and first click give the same board on
+ * every machine and when a journal or snapshot is replayed.
+ */
+public final class NoGuessGenerator {
+
+    static final int MAX_CANDIDATES = 20000;
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private NoGuessGenerator() {
+    }
+
+    /**
+     * Finds the generator seed of a board that the Solver can clear without
+     * guessing, to be placed with placeMinesAvoiding(firstCell, seed).
+     *
+     * @param numRows    the number of rows
+     * @param numCols    the number of columns
+     * @param minesCount the number of mines
+     * @param topology   the board topology
+     * @param firstCell  the cell id of the first click
+     * @param random     the game's generator, from which the candidates derive
+     * @return the chosen seed, and whether its board is known to need no guess
+     */
+    public static Choice findSeed(int numRows, int numCols, int minesCount, BoardTopology topology, int firstCell,
+                                  BoardRandom random) {
+        long base = (long) random.nextInt(Integer.MAX_VALUE) << 31 | random.nextInt(Integer.MAX_VALUE);
+        int round = Math.max(ForkJoinPool.getCommonPoolParallelism(), 1) * 4;
+
+        for (int from = 0; from < MAX_CANDIDATES; from += round) {
+            OptionalInt found = IntStream.range(from, Math.min(from + round, MAX_CANDIDATES))
+                    .parallel()
+                    .filter(i -> isSolvable(numRows, numCols, minesCount, topology, firstCell, base + i * SEED_STEP))
+                    .min();
+            if (found.isPresent()) {
+                return new Choice(base + found.getAsInt() * SEED_STEP, true);
+            }
+        }
+        return new Choice(base, false);
+    }
+
+    /**
+     * Plays the candidate board placed from the given seed with the Solver,
+     * starting with the first click.
+     *
+     * @return true if the Solver wins without a single guess
+     */
+    static boolean isSolvable(int numRows, int numCols, int minesCount, BoardTopology topology, int firstCell,
+                              long seed) {
+        MineSweeperEngine engine = new MineSweeperEngine(numRows, numCols, minesCount,
+                BoardRandom.splittable(seed), BoardMode.SAFE_START, topology);
+        engine.startGame();
+        engine.reveal(firstCell / numCols, firstCell % numCols);
+
+        Solver solver = new Solver();
+        while (!engine.isGameOver()) {
+            int cell = solver.nextMove(engine);
+            if (cell < 0 || solver.getGuesses() > 0) {
+                return false;
+            }
+            engine.reveal(cell / numCols, cell % numCols);
+        }
+        return engine.isGameWon();
+    }
+
+    /**
+     * The seed a NO_GUESS board is placed from, and whether the Solver was
+     * found to clear that board without guessing.
+     */
+    public static final class Choice {
+        private final long seed;
+        private final boolean guessFree;
+
+        Choice(long seed, boolean guessFree) {
+            this.seed = seed;
+            this.guessFree = guessFree;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Returns false when no candidate could be cleared without guessing
+         * and the board is a plain SAFE_START board.
+         *
+         * @return true if the board needs no guess
+         */
+        public boolean isGuessFree() {
+            return guessFree;
+        }
+    }
+}
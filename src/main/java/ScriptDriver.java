@@ -0,0 +1,484 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The ScriptDriver class plays games from a script instead of the console or
+ * the game window, for soak tests and reproducible bug reports. The script is
+ * read from any stream (a file or a pipe), one command per line:
+ *
+ * - new WIDTH HEIGHT MINES [seed=N] [mode=M] [topology=T]: starts a headless
+ * game of WIDTH columns and HEIGHT rows, e.g. "new 30 16 99 seed=42". mode is
+ * a BoardMode name and topology a BoardTopology name; without a seed the board
+ * is random.
+ * - reveal C7: uncovers a square, named like on the console board.
+ * - flag D2: toggles a flag.
+ * - undo and redo: take back the last move or play it again.
+ * - blank lines and lines starting with '#' are ignored.
+ *
+ * Every command answers one line:
+ * - "game N ROWSxCOLS MINES seed=S" for new,
+ * - "C7 12 PLAYING" for reveal: the square, the number of tiles uncovered and
+ * the game status (PLAYING, WON or LOST),
+ * - "D2 F PLAYING" for flag, with F for a flagged and _ for a cleared square,
+ * - "undo 12 PLAYING" for undo and redo: the number of squares changed and the
+ * game status,
+ * - "ERR line N: message" for a line that cannot be played.
+ * A last line sums up the games, moves, wins, losses and errors.
+ *
+ * The driver is built to push millions of moves through the engine: input is
+ * read into one reusable byte buffer and parsed in place, without creating a
+ * String or any other object per line or token, and the answers are written to
+ * one reusable output buffer that is flushed in bulk. Only starting a game
+ * allocates (the engine itself).
+ */
+public class ScriptDriver {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] NEW = ascii("new");
+    private static final byte[] REVEAL = ascii("reveal");
+    private static final byte[] FLAG = ascii("flag");
+    private static final byte[] UNDO = ascii("undo");
+    private static final byte[] REDO = ascii("redo");
+    private static final byte[] SEED = ascii("seed=");
+    private static final byte[] MODE = ascii("mode=");
+    private static final byte[] TOPOLOGY = ascii("topology=");
+    private static final byte[][] MODE_NAMES = names(BoardMode.values());
+    private static final byte[][] TOPOLOGY_NAMES = names(BoardTopology.values());
+    private static final byte[][] STATUS = { ascii(" PLAYING\n"), ascii(" WON\n"), ascii(" LOST\n") };
+    private static final byte[] GAME_ANSWER = ascii("game ");
+    private static final byte[] SEED_ANSWER = ascii(" seed=");
+    private static final byte[] ERROR_ANSWER = ascii("ERR line ");
+
+    private final InputStream in;
+    private final OutputStream out;
+
+    private final byte[] input = new byte[BUFFER_SIZE];
+    private int inputStart = 0;
+    private int inputEnd = 0;
+    private final byte[] output = new byte[BUFFER_SIZE];
+    private int outputEnd = 0;
+
+    // Scratch results of the token parsers, so that they need not allocate
+    private int tokenEnd;
+    private long number;
+    private int cellRow;
+    private int cellCol;
+
+    private MineSweeperEngine engine;
+    private int lineNumber = 0;
+    private long games = 0;
+    private long moves = 0;
+    private long wins = 0;
+    private long losses = 0;
+    private long errors = 0;
+
+    /**
+     * Creates a driver; call run() to play the script.
+     *
+     * @param in  the script
+     * @param out the stream the answers are written to
+     */
+    public ScriptDriver(InputStream in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Plays every command of the script and writes the answers and the summary.
+     * The streams are flushed but not closed.
+     *
+     * @throws IOException if the script cannot be read or the answers written
+     */
+    public void run() throws IOException {
+        boolean skipping = false;
+        while (true) {
+            int newline = indexOf((byte) '\n', inputStart, inputEnd);
+            if (newline < 0) {
+                if (!fill()) {
+                    break;
+                }
+                if (inputEnd - inputStart == input.length && indexOf((byte) '\n', inputStart, inputEnd) < 0) {
+                    // The line does not fit the buffer; drop it and report it once
+                    if (!skipping) {
+                        lineNumber++;
+                        error("line too long");
+                        skipping = true;
+                    }
+                    inputStart = inputEnd;
+                }
+                continue;
+            }
+            if (skipping) {
+                skipping = false;
+            } else {
+                lineNumber++;
+                playLine(inputStart, newline);
+            }
+            inputStart = newline + 1;
+        }
+        if (inputStart < inputEnd && !skipping) {
+            lineNumber++;
+            playLine(inputStart, inputEnd);
+        }
+        writeSummary();
+        flushOutput();
+        out.flush();
+    }
+
+    /**
+     * Moves the unread input to the start of the buffer and reads more.
+     *
+     * @return false once the input has ended
+     */
+    private boolean fill() throws IOException {
+        if (inputStart > 0) {
+            System.arraycopy(input, inputStart, input, 0, inputEnd - inputStart);
+            inputEnd -= inputStart;
+            inputStart = 0;
+        }
+        if (inputEnd == input.length) {
+            return true;
+        }
+        int read = in.read(input, inputEnd, input.length - inputEnd);
+        if (read < 0) {
+            return false;
+        }
+        inputEnd += read;
+        return true;
+    }
+
+    private void playLine(int from, int to) throws IOException {
+        if (to > from && input[to - 1] == '\r') {
+            to--;
+        }
+        int start = skipSpaces(from, to);
+        if (start == to || input[start] == '#') {
+            return;
+        }
+        int end = tokenEnd(start, to);
+        if (matches(NEW, start, end)) {
+            newGame(end, to);
+        } else if (matches(REVEAL, start, end)) {
+            move(true, end, to);
+        } else if (matches(FLAG, start, end)) {
+            move(false, end, to);
+        } else if (matches(UNDO, start, end) || matches(REDO, start, end)) {
+            step(matches(UNDO, start, end), start, end, to);
+        } else {
+            error("unknown command");
+        }
+    }
+
+    private void newGame(int from, int to) throws IOException {
+        int[] size = new int[3];
+        int position = from;
+        for (int i = 0; i < 3; i++) {
+            position = skipSpaces(position, to);
+            if (!parseNumber(position, to) || number > Integer.MAX_VALUE) {
+                error("usage: new WIDTH HEIGHT MINES [seed=N] [mode=M] [topology=T]");
+                return;
+            }
+            size[i] = (int) number;
+            position = tokenEnd;
+        }
+        long seed = System.nanoTime();
+        BoardMode mode = BoardMode.CLASSIC;
+        BoardTopology topology = BoardTopology.SQUARE;
+        for (position = skipSpaces(position, to); position < to; position = skipSpaces(position, to)) {
+            int end = tokenEnd(position, to);
+            if (startsWith(SEED, position, end) && parseSigned(position + SEED.length, end)) {
+                seed = number;
+            } else if (startsWith(MODE, position, end) && nameAt(MODE_NAMES, position + MODE.length, end) >= 0) {
+                mode = BoardMode.values()[nameAt(MODE_NAMES, position + MODE.length, end)];
+            } else if (startsWith(TOPOLOGY, position, end)
+                    && nameAt(TOPOLOGY_NAMES, position + TOPOLOGY.length, end) >= 0) {
+                topology = BoardTopology.values()[nameAt(TOPOLOGY_NAMES, position + TOPOLOGY.length, end)];
+            } else {
+                error("unknown option");
+                return;
+            }
+            position = end;
+        }
+
+        int numCols = size[0];
+        int numRows = size[1];
+        try {
+            engine = new MineSweeperEngine(numRows, numCols, size[2], BoardRandom.splittable(seed), mode, topology);
+        } catch (IllegalArgumentException e) {
+            engine = null;
+            error(e.getMessage());
+            return;
+        }
+        engine.startGame();
+        games++;
+        write(GAME_ANSWER);
+        writeNumber(games);
+        writeByte((byte) ' ');
+        writeNumber(numRows);
+        writeByte((byte) 'x');
+        writeNumber(numCols);
+        writeByte((byte) ' ');
+        writeNumber(size[2]);
+        write(SEED_ANSWER);
+        writeNumber(seed);
+        writeByte((byte) '\n');
+    }
+
+    private void move(boolean reveal, int from, int to) throws IOException {
+        if (engine == null) {
+            error("no game, start one with new");
+            return;
+        }
+        int start = skipSpaces(from, to);
+        int end = tokenEnd(start, to);
+        if (skipSpaces(end, to) != to || !parseCell(start, end)) {
+            error("not a square on the board");
+            return;
+        }
+        boolean wasOver = engine.isGameOver();
+        moves++;
+        writeBytes(start, end);
+        writeByte((byte) ' ');
+        if (reveal) {
+            writeNumber(engine.reveal(cellRow, cellCol));
+        } else {
+            engine.toggleFlag(cellRow, cellCol);
+            writeByte(engine.isFlagged(cellRow, cellCol) ? (byte) 'F' : (byte) '_');
+        }
+        if (engine.isGameOver() && !wasOver) {
+            if (engine.isGameWon()) {
+                wins++;
+            } else {
+                losses++;
+            }
+        }
+        write(STATUS[!engine.isGameOver() ? 0 : engine.isGameWon() ? 1 : 2]);
+    }
+
+    /**
+     * Plays undo or redo on the current game; the answer names the command
+     * followed by the number of squares it changed.
+     */
+    private void step(boolean undo, int start, int end, int to) throws IOException {
+        if (engine == null) {
+            error("no game, start one with new");
+            return;
+        }
+        if (skipSpaces(end, to) != to) {
+            error("usage: undo or redo");
+            return;
+        }
+        if (!(undo ? engine.undo() : engine.redo())) {
+            error(undo ? "nothing to undo" : "nothing to redo");
+            return;
+        }
+        moves++;
+        writeBytes(start, end);
+        writeByte((byte) ' ');
+        writeNumber(engine.getRevealedCount());
+        write(STATUS[!engine.isGameOver() ? 0 : engine.isGameWon() ? 1 : 2]);
+    }
+
+    /**
+     * Parses a square such as C7 in place, see BoardLabels.parseCell, into
+     * cellRow and cellCol.
+     */
+    private boolean parseCell(int from, int to) {
+        int split = from;
+        int row = 0;
+        while (split < to && split - from < 6) {
+            int letter = (input[split] | 0x20) - 'a';
+            if (letter < 0 || letter > 25) {
+                break;
+            }
+            row = row * 26 + letter + 1;
+            split++;
+        }
+        if (split == from || !parseNumber(split, to) || tokenEnd != to) {
+            return false;
+        }
+        if (row < 1 || row > engine.getNumRows() || number < 1 || number > engine.getNumCols()) {
+            return false;
+        }
+        cellRow = row - 1;
+        cellCol = (int) number - 1;
+        return true;
+    }
+
+    /**
+     * Parses an unsigned number of at most 18 digits into number, and sets
+     * tokenEnd to the index after its last digit.
+     */
+    private boolean parseNumber(int from, int to) {
+        long value = 0;
+        int i = from;
+        while (i < to && i - from < 18 && input[i] >= '0' && input[i] <= '9') {
+            value = value * 10 + (input[i] - '0');
+            i++;
+        }
+        number = value;
+        tokenEnd = i;
+        return i > from && (i == to || input[i] == ' ' || input[i] == '\t');
+    }
+
+    private boolean parseSigned(int from, int to) {
+        boolean negative = from < to && input[from] == '-';
+        if (!parseNumber(negative ? from + 1 : from, to) || tokenEnd != to) {
+            return false;
+        }
+        number = negative ? -number : number;
+        return true;
+    }
+
+    /**
+     * Returns the index of the name the input holds between from and to, or -1.
+     */
+    private int nameAt(byte[][] names, int from, int to) {
+        for (int i = 0; i < names.length; i++) {
+            if (matches(names[i], from, to)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matches(byte[] word, int from, int to) {
+        return to - from == word.length && startsWith(word, from, to);
+    }
+
+    private boolean startsWith(byte[] word, int from, int to) {
+        if (to - from < word.length) {
+            return false;
+        }
+        for (int i = 0; i < word.length; i++) {
+            byte ch = input[from + i];
+            if ((ch >= 'A' && ch <= 'Z' ? ch | 0x20 : ch) != word[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipSpaces(int from, int to) {
+        while (from < to && (input[from] == ' ' || input[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private int tokenEnd(int from, int to) {
+        while (from < to && input[from] != ' ' && input[from] != '\t') {
+            from++;
+        }
+        return from;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (input[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void error(String message) throws IOException {
+        errors++;
+        write(ERROR_ANSWER);
+        writeNumber(lineNumber);
+        write(ascii(": "));
+        write(ascii(message));
+        writeByte((byte) '\n');
+    }
+
+    private void writeSummary() throws IOException {
+        write(ascii("games="));
+        writeNumber(games);
+        write(ascii(" moves="));
+        writeNumber(moves);
+        write(ascii(" wins="));
+        writeNumber(wins);
+        write(ascii(" losses="));
+        writeNumber(losses);
+        write(ascii(" errors="));
+        writeNumber(errors);
+        writeByte((byte) '\n');
+    }
+
+    private void writeNumber(long value) throws IOException {
+        ensureOutput(20);
+        if (value < 0) {
+            output[outputEnd++] = '-';
+            if (value == Long.MIN_VALUE) {
+                write(ascii("9223372036854775808"));
+                return;
+            }
+            value = -value;
+        }
+        int start = outputEnd;
+        do {
+            output[outputEnd++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = outputEnd - 1; i < j; i++, j--) {
+            byte digit = output[i];
+            output[i] = output[j];
+            output[j] = digit;
+        }
+    }
+
+    private void writeBytes(int from, int to) throws IOException {
+        ensureOutput(to - from);
+        System.arraycopy(input, from, output, outputEnd, to - from);
+        outputEnd += to - from;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        ensureOutput(bytes.length);
+        System.arraycopy(bytes, 0, output, outputEnd, bytes.length);
+        outputEnd += bytes.length;
+    }
+
+    private void writeByte(byte value) throws IOException {
+        ensureOutput(1);
+        output[outputEnd++] = value;
+    }
+
+    private void ensureOutput(int length) throws IOException {
+        if (output.length - outputEnd < length) {
+            flushOutput();
+        }
+    }
+
+    private void flushOutput() throws IOException {
+        out.write(output, 0, outputEnd);
+        outputEnd = 0;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = ascii(values[i].name().toLowerCase());
+        }
+        return names;
+    }
+}
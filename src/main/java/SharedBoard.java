@@ -0,0 +1,346 @@
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SharedBoard class is one board played by several players at the same
+ * time, each on their own thread. MineSweeperEngine is single-threaded; a
+ * SharedBoard copies the mines and counts of a started engine and keeps the
+ * tile states in a lock-free form instead:
+ *
+ * - Tile states take 2 bits and are packed 16 to an int of an
+ * AtomicIntegerArray. A tile is claimed by a compare-and-set from HIDDEN to
+ * REVEALED, so when flood fills of several players overlap, each tile is
+ * uncovered by exactly one of them, which alone counts it and spreads from it.
+ * - Each flood fill runs on a work queue of its own thread, and adds the
+ * number of tiles it uncovered to the shared counter once, so the counter is
+ * touched once per move rather than once per tile. The move that brings it to
+ * the number of safe tiles wins the game.
+ * - The game status is an AtomicInteger that leaves PLAYING by one
+ * compare-and-set, so exactly one move ends the game and completes its
+ * future, however many players finish at once.
+ *
+ * No lock is taken, and players only contend on the words of the tiles they
+ * uncover at the same time, so throughput grows with the number of players on
+ * large boards.
+ *
+ * In a cooperative game a mine ends the game for everybody. In a competitive
+ * game it only eliminates the player who hit it; the game is won once every
+ * safe tile is uncovered, by the player who uncovered the most, and lost if
+ * every player is eliminated first.
+ */
+public class SharedBoard {
+
+    static final int HIDDEN = 0;
+    static final int REVEALED = 1;
+    static final int FLAGGED = 2;
+    static final int DETONATED = 3;
+
+    private static final int PLAYING = 0;
+    private static final int WON = 1;
+    private static final int LOST = 2;
+
+    // Per-thread flood fill queue and neighbour buffer, reused across moves
+    private static final ThreadLocal<int[][]> SCRATCH =
+            ThreadLocal.withInitial(() -> new int[][] { new int[16], new int[8] });
+    // A queue grown beyond this by a large fill is not kept for the next move
+    private static final int KEPT_QUEUE = 4096;
+
+    private final int numRows;
+    private final int numCols;
+    private final int safeCells;
+    private final boolean competitive;
+    private final BoardTopology topology;
+    private final NeighbourTable table;
+    private final long[] mines;
+    private final byte[] adjacent;
+
+    private final AtomicIntegerArray states;
+    private final AtomicInteger revealedCount = new AtomicInteger();
+    private final AtomicInteger status = new AtomicInteger(PLAYING);
+    private final AtomicLongArray scores;
+    private final AtomicIntegerArray eliminated;
+    private final AtomicInteger playersLeft;
+    private final LongAdder moves = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private final CompletableFuture<GameResult> completion = new CompletableFuture<>();
+
+    /**
+     * Creates a shared board from the mines of a started board. Tiles already
+     * uncovered or flagged on it, e.g. the opening of a pooled NO_GUESS board,
+     * are uncovered or flagged on the shared board too.
+     *
+     * @param board       a board whose mines are placed
+     * @param players     the number of players, numbered from 0
+     * @param competitive true if a mine only eliminates the player who hit it
+     * @throws IllegalArgumentException if the mines are not placed yet or there is no player
+     */
+    public SharedBoard(MineSweeperEngine board, int players, boolean competitive) {
+        if (!board.isMinesPlaced()) {
+            throw new IllegalArgumentException("The mines of a shared board must be placed before it is shared");
+        }
+        if (players < 1) {
+            throw new IllegalArgumentException("A shared board needs at least one player");
+        }
+        this.numRows = board.getNumRows();
+        this.numCols = board.getNumCols();
+        this.competitive = competitive;
+        this.topology = board.getTopology();
+        this.table = NeighbourTable.of(topology, numRows, numCols);
+
+        int cells = numRows * numCols;
+        this.safeCells = cells - board.getTotalMines();
+        this.mines = new long[(int) ((cells + 63L) >>> 6)];
+        this.adjacent = new byte[cells];
+        this.states = new AtomicIntegerArray((int) ((cells + 15L) >>> 4));
+        int uncovered = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / numCols;
+            int col = cell - row * numCols;
+            if (board.isMine(row, col)) {
+                mines[cell >>> 6] |= 1L << cell;
+            }
+            adjacent[cell] = (byte) board.getMinesCount(row, col);
+            if (board.isRevealed(row, col)) {
+                set(cell, REVEALED);
+                uncovered++;
+            } else if (board.isFlagged(row, col)) {
+                set(cell, FLAGGED);
+            }
+        }
+        revealedCount.set(uncovered);
+
+        this.scores = new AtomicLongArray(players);
+        this.eliminated = new AtomicIntegerArray(players);
+        this.playersLeft = new AtomicInteger(players);
+    }
+
+    /**
+     * Uncovers a tile for a player, and for a zero tile its whole empty region.
+     * Safe to call from any number of threads at once.
+     *
+     * @param player the player, from 0
+     * @param r      the row index of the tile
+     * @param c      the column index of the tile
+     * @return the number of tiles this move uncovered; 0 if the tile was not
+     *         covered any more, the game is over, the player was eliminated or
+     *         the tile held a mine
+     */
+    public int reveal(int player, int r, int c) {
+        if (isGameOver() || eliminated.get(player) != 0 || isOutOfBounds(r, c)) {
+            return 0;
+        }
+        int cell = r * numCols + c;
+        if ((mines[cell >>> 6] >>> cell & 1) != 0) {
+            if (claim(cell, HIDDEN, DETONATED)) {
+                moves.increment();
+                if (!competitive) {
+                    finish(LOST);
+                } else if (eliminated.compareAndSet(player, 0, 1) && playersLeft.decrementAndGet() == 0) {
+                    finish(LOST);
+                }
+            }
+            return 0;
+        }
+        if (!claim(cell, HIDDEN, REVEALED)) {
+            return 0;
+        }
+        moves.increment();
+        int uncovered = fill(cell);
+        scores.addAndGet(player, uncovered);
+        if (revealedCount.addAndGet(uncovered) == safeCells) {
+            finish(WON);
+        }
+        return uncovered;
+    }
+
+    /**
+     * Spreads from a tile this thread has just claimed, claiming every covered
+     * neighbour of a zero tile in turn. Only tiles this thread claimed are
+     * queued, so overlapping fills never uncover or count a tile twice.
+     *
+     * @return the number of tiles claimed, including the first
+     */
+    private int fill(int start) {
+        int[][] scratch = SCRATCH.get();
+        int[] queue = scratch[0];
+        int[] around = scratch[1];
+        queue[0] = start;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            if (adjacent[cell] != 0) {
+                continue;
+            }
+            int[] list = table != null ? table.neighbours : around;
+            int from = table != null ? table.offsets[cell] : 0;
+            int to = table != null ? table.offsets[cell + 1] : topology.neighbours(numRows, numCols, cell, around);
+            for (int i = from; i < to; i++) {
+                int neighbour = list[i];
+                if (stateOf(neighbour) == HIDDEN && claim(neighbour, HIDDEN, REVEALED)) {
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, queue.length * 2);
+                        if (queue.length <= KEPT_QUEUE) {
+                            scratch[0] = queue;
+                        }
+                    }
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Places or removes a flag on a covered tile.
+     *
+     * @param player the player, from 0
+     * @param r      the row index of the tile
+     * @param c      the column index of the tile
+     * @return true if the flag was toggled
+     */
+    public boolean toggleFlag(int player, int r, int c) {
+        if (isGameOver() || eliminated.get(player) != 0 || isOutOfBounds(r, c)) {
+            return false;
+        }
+        int cell = r * numCols + c;
+        if (claim(cell, HIDDEN, FLAGGED) || claim(cell, FLAGGED, HIDDEN)) {
+            moves.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void finish(int result) {
+        if (status.compareAndSet(PLAYING, result)) {
+            completion.complete(new GameResult(result == WON, moves.intValue(), System.nanoTime() - startNanos));
+        }
+    }
+
+    private int stateOf(int cell) {
+        return states.get(cell >>> 4) >>> ((cell & 15) << 1) & 3;
+    }
+
+    /**
+     * Moves a tile from one state to another if it is still in the first.
+     *
+     * @return true if this call changed the tile
+     */
+    private boolean claim(int cell, int from, int to) {
+        int index = cell >>> 4;
+        int shift = (cell & 15) << 1;
+        while (true) {
+            int word = states.get(index);
+            if ((word >>> shift & 3) != from) {
+                return false;
+            }
+            if (states.compareAndSet(index, word, word & ~(3 << shift) | to << shift)) {
+                return true;
+            }
+        }
+    }
+
+    private void set(int cell, int state) {
+        int index = cell >>> 4;
+        int shift = (cell & 15) << 1;
+        states.set(index, states.get(index) & ~(3 << shift) | state << shift);
+    }
+
+    private boolean isOutOfBounds(int r, int c) {
+        return r < 0 || r >= numRows || c < 0 || c >= numCols;
+    }
+
+    public boolean isGameOver() {
+        return status.get() != PLAYING;
+    }
+
+    public boolean isGameWon() {
+        return status.get() == WON;
+    }
+
+    /**
+     * Returns a future completed by the move that wins or loses the game, on
+     * the thread that played it.
+     *
+     * @return the future result of the game
+     */
+    public CompletableFuture<GameResult> getCompletion() {
+        return completion;
+    }
+
+    public boolean isRevealed(int r, int c) {
+        return stateOf(r * numCols + c) == REVEALED;
+    }
+
+    public boolean isFlagged(int r, int c) {
+        return stateOf(r * numCols + c) == FLAGGED;
+    }
+
+    /**
+     * Returns true if a player hit the mine on this tile.
+     *
+     * @param r the row index of the tile
+     * @param c the column index of the tile
+     * @return true if the tile is a detonated mine
+     */
+    public boolean isDetonated(int r, int c) {
+        return stateOf(r * numCols + c) == DETONATED;
+    }
+
+    /**
+     * Returns the number of mines next to a tile. Players should only read the
+     * count of tiles that have been uncovered.
+     *
+     * @param r the row index of the tile
+     * @param c the column index of the tile
+     * @return the number of adjacent mines
+     */
+    public int getMinesCount(int r, int c) {
+        return adjacent[r * numCols + c];
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumCols() {
+        return numCols;
+    }
+
+    public int getTilesClicked() {
+        return revealedCount.get();
+    }
+
+    /**
+     * Returns the number of tiles a player has uncovered.
+     *
+     * @param player the player, from 0
+     * @return the player's score
+     */
+    public long getScore(int player) {
+        return scores.get(player);
+    }
+
+    public boolean isEliminated(int player) {
+        return eliminated.get(player) != 0;
+    }
+
+    /**
+     * Returns the player who uncovered the most tiles, the lowest numbered one
+     * on a tie.
+     *
+     * @return the leading player
+     */
+    public int getLeader() {
+        int leader = 0;
+        for (int player = 1; player < scores.length(); player++) {
+            if (scores.get(player) > scores.get(leader)) {
+                leader = player;
+            }
+        }
+        return leader;
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * The SimulationStats class aggregates the outcome of many games played by the
+ * BatchSimulator. Each worker fills its own instance and the instances are
+ * merged at the end, so recording a game never contends with other threads.
+ */
+public class SimulationStats {
+
+    private long games;
+    private long wins;
+    private long losses;
+    private long moves;
+    private long reveals;
+    private long revealedCells;
+    private int largestFloodFill;
+    private long elapsedNanos;
+
+    /**
+     * Records a finished or abandoned game.
+     *
+     * @param engine the game after its last move
+     */
+    public void recordGame(MineSweeperEngine engine) {
+        games++;
+        if (engine.isGameOver()) {
+            if (engine.isGameWon()) {
+                wins++;
+            } else {
+                losses++;
+            }
+        }
+        moves += engine.getMoves();
+    }
+
+    /**
+     * Records the number of tiles uncovered by a single move.
+     *
+     * @param uncovered the size of the move's flood fill
+     */
+    public void recordReveal(int uncovered) {
+        if (uncovered > 0) {
+            reveals++;
+            revealedCells += uncovered;
+            largestFloodFill = Math.max(largestFloodFill, uncovered);
+        }
+    }
+
+    /**
+     * Adds the counters of another instance to this one.
+     *
+     * @param other the statistics to add
+     * @return this instance
+     */
+    public SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        wins += other.wins;
+        losses += other.losses;
+        moves += other.moves;
+        reveals += other.reveals;
+        revealedCells += other.revealedCells;
+        largestFloodFill = Math.max(largestFloodFill, other.largestFloodFill);
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * Returns the number of games that stopped before being won or lost,
+     * because the move policy ran out of moves.
+     *
+     * @return the number of abandoned games
+     */
+    public long getAbandoned() {
+        return games - wins - losses;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double getAverageMoves() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    public double getAverageFloodFill() {
+        return reveals == 0 ? 0 : (double) revealedCells / reveals;
+    }
+
+    public int getLargestFloodFill() {
+        return largestFloodFill;
+    }
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("games=%d wins=%d losses=%d abandoned=%d winRate=%.4f avgMoves=%.2f "
+                        + "avgFloodFill=%.2f maxFloodFill=%d gamesPerSecond=%.1f",
+                games, wins, losses, getAbandoned(), getWinRate(), getAverageMoves(),
+                getAverageFloodFill(), largestFloodFill, getGamesPerSecond());
+    }
+}
@@ -0,0 +1,426 @@
+import java.util.Arrays;
+
+/**
+ * The Solver class plays a Minesweeper game to completion through the
+ * GameService API, using only what a player can see: which tiles are
+ * uncovered and their adjacent mine counts.
+ *
+ * Moves are chosen in this order:
+ * - a tile already deduced to be safe;
+ * - single-cell deductions: a number whose remaining mines equal zero makes
+ * all its covered neighbours safe, and one whose remaining mines equal its
+ * covered neighbours makes them all mines;
+ * - pair deductions between two numbers at most two tiles apart: when one
+ * number's covered neighbours are a subset of the other's, or when the
+ * difference of their remaining mines equals the number of covered tiles only
+ * the larger one sees;
+ * - a best guess, the covered tile with the lowest estimated mine probability.
+ *
+ * The frontier is processed incrementally: only numbers whose covered
+ * neighbourhood changed since they were last examined (because a neighbour
+ * was uncovered or deduced) are queued for deduction, so a move costs time
+ * proportional to the tiles it changed rather than to the size of the board.
+ * Only a guess scans the board.
+ *
+ * A Solver plays a single game. It is also a MovePolicy, so the
+ * BatchSimulator can use it as a reference player.
+ */
+public class Solver implements MovePolicy {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+
+    private GameService game;
+    private BoardTopology topology;
+    private NeighbourTable table;
+    private int numRows;
+    private int numCols;
+
+    private byte[] known;
+    private int minesFound;
+
+    private int[] safeQueue;
+    private int safeHead;
+    private int safeTail;
+
+    private int[] dirty;
+    private int dirtyCount;
+    private boolean[] inDirty;
+
+    private int[] pairDirty;
+    private int pairDirtyCount;
+    private boolean[] inPairDirty;
+
+    private boolean moved = false;
+    private int guesses = 0;
+
+    private final int[] neighbours = new int[8];
+    private final int[] around = new int[8];
+    private final int[] unknownA = new int[8];
+    private final int[] unknownB = new int[8];
+    private final int[] pairCandidates = new int[64];
+
+    /**
+     * Plays the game until it is won or lost.
+     *
+     * @param game a started game
+     * @return true if the game was won
+     */
+    public boolean solve(GameService game) {
+        while (!game.isGameOver()) {
+            int cell = nextMove(game);
+            if (cell < 0) {
+                break;
+            }
+            game.reveal(cell / numCols, cell % numCols);
+        }
+        return game.isGameWon();
+    }
+
+    /**
+     * Returns the number of moves that had to be guessed so far.
+     *
+     * @return the number of guesses
+     */
+    public int getGuesses() {
+        return guesses;
+    }
+
+    @Override
+    public int nextMove(GameService game) {
+        if (this.game == null) {
+            init(game);
+        }
+        if (moved) {
+            ingest(game.getRevealedCells(), game.getRevealedCount());
+            moved = false;
+        }
+
+        while (true) {
+            while (safeHead < safeTail) {
+                int cell = safeQueue[safeHead++];
+                if (!isRevealed(cell)) {
+                    moved = true;
+                    return cell;
+                }
+            }
+            if (dirtyCount > 0) {
+                int cell = dirty[--dirtyCount];
+                inDirty[cell] = false;
+                deduceSingle(cell);
+            } else if (pairDirtyCount > 0) {
+                int cell = pairDirty[--pairDirtyCount];
+                inPairDirty[cell] = false;
+                deducePair(cell);
+            } else if (!settleWhenNoMinesLeft()) {
+                int cell = guess();
+                if (cell >= 0) {
+                    guesses++;
+                    moved = true;
+                }
+                return cell;
+            }
+        }
+    }
+
+    private void init(GameService game) {
+        this.game = game;
+        this.numRows = game.getNumRows();
+        this.numCols = game.getNumCols();
+        this.topology = game.getTopology();
+        this.table = NeighbourTable.of(topology, numRows, numCols);
+        int cells = numRows * numCols;
+        this.known = new byte[cells];
+        this.safeQueue = new int[cells];
+        this.dirty = new int[cells];
+        this.inDirty = new boolean[cells];
+        this.pairDirty = new int[cells];
+        this.inPairDirty = new boolean[cells];
+
+        for (int cell = 0; cell < cells; cell++) {
+            if (isRevealed(cell)) {
+                known[cell] = SAFE;
+                markDirty(cell);
+            }
+        }
+    }
+
+    /**
+     * Takes in the tiles uncovered by the last move. Each of them, and every
+     * uncovered number next to them, has a smaller covered neighbourhood now
+     * and is queued for deduction.
+     */
+    private void ingest(int[] cells, int count) {
+        for (int i = 0; i < count; i++) {
+            int cell = cells[i];
+            known[cell] = SAFE;
+            markDirty(cell);
+            int n = neighbours(cell);
+            for (int j = 0; j < n; j++) {
+                if (isRevealed(neighbours[j])) {
+                    markDirty(neighbours[j]);
+                }
+            }
+        }
+    }
+
+    private void markDirty(int cell) {
+        if (!inDirty[cell] && game.getMinesCount(cell / numCols, cell % numCols) > 0) {
+            inDirty[cell] = true;
+            dirty[dirtyCount++] = cell;
+        }
+    }
+
+    private void markPairDirty(int cell) {
+        if (!inPairDirty[cell]) {
+            inPairDirty[cell] = true;
+            pairDirty[pairDirtyCount++] = cell;
+        }
+    }
+
+    /**
+     * Records a deduction and queues the uncovered numbers around the tile,
+     * whose covered neighbourhood has just shrunk.
+     */
+    private void settle(int cell, byte value) {
+        if (known[cell] != UNKNOWN) {
+            return;
+        }
+        known[cell] = value;
+        if (value == SAFE) {
+            safeQueue[safeTail++] = cell;
+        } else {
+            minesFound++;
+        }
+        int n = neighbours(cell);
+        for (int j = 0; j < n; j++) {
+            if (isRevealed(neighbours[j])) {
+                markDirty(neighbours[j]);
+            }
+        }
+    }
+
+    /**
+     * Applies the single-cell rules to an uncovered number, and queues it for
+     * pair deductions when they do not settle its neighbourhood.
+     */
+    private void deduceSingle(int cell) {
+        int unknown = unknownNeighbours(cell, unknownA);
+        if (unknown == 0) {
+            return;
+        }
+        int remaining = remainingMines(cell);
+        if (remaining == 0) {
+            for (int i = 0; i < unknown; i++) {
+                settle(unknownA[i], SAFE);
+            }
+        } else if (remaining == unknown) {
+            for (int i = 0; i < unknown; i++) {
+                settle(unknownA[i], MINE);
+            }
+        } else {
+            markPairDirty(cell);
+        }
+    }
+
+    /**
+     * Compares an uncovered number with every uncovered number that shares an
+     * unsettled neighbour with it, in ascending cell order, and applies the
+     * first pair rule that settles a tile. Numbers that share no unsettled
+     * tile never settle one together, so no other pair needs to be examined.
+     */
+    private void deducePair(int a) {
+        int unknownCountA = unknownNeighbours(a, unknownA);
+        if (unknownCountA == 0) {
+            return;
+        }
+        int remainingA = remainingMines(a);
+
+        int candidates = 0;
+        for (int i = 0; i < unknownCountA; i++) {
+            int n = neighbours(unknownA[i], around);
+            for (int j = 0; j < n; j++) {
+                int b = around[j];
+                if (b != a && isRevealed(b) && !contains(pairCandidates, candidates, b)) {
+                    pairCandidates[candidates++] = b;
+                }
+            }
+        }
+        Arrays.sort(pairCandidates, 0, candidates);
+
+        for (int i = 0; i < candidates; i++) {
+            int b = pairCandidates[i];
+            int unknownCountB = unknownNeighbours(b, unknownB);
+            if (unknownCountB == 0) {
+                continue;
+            }
+            int remainingB = remainingMines(b);
+            if (applyPair(unknownA, unknownCountA, remainingA, unknownB, unknownCountB, remainingB)
+                    || applyPair(unknownB, unknownCountB, remainingB, unknownA, unknownCountA, remainingA)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies the pair rules for the constraint "x mines among X" against "y
+     * mines among Y". The tiles in Y but not in X hold at least y - x mines;
+     * when y - x equals their number they are all mines and the tiles in X but
+     * not in Y are all safe. When X is a subset of Y and y equals x, the tiles in
+     * Y but not in X are all safe.
+     *
+     * @return true if a tile was settled
+     */
+    private boolean applyPair(int[] x, int xCount, int xMines, int[] y, int yCount, int yMines) {
+        int onlyY = 0;
+        for (int i = 0; i < yCount; i++) {
+            if (!contains(x, xCount, y[i])) {
+                onlyY++;
+            }
+        }
+        int onlyX = xCount - (yCount - onlyY);
+        if (onlyY == 0) {
+            return false;
+        }
+
+        if (yMines - xMines == onlyY) {
+            for (int i = 0; i < yCount; i++) {
+                if (!contains(x, xCount, y[i])) {
+                    settle(y[i], MINE);
+                }
+            }
+            for (int i = 0; i < xCount; i++) {
+                if (!contains(y, yCount, x[i])) {
+                    settle(x[i], SAFE);
+                }
+            }
+            return true;
+        }
+        if (onlyX == 0 && yMines == xMines) {
+            for (int i = 0; i < yCount; i++) {
+                if (!contains(x, xCount, y[i])) {
+                    settle(y[i], SAFE);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Picks the covered tile with the lowest estimated mine probability. A tile
+     * next to uncovered numbers is estimated by its most pessimistic number
+     * (remaining mines / covered neighbours); any other tile by the density of
+     * the mines not yet found among the covered tiles.
+     *
+     * @return the cell id to uncover, or -1 if no tile is covered
+     */
+    private int guess() {
+        int cells = numRows * numCols;
+        int unknownCells = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (known[cell] == UNKNOWN) {
+                unknownCells++;
+            }
+        }
+        if (unknownCells == 0) {
+            return -1;
+        }
+        int minesLeft = game.getTotalMines() - minesFound;
+        double density = (double) minesLeft / unknownCells;
+        int best = -1;
+        double bestRisk = 2;
+        for (int cell = 0; cell < cells; cell++) {
+            if (known[cell] != UNKNOWN) {
+                continue;
+            }
+            double risk = -1;
+            int n = neighbours(cell, around);
+            for (int j = 0; j < n; j++) {
+                int number = around[j];
+                if (isRevealed(number)) {
+                    int unknown = unknownNeighbours(number, unknownB);
+                    risk = Math.max(risk, (double) remainingMines(number) / unknown);
+                }
+            }
+            if (risk < 0) {
+                risk = density;
+            }
+            if (risk < bestRisk) {
+                bestRisk = risk;
+                best = cell;
+            }
+        }
+        known[best] = SAFE;
+        return best;
+    }
+
+    /**
+     * Marks every covered tile as safe once all mines have been found.
+     *
+     * @return true if a tile was settled
+     */
+    private boolean settleWhenNoMinesLeft() {
+        if (minesFound < game.getTotalMines()) {
+            return false;
+        }
+        boolean settled = false;
+        for (int cell = 0; cell < numRows * numCols; cell++) {
+            if (known[cell] == UNKNOWN) {
+                settle(cell, SAFE);
+                settled = true;
+            }
+        }
+        return settled;
+    }
+
+    private int remainingMines(int cell) {
+        int mines = game.getMinesCount(cell / numCols, cell % numCols);
+        int n = neighbours(cell);
+        for (int j = 0; j < n; j++) {
+            if (known[neighbours[j]] == MINE) {
+                mines--;
+            }
+        }
+        return mines;
+    }
+
+    private int unknownNeighbours(int cell, int[] out) {
+        int count = 0;
+        int n = neighbours(cell);
+        for (int j = 0; j < n; j++) {
+            if (known[neighbours[j]] == UNKNOWN) {
+                out[count++] = neighbours[j];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills the shared neighbours array with the ids of the cells around a
+     * cell.
+     *
+     * @return the number of neighbours
+     */
+    private int neighbours(int cell) {
+        return neighbours(cell, neighbours);
+    }
+
+    private int neighbours(int cell, int[] out) {
+        return table != null ? table.copyNeighbours(cell, out) : topology.neighbours(numRows, numCols, cell, out);
+    }
+
+    private boolean isRevealed(int cell) {
+        return game.isRevealed(cell / numCols, cell % numCols);
+    }
+
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,120 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * The SwingBoardView class is the graphical front end of the Minesweeper game.
+ * It owns the game frame and the message label, and shows the board through a
+ * BoardCanvas inside a scroll pane. The canvas paints the board from the state
+ * held by a MineSweeperEngine and forwards mouse clicks to the
+ * MineSweeperService that created the view.
+ */
+public class SwingBoardView implements BoardView {
+
+    private final MineSweeperEngine engine;
+    private final MineSweeperService service;
+
+    private final JFrame frame = new JFrame("Minesweeper");
+    private final JLabel label = new JLabel();
+    private BoardCanvas canvas;
+
+    public SwingBoardView(MineSweeperEngine engine, MineSweeperService service) {
+        this.engine = engine;
+        this.service = service;
+    }
+
+    /**
+     * Builds the frame and the board canvas and makes the frame visible.
+     */
+    @Override
+    public void show() {
+        this.prepareInitialPanel();
+        this.prepareBoardPanel();
+    }
+
+    /**
+     * Prepares the initial panel for the Minesweeper game.
+     *
+     * This method configures the frame's properties such as location, default
+     * close operation and layout. It also sets up a label with a specific font
+     * and text to display the Minesweeper title and mines count. The label is
+     * added to a panel, which is then added to the frame.
+     */
+    private void prepareInitialPanel() {
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setLayout(new BorderLayout());
+        frame.setLocation(0, 0);
+
+        label.setFont(new Font("Arial", Font.BOLD, 25));
+        label.setHorizontalAlignment(JLabel.CENTER);
+        label.setText("Minesweeper: " + engine.getTotalMines());
+        label.setOpaque(true);
+
+        JPanel panel = new JPanel();
+        panel.setLayout(new BorderLayout());
+        panel.add(label);
+        frame.add(panel, BorderLayout.NORTH);
+    }
+
+    /**
+     * Prepares the board panel for the Minesweeper game.
+     * The board canvas is placed in a scroll pane in the centre of the frame.
+     * The frame is sized to fit the board, but never larger than 80% of the
+     * screen; larger boards are scrolled, and Ctrl + mouse wheel zooms.
+     * Finally, it makes the frame visible.
+     */
+    private void prepareBoardPanel() {
+        canvas = new BoardCanvas(engine, service);
+        JScrollPane scrollPane = new JScrollPane(canvas);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(BoardCanvas.DEFAULT_TILE_SIZE);
+        scrollPane.getHorizontalScrollBar().setUnitIncrement(BoardCanvas.DEFAULT_TILE_SIZE);
+        frame.add(scrollPane, BorderLayout.CENTER);
+
+        frame.pack();
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        frame.setSize(Math.min(frame.getWidth(), screen.width * 4 / 5),
+                Math.min(frame.getHeight(), screen.height * 4 / 5));
+        frame.setVisible(true);
+    }
+
+    /**
+     * Repaints the tiles changed by the last move.
+     *
+     * @param cells the changed cell ids; only the first count entries are read
+     * @param count the number of changed cells
+     */
+    @Override
+    public void refresh(int[] cells, int count) {
+        canvas.repaintCells(cells, count);
+    }
+
+    /**
+     * Repaints the whole board.
+     */
+    @Override
+    public void refresh() {
+        canvas.repaint();
+    }
+
+    /**
+     * Displays a message in the label above the board.
+     *
+     * @param message the message to display
+     */
+    @Override
+    public void showMessage(String message) {
+        label.setText(message);
+    }
+
+    /**
+     * Disposes the current frame after a specified delay.
+     * A timer is set to trigger the disposal action after 3000 milliseconds.
+     * The timer does not repeat.
+     */
+    @Override
+    public void close() {
+        int delay = 3000;
+        Timer timer = new Timer(delay, e -> frame.dispose());
+        timer.setRepeats(false);
+        timer.start();
+    }
+}
@@ -1,11 +0,0 @@
-import javax.swing.*;
-
-public class Tiles extends JButton {
-    int row;
-    int col;
-
-    public Tiles(int row, int col) {
-        this.row = row;
-        this.col = col;
-    }
-}
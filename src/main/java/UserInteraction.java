@@ -8,18 +8,29 @@ import java.util.Scanner;
  * the user to play again.
  *
  * Methods:
- * - getGridSize(): Prompts the user to enter the size of the grid and validates
- * the input.
- * - getMinesCount(int rowSize): Prompts the user to enter the number of mines
- * and validates the input based on the grid size.
+ * - getGridSize(): Prompts the user to enter the size of a square grid and
+ * validates the input.
+ * - getGridDimensions(): Prompts the user to enter the rows and columns of the
+ * grid and validates the input.
+ * - getMinesCount(int numRows, int numCols): Prompts the user to enter the
+ * number of mines and validates the input based on the grid size.
+ * - getMove(int numRows, int numCols): Prompts the user to select a square to
+ * reveal when the game is played on the console.
  * - playAgain(): Prompts the user to press any key to play again.
  */
 public class UserInteraction {
+
+    /**
+     * The largest number of rows or columns accepted from the console.
+     */
+    public static final int MAX_GRID_SIZE = 32768;
+
     private final Scanner scanner = new Scanner(System.in);
 
     /**
-     * Prompts the user to enter the size of the grid for the Minesweeper game.
-     * The method ensures that the input is a valid integer between 2 and 26.
+     * Prompts the user to enter the size of a square grid for the Minesweeper
+     * game. The method ensures that the input is a valid integer between 2 and
+     * MAX_GRID_SIZE.
      * If the input is invalid, it will prompt the user to enter the value again.
      *
      * @return the size of the grid as an integer.
@@ -33,8 +44,8 @@ public class UserInteraction {
                 System.out.println("Enter the size of the grid (e.g. 4 for a 4x4 grid): ");
                 rowSize = scanner.nextInt();
 
-                if (rowSize < 2 || rowSize > 26) {
-                    System.out.println("Enter the valid size of the grid > 1 and <= 26");
+                if (rowSize < 2 || rowSize > MAX_GRID_SIZE) {
+                    System.out.println("Enter the valid size of the grid > 1 and <= " + MAX_GRID_SIZE);
                 } else {
                     isValid = true;
                 }
@@ -48,7 +59,42 @@ public class UserInteraction {
     }
 
     /**
-     * Prompts the user to enter the number of mines to place on the grid.
+     * Prompts the user to enter the size of the grid, either as a single number
+     * for a square grid or as rows x columns (e.g. 16x30) for a rectangular one.
+     * Both dimensions must be between 2 and MAX_GRID_SIZE and the grid may not
+     * hold more than MineSweeperEngine.MAX_CELLS squares.
+     * If the input is invalid, it will prompt the user to enter the value again.
+     *
+     * @return the number of rows and the number of columns of the grid
+     */
+    public int[] getGridDimensions() {
+        while (true) {
+            System.out.println("Enter the size of the grid (e.g. 4 for a 4x4 grid, or 16x30 for 16 rows and 30 columns): ");
+            String input = scanner.next().trim().toLowerCase();
+
+            int split = input.indexOf('x');
+            int rows;
+            int cols;
+            try {
+                rows = Integer.parseInt(split < 0 ? input : input.substring(0, split));
+                cols = split < 0 ? rows : Integer.parseInt(input.substring(split + 1));
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter an integer or rows x columns.");
+                continue;
+            }
+
+            if (rows < 2 || rows > MAX_GRID_SIZE || cols < 2 || cols > MAX_GRID_SIZE) {
+                System.out.println("Enter the valid size of the grid > 1 and <= " + MAX_GRID_SIZE);
+            } else if ((long) rows * cols > MineSweeperEngine.MAX_CELLS) {
+                System.out.println("Enter a grid of at most " + MineSweeperEngine.MAX_CELLS + " squares");
+            } else {
+                return new int[] { rows, cols };
+            }
+        }
+    }
+
+    /**
+     * Prompts the user to enter the number of mines to place on a square grid.
      * The number of mines must be between 1 and 35% of the total squares on the
      * grid.
      *
@@ -56,9 +102,22 @@ public class UserInteraction {
      * @return the number of mines to place on the grid
      */
     public int getMinesCount(int rowSize) {
+        return getMinesCount(rowSize, rowSize);
+    }
+
+    /**
+     * Prompts the user to enter the number of mines to place on the grid.
+     * The number of mines must be between 1 and 35% of the total squares on the
+     * grid.
+     *
+     * @param numRows the number of rows of the grid
+     * @param numCols the number of columns of the grid
+     * @return the number of mines to place on the grid
+     */
+    public int getMinesCount(int numRows, int numCols) {
         int minesCount = 0;
         boolean isValid = false;
-        int eligibleMineCount = (int) Math.floor((rowSize * rowSize) * (35.0f / 100));
+        int eligibleMineCount = (int) Math.floor(((long) numRows * numCols) * (35.0 / 100));
 
         while (!isValid) {
             try {
@@ -80,15 +139,48 @@ public class UserInteraction {
         return minesCount;
     }
 
+    /**
+     * Prompts the user to select a square to reveal, using the row letter and
+     * column number shown on the console board (e.g. A1).
+     * If the input is not a square on the board, it will prompt the user to enter
+     * the value again.
+     *
+     * @param numRows the number of rows on the board
+     * @param numCols the number of columns on the board
+     * @return the row and column index of the selected square, or null if the
+     *         user entered "exit" or the input has ended
+     */
+    public int[] getMove(int numRows, int numCols) {
+        // Prompt before waiting for input, and again after every rejected square
+        System.out.println("Select a square to reveal (e.g. A1): ");
+        while (scanner.hasNext()) {
+            String input = scanner.next().trim().toUpperCase();
+
+            if (input.equals("EXIT")) {
+                return null;
+            }
+            int[] move = BoardLabels.parseCell(input, numRows, numCols);
+            if (move != null) {
+                return move;
+            }
+            System.out.println("Enter a valid square, e.g. A1");
+            System.out.println("Select a square to reveal (e.g. A1): ");
+        }
+        return null;
+    }
+
     /**
      * Prompts the user to press any key to play again and waits for the user's
      * input.
      *
-     * @return A string containing the user's input.
+     * @return A string containing the user's input, or "exit" if the input has
+     *         ended.
      */
     public String playAgain() {
         System.out.println("Press any key to play again... ");
-        scanner.nextLine();
-        return scanner.nextLine();
+        if (scanner.hasNextLine()) {
+            scanner.nextLine();
+        }
+        return scanner.hasNextLine() ? scanner.nextLine() : "exit";
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BatchSimulatorTest {
+
+    private final PrintStream systemOut = System.out;
+    private ByteArrayOutputStream testOut;
+
+    @Before
+    public void setUp() {
+        testOut = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(testOut));
+    }
+
+    @After
+    public void restoreSystemOutput() {
+        System.setOut(systemOut);
+    }
+
+    @Test
+    public void testRandomPolicyFinishesEveryGame() {
+        BatchSimulator simulator = new BatchSimulator(9, 9, 10, MovePolicy.random());
+        SimulationStats stats = simulator.run(2000, 1L, 4);
+
+        assertEquals(2000, stats.getGames());
+        assertEquals(2000, stats.getWins() + stats.getLosses());
+        assertEquals(0, stats.getAbandoned());
+        assertTrue(stats.getAverageMoves() >= 1);
+        assertTrue(stats.getLargestFloodFill() <= 81 - 10);
+    }
+
+    @Test
+    public void testSameSeedGivesSameStatistics() {
+        BatchSimulator simulator = new BatchSimulator(16, 16, 40, MovePolicy.random());
+        SimulationStats first = simulator.run(500, 7L, 1);
+        SimulationStats second = simulator.run(500, 7L, 3);
+
+        assertEquals(first.getWins(), second.getWins());
+        assertEquals(first.getAverageMoves(), second.getAverageMoves(), 0.0);
+    }
+
+    @Test
+    public void testScriptedPolicyStopsWhenScriptEnds() throws IOException {
+        File script = File.createTempFile("moves", ".txt");
+        script.deleteOnExit();
+        Files.write(script.toPath(), Arrays.asList("# opening", "A1", "", "B2"), StandardCharsets.UTF_8);
+
+        BatchSimulator simulator = new BatchSimulator(30, 30, 1, MovePolicy.scripted(script.toPath(), 30, 30));
+        SimulationStats stats = simulator.run(50, 3L, 2);
+
+        assertEquals(50, stats.getGames());
+        assertTrue(stats.getAverageMoves() <= 2);
+    }
+
+    @Test
+    public void testRunnerBatchMode() {
+        MineSweeperRunner.main(new String[] { "--batch", "games=100", "size=8x12", "mines=10", "seed=5" });
+
+        String output = testOut.toString();
+        assertTrue(output.contains("Simulating 100 games of 8x12 with 10 mines"));
+        assertTrue(output.contains("games=100"));
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class BoardCanvasTest {
+
+    private MineSweeperEngine engine;
+    private BoardCanvas canvas;
+
+    @Before
+    public void setUp() {
+        engine = new MineSweeperEngine(20, 50, 0);
+        engine.startGame();
+        canvas = new BoardCanvas(engine, null);
+    }
+
+    @Test
+    public void testCellAtMapsPixelsToCells() {
+        int size = canvas.getTileSize();
+        assertEquals(0, canvas.cellAt(0, 0));
+        assertEquals(50 + 3, canvas.cellAt(3 * size + 1, size));
+        assertEquals(20 * 50 - 1, canvas.cellAt(50 * size - 1, 20 * size - 1));
+        assertEquals(-1, canvas.cellAt(50 * size, 0));
+        assertEquals(-1, canvas.cellAt(-1, 0));
+    }
+
+    @Test
+    public void testHexBoardShiftsOddRows() {
+        MineSweeperEngine hex = new MineSweeperEngine(4, 5, 0, BoardRandom.splittable(1L), BoardMode.CLASSIC,
+                BoardTopology.HEX);
+        hex.startGame();
+        BoardCanvas hexCanvas = new BoardCanvas(hex, null);
+        int size = hexCanvas.getTileSize();
+        assertEquals(new Dimension(5 * size + size / 2, 4 * size), hexCanvas.getPreferredSize());
+
+        assertEquals(0, hexCanvas.cellAt(1, 1));
+        assertEquals(-1, hexCanvas.cellAt(1, size + 1));
+        assertEquals(5, hexCanvas.cellAt(size / 2 + 1, size + 1));
+        assertEquals(5 + 4, hexCanvas.cellAt(5 * size + size / 2 - 1, size + 1));
+        assertEquals(-1, hexCanvas.cellAt(5 * size + 1, 0));
+        assertEquals(10 + 4, hexCanvas.cellAt(5 * size - 1, 2 * size));
+    }
+
+    @Test
+    public void testTileSizeIsClampedAndResizesBoard() {
+        canvas.setTileSize(1);
+        assertEquals(BoardCanvas.MIN_TILE_SIZE, canvas.getTileSize());
+        canvas.setTileSize(1000);
+        assertEquals(BoardCanvas.MAX_TILE_SIZE, canvas.getTileSize());
+        assertEquals(new Dimension(50 * BoardCanvas.MAX_TILE_SIZE, 20 * BoardCanvas.MAX_TILE_SIZE),
+                canvas.getPreferredSize());
+    }
+
+    @Test
+    public void testPaintsRevealedAndHiddenTiles() {
+        engine.toggleFlag(0, 0);
+        engine.checkMine(19, 49);
+        int size = canvas.getTileSize();
+        canvas.setSize(canvas.getPreferredSize());
+
+        BufferedImage image = new BufferedImage(50 * size, 20 * size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setClip(0, 0, 2 * size, 2 * size);
+        canvas.paint(g);
+        g.dispose();
+
+        assertNotEquals(image.getRGB(size + size / 2, size + size / 2), image.getRGB(2, size / 2));
+        assertEquals(0, image.getRGB(10 * size, 10 * size) & 0xFFFFFF);
+    }
+}
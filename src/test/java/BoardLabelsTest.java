@@ -0,0 +1,36 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoardLabelsTest {
+
+    @Test
+    public void testRowLabelsContinuePastZ() {
+        assertEquals("A", BoardLabels.rowLabel(0));
+        assertEquals("Z", BoardLabels.rowLabel(25));
+        assertEquals("AA", BoardLabels.rowLabel(26));
+        assertEquals("AZ", BoardLabels.rowLabel(51));
+        assertEquals("BA", BoardLabels.rowLabel(52));
+        assertEquals("ZZ", BoardLabels.rowLabel(701));
+        assertEquals("AAA", BoardLabels.rowLabel(702));
+    }
+
+    @Test
+    public void testParseRowIsInverseOfRowLabel() {
+        for (int row = 0; row < 20000; row++) {
+            String label = BoardLabels.rowLabel(row);
+            assertEquals(row, BoardLabels.parseRow(label, 0, label.length()));
+        }
+        assertEquals(-1, BoardLabels.parseRow("A1", 0, 2));
+    }
+
+    @Test
+    public void testParseCell() {
+        assertArrayEquals(new int[] { 2, 6 }, BoardLabels.parseCell("C7", 16, 30));
+        assertArrayEquals(new int[] { 27, 29 }, BoardLabels.parseCell("ab30", 30, 30));
+        assertNull(BoardLabels.parseCell("C31", 16, 30));
+        assertNull(BoardLabels.parseCell("Q1", 16, 30));
+        assertNull(BoardLabels.parseCell("C", 16, 30));
+        assertNull(BoardLabels.parseCell("7C", 16, 30));
+    }
+}
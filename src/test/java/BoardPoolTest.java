@@ -0,0 +1,171 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class BoardPoolTest {
+
+    private BoardPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new BoardPool(3, 2, 2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    private void awaitAvailable(int rows, int cols, int mines, BoardMode mode, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (pool.getAvailable(rows, cols, mines, mode) < count) {
+            assertTrue("pool was not refilled", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testPoolIsOffByDefault() {
+        assertNull(System.getProperty("minesweeper.pool"));
+        assertNull(BoardPool.configured());
+    }
+
+    @Test
+    public void testFirstTakeMissesThenHits() throws InterruptedException {
+        MineSweeperEngine first = pool.take(16, 30, 99, BoardMode.CLASSIC);
+        assertEquals(1, pool.getMisses());
+        assertEquals(0, pool.getHits());
+        assertTrue(first.isMinesPlaced());
+        assertFalse(first.isGameOver());
+
+        awaitAvailable(16, 30, 99, BoardMode.CLASSIC, 3);
+        MineSweeperEngine second = pool.take(16, 30, 99, BoardMode.CLASSIC);
+        assertEquals(1, pool.getHits());
+        assertNotSame(first, second);
+        assertEquals(0, second.getMoves());
+        assertEquals(99, second.getTotalMines());
+
+        // The refill never grows past the capacity
+        awaitAvailable(16, 30, 99, BoardMode.CLASSIC, 3);
+        Thread.sleep(20);
+        assertEquals(3, pool.getAvailable(16, 30, 99, BoardMode.CLASSIC));
+        assertEquals(4, pool.getProduced());
+        assertEquals(2, pool.getTakeNanos().getCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSizeIsEvicted() throws InterruptedException {
+        pool.prepare(8, 8, 10, BoardMode.CLASSIC);
+        pool.prepare(9, 9, 10, BoardMode.CLASSIC);
+        awaitAvailable(8, 8, 10, BoardMode.CLASSIC, 3);
+        awaitAvailable(9, 9, 10, BoardMode.CLASSIC, 3);
+
+        pool.take(8, 8, 10, BoardMode.CLASSIC);
+        pool.prepare(10, 10, 10, BoardMode.CLASSIC);
+
+        assertEquals(0, pool.getAvailable(9, 9, 10, BoardMode.CLASSIC));
+        assertEquals(3, pool.getEvicted());
+        awaitAvailable(8, 8, 10, BoardMode.CLASSIC, 3);
+        awaitAvailable(10, 10, 10, BoardMode.CLASSIC, 3);
+    }
+
+    @Test
+    public void testModesArePooledSeparately() throws InterruptedException {
+        pool.prepare(9, 9, 10, BoardMode.NO_GUESS);
+        awaitAvailable(9, 9, 10, BoardMode.NO_GUESS, 3);
+        assertEquals(0, pool.getAvailable(9, 9, 10, BoardMode.SAFE_START));
+
+        // Pooled no-guess boards come with their opening uncovered
+        MineSweeperEngine engine = pool.take(9, 9, 10, BoardMode.NO_GUESS);
+        assertEquals(BoardMode.NO_GUESS, engine.getMode());
+        assertEquals(1, pool.getHits());
+        assertTrue(engine.isMinesPlaced());
+        assertEquals(0, engine.getMoves());
+        assertFalse(engine.isGameOver());
+
+        MineSweeperEngine safe = pool.take(9, 9, 10, BoardMode.SAFE_START);
+        assertFalse(safe.isMinesPlaced());
+        assertEquals(0, safe.getMoves());
+    }
+
+    @Test
+    public void testNoGuessOpeningCannotBeUndone() throws InterruptedException {
+        pool.prepare(9, 9, 10, BoardMode.NO_GUESS);
+        awaitAvailable(9, 9, 10, BoardMode.NO_GUESS, 1);
+        MineSweeperEngine engine = pool.take(9, 9, 10, BoardMode.NO_GUESS);
+        int opened = engine.getTilesClicked();
+        assertTrue(opened > 0);
+        assertFalse(engine.canUndo());
+        assertFalse(engine.undo());
+        assertEquals(opened, engine.getTilesClicked());
+        assertEquals(0, engine.getMoves());
+    }
+
+    @Test
+    public void testServiceStartsPooledBoard() throws InterruptedException {
+        pool.prepare(6, 6, 5, BoardMode.CLASSIC);
+        awaitAvailable(6, 6, 5, BoardMode.CLASSIC, 3);
+        MineSweeperService service = new MineSweeperService(6, 6, 5, null, pool);
+        MineSweeperEngine engine = service.getEngine();
+        boolean[] mines = new boolean[36];
+        for (int cell = 0; cell < 36; cell++) {
+            mines[cell] = engine.isMine(cell / 6, cell % 6);
+        }
+
+        // The first start keeps the pooled board
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            service.startGame();
+        } finally {
+            System.setOut(out);
+        }
+        assertEquals(1, pool.getHits());
+        for (int cell = 0; cell < 36; cell++) {
+            assertEquals(mines[cell], engine.isMine(cell / 6, cell % 6));
+        }
+    }
+
+    @Test
+    public void testSizeAboveCellLimitIsNotPooled() throws InterruptedException {
+        try (BoardPool small = new BoardPool(3, 2, 2, 3 * 100)) {
+            small.prepare(10, 11, 10, BoardMode.CLASSIC);
+            MineSweeperEngine first = small.take(10, 11, 10, BoardMode.CLASSIC);
+            MineSweeperEngine second = small.take(10, 11, 10, BoardMode.CLASSIC);
+            assertNotSame(first, second);
+            assertEquals(2, small.getMisses());
+            Thread.sleep(20);
+            assertEquals(0, small.getProduced());
+            assertEquals(0, small.getAvailable(10, 11, 10, BoardMode.CLASSIC));
+
+            // A size within the limit is still pooled
+            small.prepare(10, 10, 10, BoardMode.CLASSIC);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (small.getAvailable(10, 10, 10, BoardMode.CLASSIC) < 3) {
+                assertTrue("pool was not refilled", System.currentTimeMillis() < deadline);
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    @Test
+    public void testNoGuessBoardClearedByEveryOpeningIsPooledUnopened() throws InterruptedException {
+        pool.prepare(4, 4, 0, BoardMode.NO_GUESS);
+        awaitAvailable(4, 4, 0, BoardMode.NO_GUESS, 1);
+        MineSweeperEngine engine = pool.take(4, 4, 0, BoardMode.NO_GUESS);
+        assertFalse(engine.isGameOver());
+        assertEquals(0, engine.getTilesClicked());
+        engine.reveal(0, 0);
+        assertTrue(engine.isGameWon());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSizeIsRejected() {
+        pool.take(2, 2, 4, BoardMode.CLASSIC);
+    }
+}
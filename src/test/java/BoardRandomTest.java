@@ -0,0 +1,37 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoardRandomTest {
+
+    @Test
+    public void testSameSeedGivesSameSequence() {
+        for (String name : new String[] { "splittable", "xoroshiro" }) {
+            BoardRandom first = BoardRandom.named(name, 42L);
+            BoardRandom second = BoardRandom.named(name, 42L);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(first.nextInt(1 + i), second.nextInt(1 + i));
+            }
+            assertEquals(42L, first.getSeed());
+        }
+    }
+
+    @Test
+    public void testXoroshiroStaysWithinBound() {
+        BoardRandom random = BoardRandom.xoroshiro(7L);
+        int[] histogram = new int[10];
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(10);
+            assertTrue(value >= 0 && value < 10);
+            histogram[value]++;
+        }
+        for (int count : histogram) {
+            assertTrue(count > 9000 && count < 11000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownGeneratorRejected() {
+        BoardRandom.named("mersenne", 1L);
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BoardTopologyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int[] neighbours(BoardTopology topology, int numRows, int numCols, int row, int col) {
+        int[] out = new int[8];
+        int n = topology.neighbours(numRows, numCols, row * numCols + col, out);
+        return Arrays.copyOf(out, n);
+    }
+
+    @Test
+    public void testNeighbourSets() {
+        assertArrayEquals(new int[] { 0, 1, 2, 5, 7, 10, 11, 12 }, neighbours(BoardTopology.SQUARE, 4, 5, 1, 1));
+        assertArrayEquals(new int[] { 1, 5, 6 }, neighbours(BoardTopology.SQUARE, 4, 5, 0, 0));
+        assertArrayEquals(new int[] { 1, 5, 7, 11 }, neighbours(BoardTopology.SQUARE_4, 4, 5, 1, 1));
+        // The corner of a torus touches the opposite edges
+        assertArrayEquals(new int[] { 1, 4, 5, 6, 9, 15, 16, 19 }, neighbours(BoardTopology.TORUS, 4, 5, 0, 0));
+        // Odd rows touch col and col + 1 above and below, even rows col - 1 and col
+        assertArrayEquals(new int[] { 1, 2, 5, 7, 11, 12 }, neighbours(BoardTopology.HEX, 4, 5, 1, 1));
+        assertArrayEquals(new int[] { 5, 6, 10, 12, 15, 16 }, neighbours(BoardTopology.HEX, 4, 5, 2, 1));
+    }
+
+    @Test
+    public void testNeighboursAreSymmetricAndDistinct() {
+        int[][] sizes = { { 1, 1 }, { 1, 4 }, { 2, 2 }, { 2, 3 }, { 3, 3 }, { 5, 7 } };
+        for (BoardTopology topology : BoardTopology.values()) {
+            for (int[] size : sizes) {
+                int numRows = size[0];
+                int numCols = size[1];
+                for (int cell = 0; cell < numRows * numCols; cell++) {
+                    int[] around = neighbours(topology, numRows, numCols, cell / numCols, cell % numCols);
+                    assertTrue(around.length <= topology.getMaxDegree());
+                    for (int i = 0; i < around.length; i++) {
+                        assertNotEquals(cell, around[i]);
+                        assertTrue(i == 0 || around[i - 1] < around[i]);
+                        int[] back = neighbours(topology, numRows, numCols, around[i] / numCols, around[i] % numCols);
+                        assertTrue(topology + " " + cell + "-" + around[i], Arrays.binarySearch(back, cell) >= 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTableMatchesTopology() {
+        for (BoardTopology topology : BoardTopology.values()) {
+            NeighbourTable table = NeighbourTable.of(topology, 6, 9);
+            assertSame(table, NeighbourTable.of(topology, 6, 9));
+            for (int cell = 0; cell < 54; cell++) {
+                int[] expected = neighbours(topology, 6, 9, cell / 9, cell % 9);
+                int[] actual = Arrays.copyOfRange(table.getNeighbours(), table.getOffset(cell),
+                        table.getOffset(cell + 1));
+                assertArrayEquals(expected, actual);
+            }
+        }
+        assertNull(NeighbourTable.of(BoardTopology.SQUARE, NeighbourTable.MAX_CELLS + 1, 1));
+    }
+
+    @Test
+    public void testCountsFollowTheTopology() {
+        for (BoardTopology topology : BoardTopology.values()) {
+            // A board above the table limit computes its neighbours per cell instead
+            int[][] sizes = { { 12, 17 }, { NeighbourTable.MAX_CELLS / 512 + 1, 512 } };
+            for (int[] size : sizes) {
+                int numRows = size[0];
+                int numCols = size[1];
+                MineSweeperEngine engine = new MineSweeperEngine(numRows, numCols, numRows * numCols / 6,
+                        BoardRandom.splittable(5L), BoardMode.CLASSIC, topology);
+                engine.startGame();
+                assertEquals(topology, engine.getTopology());
+                for (int cell = 0; cell < numRows * numCols; cell += 7) {
+                    int expected = 0;
+                    for (int n : neighbours(topology, numRows, numCols, cell / numCols, cell % numCols)) {
+                        expected += engine.isMine(n / numCols, n % numCols) ? 1 : 0;
+                    }
+                    assertEquals(expected, engine.getMinesCount(cell / numCols, cell % numCols));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFloodFillWrapsOnTorus() {
+        MineSweeperEngine engine = new MineSweeperEngine(6, 6, 1, BoardRandom.splittable(1L), BoardMode.SAFE_START,
+                BoardTopology.TORUS);
+        engine.startGame();
+        assertEquals(35, engine.reveal(0, 0));
+        assertTrue(engine.isGameWon());
+
+        // With 4-connectivity an empty board still opens in one click
+        MineSweeperEngine plain = new MineSweeperEngine(3, 3, 0, BoardRandom.splittable(1L), BoardMode.CLASSIC,
+                BoardTopology.SQUARE_4);
+        plain.startGame();
+        assertEquals(9, plain.reveal(1, 1));
+    }
+
+    @Test
+    public void testSafeStartSparesTheHexNeighbours() {
+        for (long seed = 0; seed < 20; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(8, 8, 20, BoardRandom.splittable(seed),
+                    BoardMode.SAFE_START, BoardTopology.HEX);
+            engine.startGame();
+            engine.reveal(3, 4);
+            assertEquals(0, engine.getMinesCount(3, 4));
+            assertTrue(engine.getRevealedCount() >= 7);
+        }
+    }
+
+    @Test
+    public void testSolverPlaysEveryTopology() {
+        for (BoardTopology topology : BoardTopology.values()) {
+            MineSweeperEngine engine = new MineSweeperEngine(12, 12, 20, BoardRandom.splittable(9L),
+                    BoardMode.NO_GUESS, topology);
+            engine.startGame();
+            engine.reveal(6, 6);
+            Solver solver = new Solver();
+            assertTrue(topology.toString(), solver.solve(engine));
+            assertEquals(topology.toString(), 0, solver.getGuesses());
+        }
+    }
+
+    @Test
+    public void testSnapshotKeepsTheTopology() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(7, 9, 10, BoardRandom.splittable(3L), BoardMode.CLASSIC,
+                BoardTopology.HEX);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("hex.msw");
+        GameSnapshot.save(engine, file);
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertEquals(BoardTopology.HEX, restored.getTopology());
+        for (int cell = 0; cell < 63; cell++) {
+            assertEquals(engine.getMinesCount(cell / 9, cell % 9), restored.getMinesCount(cell / 9, cell % 9));
+        }
+    }
+
+    @Test
+    public void testNames() {
+        assertEquals(BoardTopology.SQUARE_4, BoardTopology.named("square-4"));
+        assertEquals(BoardTopology.HEX, BoardTopology.named("Hex"));
+        assertEquals(BoardTopology.SQUARE, BoardTopology.configured());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownNameIsRejected() {
+        BoardTopology.named("hexx");
+    }
+}
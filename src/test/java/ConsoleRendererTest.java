@@ -0,0 +1,95 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class ConsoleRendererTest {
+
+    private final PrintStream systemOut = System.out;
+    private ByteArrayOutputStream testOut;
+    private MineSweeperEngine engine;
+
+    @Before
+    public void setUp() {
+        testOut = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(testOut));
+        engine = new MineSweeperEngine(3, 4, 0);
+        engine.startGame();
+    }
+
+    @After
+    public void restoreSystemOutput() {
+        System.setOut(systemOut);
+    }
+
+    private String getOutput() {
+        return testOut.toString();
+    }
+
+    @Test
+    public void testRenderFullPrintsHeadersAndCells() {
+        new ConsoleRenderer(engine, ConsoleRenderer.Mode.FULL).renderFull();
+
+        String[] lines = getOutput().split(System.lineSeparator());
+        assertEquals(4, lines.length);
+        assertEquals("  1  2  3  4  ", lines[0]);
+        assertEquals("A _  _  _  _  ", lines[1]);
+        assertEquals("C _  _  _  _  ", lines[3]);
+    }
+
+    @Test
+    public void testDiffModePrintsOnlyChangedCells() {
+        ConsoleRenderer renderer = new ConsoleRenderer(engine, ConsoleRenderer.Mode.DIFF);
+        renderer.renderFull();
+        testOut.reset();
+
+        engine.toggleFlag(1, 2);
+        renderer.renderChanges(new int[] { 6 }, 1);
+
+        String output = getOutput();
+        assertTrue(output.startsWith("Changed: B3="));
+        assertEquals(1, output.split(System.lineSeparator()).length);
+        assertFalse(output.contains("_"));
+    }
+
+    @Test
+    public void testAnsiModeAddressesChangedCells() {
+        ConsoleRenderer renderer = new ConsoleRenderer(engine, ConsoleRenderer.Mode.ANSI);
+        renderer.renderFull();
+        testOut.reset();
+
+        engine.checkMine(1, 2);
+        renderer.renderChanges(engine.getRevealedCells(), 1);
+
+        String output = getOutput();
+        assertTrue(output.startsWith("\u001B[3;9H0"));
+        assertFalse(output.contains("_"));
+    }
+
+    @Test
+    public void testConfiguredModeFallsBackWhenUnset() {
+        String previous = System.clearProperty("minesweeper.console");
+        try {
+            assertEquals(ConsoleRenderer.Mode.FULL, ConsoleRenderer.configuredMode());
+            assertEquals(ConsoleRenderer.Mode.DIFF, ConsoleRenderer.configuredMode(ConsoleRenderer.Mode.DIFF));
+            System.setProperty("minesweeper.console", "ansi");
+            assertEquals(ConsoleRenderer.Mode.ANSI, ConsoleRenderer.configuredMode(ConsoleRenderer.Mode.DIFF));
+        } finally {
+            if (previous == null) {
+                System.clearProperty("minesweeper.console");
+            } else {
+                System.setProperty("minesweeper.console", previous);
+            }
+        }
+    }
+
+    @Test
+    public void testChangesBeforeFirstRenderDrawWholeBoard() {
+        new ConsoleRenderer(engine, ConsoleRenderer.Mode.DIFF).renderChanges(new int[0], 0);
+        assertTrue(getOutput().contains("A _  _  _  _  "));
+    }
+}
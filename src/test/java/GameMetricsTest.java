@@ -0,0 +1,120 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameMetricsTest {
+
+    private final PrintStream systemOut = System.out;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @After
+    public void restoreSystemOutput() {
+        System.setOut(systemOut);
+    }
+
+    @Test
+    public void testMetricsAreOffByDefault() {
+        assertNull(System.getProperty("minesweeper.metrics"));
+        assertNull(GameMetrics.configured());
+    }
+
+    @Test
+    public void testServiceRecordsItsHotPaths() {
+        List<GameMetrics> exported = new ArrayList<>();
+        GameMetrics metrics = new GameMetrics(exported::add);
+        MineSweeperService service = new MineSweeperService(6, 6, 0, metrics);
+        service.startGame();
+
+        assertEquals(1, metrics.getGamesStarted());
+        assertEquals(1, metrics.getStartGameNanos().getCount());
+        assertEquals(1, metrics.getSetMinesNanos().getCount());
+        assertTrue(metrics.getStartGameNanos().getMax() >= metrics.getSetMinesNanos().getMax());
+        assertEquals(1, metrics.getRenderNanos().getCount());
+
+        service.reveal(0, 0);
+        assertEquals(1, metrics.getMoves());
+        assertEquals(1, metrics.getCheckMineNanos().getCount());
+        assertEquals(36, metrics.getFloodFillCells().getMax());
+        assertEquals(1, metrics.getWins());
+        assertEquals(1, exported.size());
+
+        // Moves on a finished game are ignored
+        service.reveal(1, 1);
+        assertEquals(1, metrics.getMoves());
+        assertEquals(1, exported.size());
+    }
+
+    @Test
+    public void testLossIsRecordedOnce() {
+        List<GameMetrics> exported = new ArrayList<>();
+        GameMetrics metrics = new GameMetrics(exported::add);
+        MineSweeperService service = new MineSweeperService(4, 4, 15, metrics);
+        service.startGame();
+
+        int cell = 0;
+        while (!service.getEngine().isMine(cell / 4, cell % 4)) {
+            cell++;
+        }
+        service.reveal(cell / 4, cell % 4);
+        service.revealMines();
+
+        assertEquals(1, metrics.getLosses());
+        assertEquals(0, metrics.getFloodFillCells().getMax());
+        assertEquals(1, exported.size());
+        assertTrue(exported.get(0).toString().startsWith("games=1 moves=1 wins=0 losses=1"));
+    }
+
+    @Test
+    public void testEmitsFlightRecorderEvents() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("game.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("minesweeper.StartGame");
+            recording.enable("minesweeper.Move");
+            recording.enable("minesweeper.Render");
+            recording.start();
+
+            MineSweeperService service = new MineSweeperService(5, 5, 0, new GameMetrics(null));
+            service.startGame();
+            service.reveal(2, 2);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.startsWith("minesweeper.")) {
+                names.add(name);
+                if (name.equals("minesweeper.Move")) {
+                    assertEquals(25, event.getInt("uncovered"));
+                    assertEquals(12, event.getInt("cell"));
+                }
+            }
+        }
+        assertTrue(names.toString(), names.contains("minesweeper.StartGame"));
+        assertTrue(names.toString(), names.contains("minesweeper.Move"));
+        assertTrue(names.toString(), names.contains("minesweeper.Render"));
+    }
+}
@@ -0,0 +1,174 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+
+    private GameServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new GameServer(0, 60_000, 10);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testPlaysAGameOverTheProtocol() throws IOException {
+        try (Client client = new Client()) {
+            assertEquals("OK 1", client.send("NEW 3 3 0 7"));
+            assertEquals("OK PLAYING 3 3 0 0 ___/___/___", client.send("STATE"));
+            assertEquals("OK PLAYING A1=F", client.send("FLAG A1"));
+
+            // A flagged tile is not uncovered by the flood fill
+            String reveal = client.send("REVEAL C3");
+            assertTrue(reveal, reveal.startsWith("OK PLAYING 8 "));
+            assertTrue(reveal, reveal.contains(" C3=0"));
+            assertEquals("OK PLAYING A1=_", client.send("FLAG A1"));
+            assertEquals("OK WON 1 A1=0", client.send("REVEAL A1"));
+            assertEquals("OK WON 3 3 0 4 000/000/000", client.send("STATE"));
+        }
+    }
+
+    @Test
+    public void testLosingRevealsTheMines() throws IOException {
+        try (Client client = new Client()) {
+            client.send("NEW 2 2 3 1");
+            String state = client.send("STATE");
+            int safe = state.indexOf('_', "OK PLAYING 2 2 3 0 ".length());
+            assertTrue(state, safe > 0);
+
+            String mine = safe == "OK PLAYING 2 2 3 0 ".length() ? "A2" : "A1";
+            assertEquals("OK LOST 0", client.send("REVEAL " + mine));
+            String lost = client.send("STATE");
+            assertEquals(3, lost.chars().filter(c -> c == '*').count());
+        }
+    }
+
+    @Test
+    public void testSessionsOutliveConnections() throws IOException {
+        String id;
+        try (Client client = new Client()) {
+            id = client.send("NEW 4 4 2 3").substring(3);
+            client.send("FLAG B2");
+        }
+        try (Client client = new Client()) {
+            assertEquals("ERR no session", client.send("STATE"));
+            assertEquals("OK " + id, client.send("RESUME " + id));
+            assertTrue(client.send("STATE").endsWith("____/_F__/____/____"));
+            assertEquals("OK", client.send("CLOSE"));
+            assertTrue(client.send("RESUME " + id).startsWith("ERR unknown session"));
+        }
+        assertEquals(0, server.getSessionCount());
+    }
+
+    @Test
+    public void testRejectsBadCommands() throws IOException {
+        try (Client client = new Client()) {
+            assertTrue(client.send("HELLO").startsWith("ERR unknown command"));
+            assertTrue(client.send("NEW 3").startsWith("ERR usage"));
+            assertTrue(client.send("NEW 3 3 9").startsWith("ERR"));
+            assertTrue(client.send("NEW 5000 5000 10").startsWith("ERR board"));
+            client.send("NEW 3 3 1");
+            assertTrue(client.send("REVEAL Z9").startsWith("ERR expected a tile"));
+            assertEquals("BYE", client.send("QUIT"));
+        }
+    }
+
+    @Test
+    public void testLimitsAndEvictsSessions() throws IOException {
+        try (Client client = new Client()) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(client.send("NEW 3 3 1").startsWith("OK"));
+            }
+            assertEquals("ERR too many sessions", client.send("NEW 3 3 1"));
+        }
+        assertEquals(10, server.getSessionCount());
+
+        assertEquals(0, server.evictIdle(System.nanoTime()));
+        assertEquals(10, server.evictIdle(System.nanoTime() + 61_000_000_000L));
+        assertEquals(0, server.getSessionCount());
+
+        // Evicted and closed sessions free their slots
+        try (Client client = new Client()) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(client.send("NEW 3 3 1").startsWith("OK"));
+            }
+            assertEquals("OK", client.send("CLOSE"));
+            assertTrue(client.send("NEW 3 3 1").startsWith("OK"));
+            assertEquals("ERR too many sessions", client.send("NEW 3 3 1"));
+        }
+    }
+
+    @Test
+    public void testConcurrentClientsNeverExceedTheLimit() throws Exception {
+        int clients = 8;
+        CyclicBarrier start = new CyclicBarrier(clients);
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<Integer>> opened = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            opened.add(pool.submit(() -> {
+                int ok = 0;
+                try (Client client = new Client()) {
+                    start.await();
+                    for (int j = 0; j < 5; j++) {
+                        if (client.send("NEW 3 3 1").startsWith("OK")) {
+                            ok++;
+                        }
+                    }
+                }
+                return ok;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> result : opened) {
+            total += result.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+        assertEquals(10, total);
+        assertEquals(10, server.getSessionCount());
+    }
+
+    private class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        String send(String command) throws IOException {
+            out.println(command);
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GameSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRestoresGameInProgress() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(13, 21, 40, BoardRandom.xoroshiro(9L));
+        engine.startGame();
+        playSafeMoves(engine, 3);
+        engine.toggleFlag(firstMine(engine) / 21, firstMine(engine) % 21);
+
+        Path file = folder.getRoot().toPath().resolve("game.msw");
+        GameSnapshot.save(engine, file);
+        assertEquals(GameSnapshot.HEADER_BYTES + 3 * 5 * 8, Files.size(file));
+
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertSameBoard(engine, restored);
+        assertFalse(restored.isGameOver());
+        assertEquals(engine.getMoves(), restored.getMoves());
+        assertEquals(engine.getTilesClicked(), restored.getTilesClicked());
+        assertEquals(9L, restored.getSeed());
+
+        // The restored game can be played on to the end
+        playSafeMoves(restored, Integer.MAX_VALUE);
+        assertTrue(restored.isGameWon());
+        assertTrue(restored.getCompletion().isDone());
+    }
+
+    @Test
+    public void testRestoresFinishedGames() throws IOException {
+        MineSweeperEngine lost = new MineSweeperEngine(8, 8, 10, 4L);
+        lost.startGame();
+        lost.reveal(firstMine(lost) / 8, firstMine(lost) % 8);
+
+        Path file = folder.getRoot().toPath().resolve("lost.msw");
+        GameSnapshot.save(lost, file);
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertTrue(restored.isGameOver());
+        assertFalse(restored.isGameWon());
+        assertFalse(restored.getCompletion().join().isWon());
+        assertEquals(1, restored.getMoves());
+
+        MineSweeperEngine won = new MineSweeperEngine(8, 8, 10, 4L);
+        won.startGame();
+        playSafeMoves(won, Integer.MAX_VALUE);
+        GameSnapshot.save(won, file);
+        restored = GameSnapshot.restore(file);
+        assertTrue(restored.isGameWon());
+        assertSameBoard(won, restored);
+    }
+
+    @Test
+    public void testRestoresLargeBoard() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(2000, 1500, 500000, 2L);
+        engine.startGame();
+        playSafeMoves(engine, 50);
+
+        Path file = folder.getRoot().toPath().resolve("large.msw");
+        GameSnapshot.save(engine, file);
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertSameBoard(engine, restored);
+    }
+
+    @Test
+    public void testRestoresBoardWithPendingMines() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 20, BoardRandom.xoroshiro(4L), BoardMode.SAFE_START);
+        engine.startGame();
+        engine.toggleFlag(0, 0);
+
+        Path file = folder.getRoot().toPath().resolve("pending.msw");
+        GameSnapshot.save(engine, file);
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertEquals(BoardMode.SAFE_START, restored.getMode());
+        assertFalse(restored.isMinesPlaced());
+        assertTrue(restored.isFlagged(0, 0));
+
+        // Both games place the same mines around the same first click
+        engine.reveal(5, 5);
+        restored.reveal(5, 5);
+        assertSameBoard(engine, restored);
+    }
+
+    @Test
+    public void testKeepsTheNoGuessPlacement() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(16, 16, 40, BoardRandom.splittable(6L), BoardMode.NO_GUESS);
+        engine.startGame();
+        engine.reveal(8, 8);
+        assertTrue(engine.isGuessFree());
+
+        Path file = folder.getRoot().toPath().resolve("no-guess.msw");
+        GameSnapshot.save(engine, file);
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertSameBoard(engine, restored);
+        assertTrue(restored.isGuessFree());
+        assertEquals(engine.getPlacementSeed(), restored.getPlacementSeed());
+        assertNotEquals(engine.getSeed(), restored.getPlacementSeed());
+    }
+
+    @Test
+    public void testReadsVersionOneFiles() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(8, 8, 10, 4L);
+        engine.startGame();
+        playSafeMoves(engine, 2);
+
+        Path file = folder.getRoot().toPath().resolve("old.msw");
+        GameSnapshot.save(engine, file);
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals(GameSnapshot.VERSION, bytes[4]);
+        // Version 1 left the status bits above game over and won unused, and had no placement seed
+        bytes[4] = 1;
+        bytes[6] |= (byte) 0xFC;
+        byte[] old = new byte[bytes.length - (GameSnapshot.HEADER_BYTES - GameSnapshot.OLD_HEADER_BYTES)];
+        System.arraycopy(bytes, 0, old, 0, GameSnapshot.OLD_HEADER_BYTES);
+        System.arraycopy(bytes, GameSnapshot.HEADER_BYTES, old, GameSnapshot.OLD_HEADER_BYTES,
+                old.length - GameSnapshot.OLD_HEADER_BYTES);
+        Files.write(file, old);
+
+        MineSweeperEngine restored = GameSnapshot.restore(file);
+        assertSameBoard(engine, restored);
+        assertEquals(BoardMode.CLASSIC, restored.getMode());
+        assertEquals(BoardTopology.SQUARE, restored.getTopology());
+        assertTrue(restored.isMinesPlaced());
+        assertEquals(engine.getMoves(), restored.getMoves());
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("other.msw");
+        Files.write(file, new byte[GameSnapshot.HEADER_BYTES + 8]);
+        try {
+            GameSnapshot.restore(file);
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a Minesweeper snapshot"));
+        }
+
+        MineSweeperEngine engine = new MineSweeperEngine(8, 8, 10, 4L);
+        engine.startGame();
+        GameSnapshot.save(engine, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        try {
+            GameSnapshot.restore(file);
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("Truncated snapshot"));
+        }
+    }
+
+    private static void playSafeMoves(MineSweeperEngine engine, int count) {
+        int cells = engine.getNumRows() * engine.getNumCols();
+        int numCols = engine.getNumCols();
+        for (int cell = 0; cell < cells && count > 0 && !engine.isGameOver(); cell++) {
+            int row = cell / numCols;
+            int col = cell % numCols;
+            if (!engine.isMine(row, col) && !engine.isRevealed(row, col)) {
+                engine.reveal(row, col);
+                count--;
+            }
+        }
+    }
+
+    private static int firstMine(MineSweeperEngine engine) {
+        int cell = 0;
+        while (!engine.isMine(cell / engine.getNumCols(), cell % engine.getNumCols())) {
+            cell++;
+        }
+        return cell;
+    }
+
+    private static void assertSameBoard(MineSweeperEngine expected, MineSweeperEngine actual) {
+        assertEquals(expected.getNumRows(), actual.getNumRows());
+        assertEquals(expected.getNumCols(), actual.getNumCols());
+        assertEquals(expected.getTotalMines(), actual.getTotalMines());
+        for (int row = 0; row < expected.getNumRows(); row++) {
+            for (int col = 0; col < expected.getNumCols(); col++) {
+                assertEquals(expected.isMine(row, col), actual.isMine(row, col));
+                assertEquals(expected.isRevealed(row, col), actual.isRevealed(row, col));
+                assertEquals(expected.isFlagged(row, col), actual.isFlagged(row, col));
+                assertEquals(expected.getMinesCount(row, col), actual.getMinesCount(row, col));
+            }
+        }
+    }
+}
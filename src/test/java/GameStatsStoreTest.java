@@ -0,0 +1,109 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameStatsStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSummarizesEachDifficulty() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("games.stats");
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            for (int i = 1; i <= 100; i++) {
+                store.record(16, 30, 99, i, i % 4 == 0, 50, i * 1_000_000L);
+            }
+            store.record(9, 9, 10, 7L, true, 12, 3_000_000L);
+
+            GameStatsStore.Summary expert = store.getSummary(16, 30, 99);
+            assertEquals(100, expert.getGames());
+            assertEquals(25, expert.getWins());
+            assertEquals(0.25, expert.getWinRate(), 1e-9);
+            assertEquals(50.0, expert.getMeanMoves(), 1e-9);
+            assertEquals(4_000_000L, expert.getBestNanos());
+            long p50 = expert.getSolveNanos().getPercentile(0.5);
+            assertTrue(String.valueOf(p50), p50 >= 52_000_000L && p50 <= 52_000_000L * 33 / 32);
+            assertEquals(100_000_000L, expert.getSolveNanos().getPercentile(0.99));
+
+            store.record(16, 30, 99, 101L, true, 10, 1_000_000L);
+            assertEquals(100, expert.getGames());
+            assertEquals(4_000_000L, expert.getBestNanos());
+            assertEquals(25, expert.getSolveNanos().getCount());
+            expert.getSolveNanos().record(1L);
+            assertEquals(25, expert.getSolveNanos().getCount());
+            assertEquals(26, store.getSummary(16, 30, 99).getWins());
+
+            List<GameStatsStore.Summary> summaries = store.getSummaries();
+            assertEquals(2, summaries.size());
+            assertEquals(9, summaries.get(0).getNumRows());
+            assertNull(store.getSummary(8, 8, 10));
+            assertEquals(102, store.getGames());
+        }
+    }
+
+    @Test
+    public void testReopensFromSavedSummariesAndRebuildsWithoutThem() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("games.stats");
+        int games = GameStatsStore.BLOCK_GAMES * 2 + 100;
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            for (int i = 0; i < games; i++) {
+                store.record(8 + i % 3, 8, 10, i, i % 3 == 0, i % 20, 1_000_000L + i);
+            }
+        }
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            assertEquals(games, store.getGames());
+            assertEquals(1_000_000L, store.getSummary(8, 8, 10).getBestNanos());
+            store.record(8, 8, 10, 1L, false, 1, 1L);
+        }
+        String saved;
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            assertEquals(games + 1, store.getGames());
+            assertEquals(games / 3 + 1, store.getSummary(8, 8, 10).getGames());
+            saved = store.toString();
+        }
+
+        Files.delete(file.resolveSibling("games.stats.summary"));
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            assertEquals(saved, store.toString());
+        }
+    }
+
+    @Test
+    public void testDropsBlockCutShort() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("games.stats");
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            store.record(9, 9, 10, 1L, true, 5, 10L);
+            store.flush();
+            store.record(9, 9, 10, 2L, false, 5, 10L);
+        }
+        Files.delete(file.resolveSibling("games.stats.summary"));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            assertEquals(1, store.getGames());
+            assertEquals(1, store.getSummary(9, 9, 10).getWins());
+            store.record(9, 9, 10, 3L, true, 5, 10L);
+        }
+        try (GameStatsStore store = new GameStatsStore(file)) {
+            assertEquals(2, store.getGames());
+            assertEquals(2, store.getSummary(9, 9, 10).getWins());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("other.txt");
+        Files.write(file, "not a store".getBytes("US-ASCII"));
+        new GameStatsStore(file).close();
+    }
+}
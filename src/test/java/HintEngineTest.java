@@ -0,0 +1,204 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HintEngineTest {
+
+    @Test
+    public void testMatchesBruteForceOnSmallBoards() {
+        for (long seed = 0; seed < 40; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(5, 6, 6, seed);
+            engine.startGame();
+            HintEngine hints = engine.getHintEngine();
+            Solver solver = new Solver();
+
+            while (!engine.isGameOver()) {
+                double[] expected = bruteForce(engine);
+                double[] actual = hints.getMineProbabilities();
+                for (int cell = 0; cell < expected.length; cell++) {
+                    assertEquals("seed " + seed + " cell " + cell, expected[cell], actual[cell], 1e-9);
+                }
+                int cell = solver.nextMove(engine);
+                engine.reveal(cell / 6, cell % 6);
+            }
+        }
+    }
+
+    @Test
+    public void testFollowsUndoRedoAndRestart() {
+        for (long seed = 0; seed < 10; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(5, 6, 6, seed);
+            engine.startGame();
+            HintEngine hints = engine.getHintEngine();
+            Solver solver = new Solver();
+            for (int step = 0; step < 3 && !engine.isGameOver(); step++) {
+                int cell = solver.nextMove(engine);
+                engine.reveal(cell / 6, cell % 6);
+            }
+            hints.getMineProbabilities();
+
+            engine.undo();
+            engine.undo();
+            assertMatchesBruteForce(engine, hints, seed);
+            engine.redo();
+            assertMatchesBruteForce(engine, hints, seed);
+            engine.restartBoard();
+            assertMatchesBruteForce(engine, hints, seed);
+        }
+    }
+
+    private static void assertMatchesBruteForce(MineSweeperEngine engine, HintEngine hints, long seed) {
+        double[] expected = bruteForce(engine);
+        double[] actual = hints.getMineProbabilities();
+        for (int cell = 0; cell < expected.length; cell++) {
+            assertEquals("seed " + seed + " cell " + cell, expected[cell], actual[cell], 1e-9);
+        }
+    }
+
+    @Test
+    public void testUntouchedComponentsAreCached() {
+        // Two separate uncovered numbers give two frontier components
+        MineSweeperEngine engine = null;
+        int[] far = null;
+        for (long seed = 0; far == null && seed < 1000; seed++) {
+            engine = new MineSweeperEngine(20, 20, 60, seed);
+            engine.startGame();
+            far = twoSafeNumbers(engine);
+        }
+        assertNotNull(far);
+
+        HintEngine hints = engine.getHintEngine();
+        engine.reveal(far[0] / 20, far[0] % 20);
+        hints.getMineProbabilities();
+        engine.reveal(far[1] / 20, far[1] % 20);
+        hints.getMineProbabilities();
+        assertEquals(1, hints.getLastEnumerated());
+
+        hints.getMineProbabilities();
+        assertEquals(0, hints.getLastEnumerated());
+    }
+
+    @Test
+    public void testProbabilitiesOfRevealedTilesAreZero() {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 10, 3L);
+        engine.startGame();
+        for (int cell = 0; cell < 100; cell++) {
+            if (!engine.isMine(cell / 10, cell % 10)) {
+                engine.reveal(cell / 10, cell % 10);
+                break;
+            }
+        }
+
+        double[] probabilities = engine.getMineProbabilities();
+        double total = 0;
+        for (int cell = 0; cell < 100; cell++) {
+            if (engine.isRevealed(cell / 10, cell % 10)) {
+                assertEquals(0, probabilities[cell], 0);
+            }
+            total += probabilities[cell];
+        }
+        // The probabilities add up to the expected number of mines
+        assertEquals(10, total, 1e-9);
+    }
+
+    @Test
+    public void testUntouchedBoardUsesMineDensity() {
+        MineSweeperEngine engine = new MineSweeperEngine(8, 10, 20, 5L);
+        engine.startGame();
+
+        double[] probabilities = engine.getMineProbabilities();
+        for (double probability : probabilities) {
+            assertEquals(0.25, probability, 1e-12);
+        }
+    }
+
+    /**
+     * Finds two safe numbered tiles whose uncovered areas stay at least four
+     * tiles apart, so that revealing them yields two independent components.
+     */
+    private static int[] twoSafeNumbers(MineSweeperEngine engine) {
+        int first = -1;
+        for (int cell = 0; cell < 400; cell++) {
+            int row = cell / 20;
+            int col = cell % 20;
+            if (engine.isMine(row, col) || engine.getMinesCount(row, col) == 0) {
+                continue;
+            }
+            if (first < 0) {
+                first = cell;
+            } else if (Math.abs(row - first / 20) >= 4 || Math.abs(col - first % 20) >= 4) {
+                return new int[] { first, cell };
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Enumerates every placement of the mines over the covered tiles and keeps
+     * those consistent with the uncovered numbers.
+     */
+    private static double[] bruteForce(MineSweeperEngine engine) {
+        int rows = engine.getNumRows();
+        int cols = engine.getNumCols();
+        int[] covered = new int[rows * cols];
+        int count = 0;
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (!engine.isRevealed(cell / cols, cell % cols)) {
+                covered[count++] = cell;
+            }
+        }
+        long[] mineCounts = new long[rows * cols];
+        long[] total = new long[1];
+        place(engine, covered, count, 0, engine.getTotalMines(), new boolean[rows * cols], mineCounts, total);
+
+        double[] probabilities = new double[rows * cols];
+        for (int cell = 0; cell < probabilities.length; cell++) {
+            probabilities[cell] = (double) mineCounts[cell] / total[0];
+        }
+        return probabilities;
+    }
+
+    private static void place(MineSweeperEngine engine, int[] covered, int count, int from, int mines,
+            boolean[] layout, long[] mineCounts, long[] total) {
+        if (mines == 0) {
+            if (consistent(engine, layout)) {
+                total[0]++;
+                for (int cell = 0; cell < layout.length; cell++) {
+                    if (layout[cell]) {
+                        mineCounts[cell]++;
+                    }
+                }
+            }
+            return;
+        }
+        for (int i = from; i <= count - mines; i++) {
+            layout[covered[i]] = true;
+            place(engine, covered, count, i + 1, mines - 1, layout, mineCounts, total);
+            layout[covered[i]] = false;
+        }
+    }
+
+    private static boolean consistent(MineSweeperEngine engine, boolean[] layout) {
+        int rows = engine.getNumRows();
+        int cols = engine.getNumCols();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (!engine.isRevealed(row, col)) {
+                    continue;
+                }
+                int mines = 0;
+                for (int nr = Math.max(0, row - 1); nr <= Math.min(rows - 1, row + 1); nr++) {
+                    for (int nc = Math.max(0, col - 1); nc <= Math.min(cols - 1, col + 1); nc++) {
+                        if (layout[nr * cols + nc]) {
+                            mines++;
+                        }
+                    }
+                }
+                if (mines != engine.getMinesCount(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,101 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        long[] values = { 0, 1, 3, 4, 5, 7, 8, 9, 31, 32, 33, 100, 1000, 123456789, Long.MAX_VALUE };
+        for (int bits : new int[] { 2, 5 }) {
+            Histogram histogram = new Histogram(bits);
+            for (long value : values) {
+                int bucket = histogram.bucketOf(value);
+                assertTrue(value + " above its bucket", value <= histogram.upperBoundOf(bucket));
+                assertTrue(value + " below its bucket", bucket == 0 || value > histogram.upperBoundOf(bucket - 1));
+            }
+            assertEquals(Histogram.bucketCount(bits) - 1, histogram.bucketOf(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testFinerBucketsNarrowThePercentile() {
+        Histogram histogram = new Histogram(5);
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(String.valueOf(p99), p99 >= 99_000_000L && p99 <= 99_000_000L * 33 / 32);
+    }
+
+    @Test
+    public void testCopyIsDetached() {
+        Histogram histogram = new Histogram(5);
+        histogram.record(100);
+        Histogram copy = histogram.copy();
+        histogram.record(1_000_000);
+
+        assertEquals(1, copy.getCount());
+        assertEquals(100, copy.getMax());
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    public void testPercentilesAreWithinOneBucket() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+
+        long p50 = histogram.getPercentile(0.5);
+        assertTrue(String.valueOf(p50), p50 >= 500 && p50 <= 500 * 5 / 4);
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(String.valueOf(p99), p99 >= 990 && p99 <= 1000);
+        assertEquals(1000, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, new Histogram().getPercentile(0.99));
+        assertEquals(0, new Histogram().getMean(), 0);
+    }
+
+    @Test
+    public void testRecordsFromManyThreads() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.getCount());
+        assertEquals(9999, histogram.getMax());
+    }
+
+    @Test
+    public void testAddsSavedBuckets() {
+        Histogram saved = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            saved.record(i * 10);
+        }
+        Histogram loaded = new Histogram();
+        loaded.add(saved.getBucketCounts(), saved.getSum(), saved.getMax());
+
+        assertEquals(saved.toString(), loaded.toString());
+    }
+}
@@ -0,0 +1,321 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MineSweeperEngineTest {
+
+    private MineSweeperEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new MineSweeperEngine(6, 8, 10);
+        engine.startGame();
+    }
+
+    private int countMines() {
+        int mines = 0;
+        for (int r = 0; r < engine.getNumRows(); r++) {
+            for (int c = 0; c < engine.getNumCols(); c++) {
+                if (engine.isMine(r, c)) {
+                    mines++;
+                }
+            }
+        }
+        return mines;
+    }
+
+    @Test
+    public void testStartGamePlacesAllMines() {
+        assertEquals(10, countMines());
+        assertFalse(engine.isGameOver());
+    }
+
+    @Test
+    public void testMinesCountMatchesNeighbours() {
+        for (int r = 0; r < engine.getNumRows(); r++) {
+            for (int c = 0; c < engine.getNumCols(); c++) {
+                int expected = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nr = r + dr;
+                        int nc = c + dc;
+                        if ((dr != 0 || dc != 0) && nr >= 0 && nr < engine.getNumRows()
+                                && nc >= 0 && nc < engine.getNumCols() && engine.isMine(nr, nc)) {
+                            expected++;
+                        }
+                    }
+                }
+                assertEquals(expected, engine.getMinesCount(r, c));
+            }
+        }
+    }
+
+    @Test
+    public void testMinesCountOnFullyMinedNeighbourhood() {
+        engine = new MineSweeperEngine(3, 3, 8);
+        engine.startGame();
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                if (!engine.isMine(r, c)) {
+                    int neighbours = (r == 1 ? 3 : 2) * (c == 1 ? 3 : 2) - 1;
+                    assertEquals(neighbours, engine.getMinesCount(r, c));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSameSeedReproducesBoard() {
+        MineSweeperEngine first = new MineSweeperEngine(16, 30, 99, BoardRandom.xoroshiro(42L));
+        MineSweeperEngine second = new MineSweeperEngine(16, 30, 99, BoardRandom.xoroshiro(42L));
+        first.startGame();
+        second.startGame();
+
+        for (int r = 0; r < 16; r++) {
+            for (int c = 0; c < 30; c++) {
+                assertEquals(first.isMine(r, c), second.isMine(r, c));
+            }
+        }
+        assertEquals(42L, first.getSeed());
+    }
+
+    @Test
+    public void testDenseBoardPlacesAllMines() {
+        engine = new MineSweeperEngine(26, 26, 675, 3L);
+        engine.startGame();
+        assertEquals(675, countMines());
+    }
+
+    @Test
+    public void testRevealMineLosesGame() {
+        for (int r = 0; r < engine.getNumRows(); r++) {
+            for (int c = 0; c < engine.getNumCols(); c++) {
+                if (engine.isMine(r, c)) {
+                    assertEquals(0, engine.reveal(r, c));
+                    assertTrue(engine.isGameOver());
+                    assertFalse(engine.isGameWon());
+                    return;
+                }
+            }
+        }
+        fail("No mine placed");
+    }
+
+    @Test
+    public void testRevealAllSafeTilesWinsGame() {
+        for (int r = 0; r < engine.getNumRows(); r++) {
+            for (int c = 0; c < engine.getNumCols(); c++) {
+                if (!engine.isMine(r, c)) {
+                    engine.reveal(r, c);
+                }
+            }
+        }
+        assertEquals(6 * 8 - 10, engine.getTilesClicked());
+        assertTrue(engine.isGameOver());
+        assertTrue(engine.isGameWon());
+    }
+
+    @Test
+    public void testFloodFillOpensLargeEmptyBoardInOneMove() {
+        engine = new MineSweeperEngine(2000, 2000, 0);
+        engine.startGame();
+
+        assertEquals(2000 * 2000, engine.reveal(1000, 1000));
+        assertEquals(2000 * 2000, engine.getRevealedCount());
+        assertTrue(engine.isGameWon());
+    }
+
+    @Test
+    public void testRevealedCellsAreReportedOnce() {
+        engine.toggleFlag(0, 0);
+        int revealed = engine.checkMine(engine.getNumRows() - 1, engine.getNumCols() - 1);
+
+        assertEquals(revealed, engine.getRevealedCount());
+        boolean[] seen = new boolean[engine.getNumRows() * engine.getNumCols()];
+        for (int i = 0; i < revealed; i++) {
+            int cell = engine.getRevealedCells()[i];
+            assertFalse(seen[cell]);
+            seen[cell] = true;
+            assertTrue(engine.isRevealed(cell / engine.getNumCols(), cell % engine.getNumCols()));
+        }
+        assertFalse(engine.isRevealed(0, 0));
+    }
+
+    @Test
+    public void testCompletionCarriesWinningResult() {
+        assertFalse(engine.getCompletion().isDone());
+        engine.toggleFlag(0, 0);
+        engine.toggleFlag(0, 0);
+        int reveals = 0;
+        for (int r = 0; r < engine.getNumRows(); r++) {
+            for (int c = 0; c < engine.getNumCols(); c++) {
+                if (!engine.isMine(r, c) && engine.reveal(r, c) > 0) {
+                    reveals++;
+                }
+            }
+        }
+
+        GameResult result = engine.getCompletion().getNow(null);
+        assertNotNull(result);
+        assertTrue(result.isWon());
+        assertEquals(reveals + 2, result.getMoves());
+        assertTrue(result.getDurationNanos() >= 0);
+    }
+
+    @Test
+    public void testCompletionCarriesLosingResult() {
+        engine.revealMines();
+        GameResult result = engine.getCompletion().getNow(null);
+        assertNotNull(result);
+        assertFalse(result.isWon());
+        assertEquals(0, result.getMoves());
+    }
+
+    @Test
+    public void testRectangularBoard() {
+        engine = new MineSweeperEngine(3, 1000, 0);
+        engine.startGame();
+        assertEquals(3000, engine.reveal(2, 999));
+        assertTrue(engine.isGameWon());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoardAboveMaxCellsRejected() {
+        new MineSweeperEngine(1 << 16, (1 << 14) + 1, 1);
+    }
+
+    @Test
+    public void testFlaggedTileIsNotRevealed() {
+        engine.toggleFlag(0, 0);
+        assertTrue(engine.isFlagged(0, 0));
+        assertEquals(0, engine.reveal(0, 0));
+        assertFalse(engine.isRevealed(0, 0));
+
+        engine.toggleFlag(0, 0);
+        assertFalse(engine.isFlagged(0, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyMinesRejected() {
+        new MineSweeperEngine(2, 2, 4);
+    }
+
+    @Test
+    public void testUndoAndRedoWalkThroughEveryPosition() {
+        MineSweeperEngine game = new MineSweeperEngine(16, 30, 99, 11L);
+        game.startGame();
+        Solver solver = new Solver();
+        List<String> positions = new ArrayList<>();
+        positions.add(describe(game));
+        for (int move = 0; !game.isGameOver(); move++) {
+            int cell = solver.nextMove(game);
+            if (move % 4 == 0) {
+                game.toggleFlag(cell / 30, cell % 30);
+                positions.add(describe(game));
+                game.toggleFlag(cell / 30, cell % 30);
+                positions.add(describe(game));
+            }
+            game.reveal(cell / 30, cell % 30);
+            positions.add(describe(game));
+        }
+        boolean won = game.isGameWon();
+
+        for (int i = positions.size() - 2; i >= 0; i--) {
+            assertTrue(game.undo());
+            assertEquals("position " + i, positions.get(i), describe(game));
+        }
+        assertFalse(game.undo());
+        assertFalse(game.getCompletion().isDone());
+        for (int i = 1; i < positions.size(); i++) {
+            assertTrue(game.redo());
+            assertEquals("position " + i, positions.get(i), describe(game));
+        }
+        assertFalse(game.redo());
+        assertEquals(won, game.getCompletion().join().isWon());
+    }
+
+    @Test
+    public void testUndoReportsChangedCells() {
+        MineSweeperEngine game = new MineSweeperEngine(9, 9, 0, 1L);
+        game.startGame();
+        assertEquals(81, game.reveal(4, 4));
+        assertTrue(game.isGameWon());
+
+        assertTrue(game.undo());
+        assertEquals(81, game.getRevealedCount());
+        assertEquals(0, game.getTilesClicked());
+        assertEquals(0, game.getMoves());
+        assertFalse(game.isGameOver());
+        assertTrue(game.redo());
+        assertEquals(81, game.getRevealedCount());
+        assertTrue(game.isGameWon());
+    }
+
+    @Test
+    public void testUndoReopensLostGame() {
+        MineSweeperEngine game = new MineSweeperEngine(6, 8, 10, 4L);
+        game.startGame();
+        int mine = 0;
+        while (!game.isMine(mine / 8, mine % 8)) {
+            mine++;
+        }
+        game.reveal(mine / 8, mine % 8);
+        assertTrue(game.getCompletion().isDone());
+
+        assertTrue(game.undo());
+        assertFalse(game.isGameOver());
+        assertFalse(game.getCompletion().isDone());
+        assertEquals(0, game.getRevealedCount());
+        assertTrue(game.redo());
+        assertTrue(game.isGameOver());
+        assertFalse(game.getCompletion().join().isWon());
+    }
+
+    @Test
+    public void testNewMoveDiscardsRedo() {
+        MineSweeperEngine game = new MineSweeperEngine(6, 8, 10, 4L);
+        game.startGame();
+        game.toggleFlag(0, 0);
+        game.toggleFlag(1, 1);
+        assertTrue(game.undo());
+        assertTrue(game.canRedo());
+        game.toggleFlag(2, 2);
+        assertFalse(game.canRedo());
+        assertFalse(game.redo());
+        assertTrue(game.isFlagged(0, 0));
+        assertFalse(game.isFlagged(1, 1));
+        assertTrue(game.isFlagged(2, 2));
+    }
+
+    @Test
+    public void testHistoryLimitForgetsOldestMoves() {
+        MineSweeperEngine game = new MineSweeperEngine(6, 8, 10, 4L);
+        game.startGame();
+        game.setHistoryLimit(3);
+        for (int cell = 0; cell < 5; cell++) {
+            game.toggleFlag(0, cell);
+        }
+        assertTrue(game.undo());
+        assertTrue(game.undo());
+        assertTrue(game.undo());
+        assertFalse(game.undo());
+        assertTrue(game.isFlagged(0, 0));
+        assertTrue(game.isFlagged(0, 1));
+        assertFalse(game.isFlagged(0, 2));
+    }
+
+    private static String describe(MineSweeperEngine game) {
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < game.getNumRows(); row++) {
+            for (int col = 0; col < game.getNumCols(); col++) {
+                text.append(game.isRevealed(row, col) ? 'R' : game.isFlagged(row, col) ? 'F' : '_');
+            }
+        }
+        return text.append(game.getMoves()).append(game.getTilesClicked()).append(game.isGameOver())
+                .append(game.isGameWon()).toString();
+    }
+}
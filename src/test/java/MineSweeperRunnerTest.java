@@ -4,9 +4,16 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class MineSweeperRunnerTest {
@@ -48,6 +55,26 @@ public class MineSweeperRunnerTest {
         assertTrue(output.contains("Here is your minefield:"));
     }
 
+    @Test
+    public void testHeadlessGameDoesNotLoadAwt() throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-verbose:class", "-cp", System.getProperty("java.class.path"),
+                "MineSweeperRunner", "--headless").redirectErrorStream(true).start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write("4\n1\nexit\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        String output;
+        try (Scanner scanner = new Scanner(process.getInputStream(), "US-ASCII")) {
+            output = scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+        assertEquals(0, process.waitFor());
+
+        assertTrue(output.contains("Here is your minefield:"));
+        assertFalse(output.contains("java.awt."));
+        assertFalse(output.contains("javax.swing."));
+        assertFalse(output.contains("SwingBoardView"));
+    }
+
     @Test
     public void testPlayAgain() {
         String input = "4\n1\nexit\n";
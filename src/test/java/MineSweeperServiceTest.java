@@ -1,12 +1,21 @@
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.Assert.*;
 
 public class MineSweeperServiceTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private final PrintStream systemOut = System.out;
     private ByteArrayOutputStream testOut;
 
@@ -34,6 +43,31 @@ public class MineSweeperServiceTest {
         assertTrue(output.contains("Here is your minefield:"));
     }
 
+    @Test
+    public void testHeadlessServicePlaysOnTheConsole() {
+        GameService service = GameService.headless(5, 6, 0);
+        assertTrue(((MineSweeperService) service).isHeadless());
+        service.startGame();
+        assertEquals(30, service.reveal(2, 3));
+        assertTrue(service.isGameWon());
+        assertTrue(getOutput().contains("Congratulations, you have won the game!"));
+    }
+
+    @Test
+    public void testHeadlessPropertyIsReadBeforeAwt() {
+        String previous = System.setProperty("minesweeper.headless", "true");
+        try {
+            assertTrue(Display.isHeadless());
+            assertTrue(((MineSweeperService) GameService.create(3, 3, 1)).isHeadless());
+        } finally {
+            if (previous == null) {
+                System.clearProperty("minesweeper.headless");
+            } else {
+                System.setProperty("minesweeper.headless", previous);
+            }
+        }
+    }
+
     @Test
     public void testRevealMines() {
         MineSweeperService service = new MineSweeperService(4, 2);
@@ -43,6 +77,50 @@ public class MineSweeperServiceTest {
         String output = getOutput();
         assertTrue(output.contains("Oh no, you detonated a mine! Game over."));
         assertTrue(service.isGameOver());
+        assertTrue(service.getCompletion().isDone());
+        assertFalse(service.getCompletion().join().isWon());
+    }
+
+    @Test
+    public void testUndoReopensFinishedGame() {
+        MineSweeperService service = new MineSweeperService(4, 2);
+        service.startGame();
+        service.revealMines();
+        CompletableFuture<GameResult> lost = service.getCompletion();
+
+        assertTrue(service.undo());
+        assertFalse(service.isGameOver());
+        assertNotSame(lost, service.getCompletion());
+        assertFalse(service.getCompletion().isDone());
+        assertFalse(service.undo());
+
+        assertTrue(service.redo());
+        assertTrue(service.isGameOver());
+        assertFalse(service.getCompletion().join().isWon());
+    }
+
+    @Test
+    public void testGameEndedTwiceIsRecordedOnce() throws IOException {
+        GameMetrics metrics = new GameMetrics(null);
+        try (GameStatsStore stats = new GameStatsStore(folder.getRoot().toPath().resolve("games.stats"))) {
+            MineSweeperService service = new MineSweeperService(3, 3, 1, metrics, null, true, stats);
+            service.startGame();
+            service.revealMines();
+            assertTrue(service.undo());
+
+            MineSweeperEngine engine = service.getEngine();
+            for (int cell = 0; cell < 9; cell++) {
+                if (!engine.isMine(cell / 3, cell % 3)) {
+                    service.reveal(cell / 3, cell % 3);
+                }
+            }
+            assertTrue(service.getCompletion().join().isWon());
+
+            assertEquals(1, metrics.getLosses());
+            assertEquals(0, metrics.getWins());
+            assertEquals(1, stats.getGames());
+            assertEquals(0, stats.getSummary(3, 3, 1).getWins());
+        }
     }
 
     @Test
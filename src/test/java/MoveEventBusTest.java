@@ -0,0 +1,114 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MoveEventBusTest {
+
+    @Test
+    public void testPublishesFloodFillAsOneEvent() throws InterruptedException {
+        MineSweeperEngine engine = new MineSweeperEngine(9, 9, 0, 1L);
+        engine.startGame();
+        BlockingQueue<MoveEvent> received = new LinkedBlockingQueue<>();
+        engine.getEvents().subscribe(received::add);
+
+        engine.toggleFlag(0, 0);
+        engine.toggleFlag(0, 0);
+        engine.reveal(4, 4);
+        engine.undo();
+
+        MoveEvent flagged = next(received);
+        assertEquals(MoveEvent.FLAGGED, flagged.getType());
+        assertEquals(1, flagged.getSequence());
+        assertEquals(MoveEvent.UNFLAGGED, next(received).getType());
+        MoveEvent uncovered = next(received);
+        assertEquals(MoveEvent.UNCOVERED, uncovered.getType());
+        assertEquals(40, uncovered.getCell());
+        assertEquals(81, uncovered.getCells().length);
+        assertEquals(MoveEvent.WON, uncovered.getStatus());
+        MoveEvent over = next(received);
+        assertEquals(MoveEvent.GAME_OVER, over.getType());
+        assertEquals(MoveEvent.WON, over.getStatus());
+        MoveEvent covered = next(received);
+        assertEquals(MoveEvent.COVERED, covered.getType());
+        assertEquals(81, covered.getCells().length);
+        MoveEvent reopened = next(received);
+        assertEquals(MoveEvent.REOPENED, reopened.getType());
+        assertEquals(MoveEvent.PLAYING, reopened.getStatus());
+        assertEquals(6, reopened.getSequence());
+    }
+
+    @Test
+    public void testSlowSubscriberNeverStallsMoves() throws InterruptedException {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 10, 3L);
+        engine.startGame();
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<MoveEvent> slow = new LinkedBlockingQueue<>();
+        MoveEventBus.Subscription blocked = engine.getEvents().subscribe(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slow.add(event);
+        }, 4);
+        List<MoveEvent> fast = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        int moves = 10000;
+        engine.getEvents().subscribe(event -> {
+            fast.add(event);
+            if (fast.size() == moves) {
+                done.countDown();
+            }
+        }, moves);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < moves; i++) {
+            engine.toggleFlag(0, 0);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < moves; i++) {
+            assertEquals(i + 1, fast.get(i).getSequence());
+        }
+        assertTrue(blocked.getDropped() >= moves - 5);
+
+        release.countDown();
+        MoveEvent last = null;
+        for (MoveEvent event = next(slow); event != null; event = slow.poll(1, TimeUnit.SECONDS)) {
+            last = event;
+        }
+        assertEquals(MoveEvent.MISSED, last.getType());
+        engine.toggleFlag(0, 0);
+        assertEquals(moves + 1, next(slow).getSequence());
+    }
+
+    @Test
+    public void testFailingSubscriberIsRemoved() throws InterruptedException {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 10, 3L);
+        engine.startGame();
+        CountDownLatch failed = new CountDownLatch(1);
+        engine.getEvents().subscribe(event -> {
+            failed.countDown();
+            throw new IllegalStateException("observer failed");
+        });
+        engine.toggleFlag(0, 0);
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && engine.getEvents().hasSubscribers(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(engine.getEvents().hasSubscribers());
+    }
+
+    private static MoveEvent next(BlockingQueue<MoveEvent> received) throws InterruptedException {
+        MoveEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        return event;
+    }
+}
@@ -0,0 +1,58 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MoveHistoryTest {
+
+    @Test
+    public void testPacksRecords() {
+        MoveHistory history = new MoveHistory(16);
+        history.push(MoveListener.UNCOVER, (1 << 30) - 1, true, new int[] { 7, 8, 9 }, 3);
+        long record = history.undo();
+        assertEquals(MoveListener.UNCOVER, MoveHistory.action(record));
+        assertEquals((1 << 30) - 1, MoveHistory.cell(record));
+        assertTrue(MoveHistory.ended(record));
+        assertEquals(3, MoveHistory.count(record));
+        assertEquals(0, history.getCellsPosition());
+        assertArrayEquals(new int[] { 7, 8, 9 }, Arrays.copyOf(history.getCells(), 3));
+    }
+
+    @Test
+    public void testKeepsCellsOfRetainedMovesWhenDroppingOldest() {
+        MoveHistory history = new MoveHistory(4);
+        int[] cells = new int[40];
+        for (int move = 0; move < 100; move++) {
+            for (int i = 0; i < 40; i++) {
+                cells[i] = move * 1000 + i;
+            }
+            history.push(MoveListener.REVEAL, move, false, cells, move % 40 + 1);
+        }
+        assertEquals(4, history.size());
+        for (int move = 99; move >= 96; move--) {
+            long record = history.undo();
+            assertEquals(move, MoveHistory.cell(record));
+            int count = MoveHistory.count(record);
+            assertEquals(move % 40 + 1, count);
+            for (int i = 0; i < count; i++) {
+                assertEquals(move * 1000 + i, history.getCells()[history.getCellsPosition() + i]);
+            }
+        }
+        assertFalse(history.canUndo());
+        assertTrue(history.getCells().length < 1000);
+    }
+
+    @Test
+    public void testPushDropsUndoneMoves() {
+        MoveHistory history = new MoveHistory(8);
+        history.push(MoveListener.FLAG, 1, false, new int[0], 0);
+        history.push(MoveListener.FLAG, 2, false, new int[0], 0);
+        history.undo();
+        assertTrue(history.canRedo());
+        history.push(MoveListener.FLAG, 3, false, new int[0], 0);
+        assertFalse(history.canRedo());
+        assertEquals(3, MoveHistory.cell(history.undo()));
+        assertEquals(1, MoveHistory.cell(history.undo()));
+    }
+}
@@ -0,0 +1,211 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MoveJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecordsOneCompactRecordPerMove() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(4, 4, 3, 1L);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        try (MoveJournal journal = new MoveJournal(engine, file, MoveJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+            engine.toggleFlag(0, 0);
+            engine.toggleFlag(0, 0);
+            engine.toggleFlag(3, 3);
+            // Ignored moves are not recorded
+            engine.toggleFlag(9, 9);
+            assertEquals(3, journal.getRecords());
+        }
+
+        // Cells 0 and 15 fit in one varint byte each
+        assertEquals(MoveJournal.HEADER_BYTES + 3, Files.size(file));
+        assertEquals(3, JournalReplayer.countMoves(file));
+    }
+
+    @Test
+    public void testReplaysEveryPosition() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(30, 40, 60, 5L);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        List<String> positions = new ArrayList<>();
+        positions.add(describe(engine));
+        try (MoveJournal journal = new MoveJournal(engine, file, 7)) {
+            Solver solver = new Solver();
+            int numCols = engine.getNumCols();
+            for (int move = 0; !engine.isGameOver(); move++) {
+                int cell = solver.nextMove(engine);
+                if (move % 5 == 0) {
+                    engine.toggleFlag(cell / numCols, cell % numCols);
+                    positions.add(describe(engine));
+                    engine.toggleFlag(cell / numCols, cell % numCols);
+                    positions.add(describe(engine));
+                }
+                engine.reveal(cell / numCols, cell % numCols);
+                positions.add(describe(engine));
+            }
+        }
+        assertTrue(Files.exists(MoveJournal.snapshotPath(file, 7)));
+
+        long moves = JournalReplayer.countMoves(file);
+        assertEquals(positions.size() - 1, moves);
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals("position " + i, positions.get(i), describe(JournalReplayer.replay(file, i)));
+        }
+        assertEquals(engine.isGameWon(), JournalReplayer.replay(file, Long.MAX_VALUE).isGameWon());
+    }
+
+    @Test
+    public void testRecordsCheckMineAndRevealMines() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 10, 2L);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        try (MoveJournal journal = new MoveJournal(engine, file, 100)) {
+            for (int cell = 0; cell < 100; cell++) {
+                if (!engine.isMine(cell / 10, cell % 10)) {
+                    engine.checkMine(cell / 10, cell % 10);
+                    break;
+                }
+            }
+            engine.revealMines();
+            assertEquals(2, journal.getRecords());
+        }
+
+        MineSweeperEngine replayed = JournalReplayer.replay(file, 2);
+        assertEquals(describe(engine), describe(replayed));
+        assertTrue(replayed.isGameOver());
+        assertEquals(0, replayed.getMoves());
+    }
+
+    @Test
+    public void testReplaysUndoAndRedo() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 10, 2L);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        List<String> positions = new ArrayList<>();
+        positions.add(describe(engine));
+        try (MoveJournal journal = new MoveJournal(engine, file, 100)) {
+            engine.toggleFlag(0, 0);
+            positions.add(describe(engine));
+            engine.toggleFlag(0, 1);
+            positions.add(describe(engine));
+            engine.undo();
+            positions.add(describe(engine));
+            engine.undo();
+            positions.add(describe(engine));
+            engine.redo();
+            positions.add(describe(engine));
+            engine.toggleFlag(9, 9);
+            positions.add(describe(engine));
+        }
+        // Undo and redo are ordinary records, replayed on the engine's history
+        assertFalse(Files.exists(MoveJournal.snapshotPath(file, 3)));
+        assertEquals(6, JournalReplayer.countMoves(file));
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals("position " + i, positions.get(i), describe(JournalReplayer.replay(file, i)));
+        }
+    }
+
+    @Test
+    public void testReplayStartsBeforeUndoneMoves() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(10, 10, 10, 2L);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        List<String> positions = new ArrayList<>();
+        positions.add(describe(engine));
+        try (MoveJournal journal = new MoveJournal(engine, file, 2)) {
+            for (int col = 0; col < 4; col++) {
+                engine.toggleFlag(0, col);
+                positions.add(describe(engine));
+            }
+            // Moves 5 to 7 undo moves 4, 3 and 2, past the snapshots at 4 and 6
+            for (int i = 0; i < 3; i++) {
+                engine.undo();
+                positions.add(describe(engine));
+            }
+            engine.redo();
+            positions.add(describe(engine));
+            engine.toggleFlag(9, 9);
+            positions.add(describe(engine));
+        }
+        assertTrue(Files.exists(MoveJournal.snapshotPath(file, 6)));
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals("position " + i, positions.get(i), describe(JournalReplayer.replay(file, i)));
+        }
+
+        // A game replayed from the first snapshot keeps the history of its moves
+        MineSweeperEngine replayed = JournalReplayer.replay(file, 7);
+        assertTrue(replayed.redo());
+        assertEquals(positions.get(8), describe(replayed));
+        assertTrue(replayed.undo());
+        assertTrue(replayed.undo());
+        assertEquals(positions.get(0), describe(replayed));
+    }
+
+    @Test
+    public void testStopsAtTruncatedRecord() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(100, 100, 10, 3L);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        try (MoveJournal journal = new MoveJournal(engine, file, 100)) {
+            engine.toggleFlag(0, 1);
+            engine.toggleFlag(99, 99);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertEquals(1, JournalReplayer.countMoves(file));
+        MineSweeperEngine replayed = JournalReplayer.replay(file, Long.MAX_VALUE);
+        assertTrue(replayed.isFlagged(0, 1));
+        assertFalse(replayed.isFlagged(99, 99));
+    }
+
+    @Test
+    public void testKeepsTheBoardPlacedByTheFirstMove() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(16, 16, 40, BoardRandom.splittable(2L), BoardMode.NO_GUESS);
+        engine.startGame();
+        Path file = folder.getRoot().toPath().resolve("game.journal");
+
+        try (MoveJournal journal = new MoveJournal(engine, file, 100)) {
+            engine.reveal(8, 8);
+            engine.toggleFlag(0, 0);
+        }
+        assertTrue(Files.exists(MoveJournal.snapshotPath(file, 1)));
+
+        MineSweeperEngine replayed = JournalReplayer.replay(file, Long.MAX_VALUE);
+        assertTrue(replayed.isGuessFree());
+        assertEquals(engine.getPlacementSeed(), replayed.getPlacementSeed());
+        assertEquals(describe(engine), describe(replayed));
+        for (int cell = 0; cell < 256; cell++) {
+            assertEquals(engine.isMine(cell / 16, cell % 16), replayed.isMine(cell / 16, cell % 16));
+        }
+    }
+
+    private static String describe(MineSweeperEngine engine) {
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < engine.getNumRows(); row++) {
+            for (int col = 0; col < engine.getNumCols(); col++) {
+                text.append(engine.isRevealed(row, col) ? 'R' : engine.isFlagged(row, col) ? 'F' : '_');
+            }
+        }
+        return text.append(engine.getMoves()).append(engine.isGameOver()).append(engine.isGameWon()).toString();
+    }
+}
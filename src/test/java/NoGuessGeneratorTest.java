@@ -0,0 +1,109 @@
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NoGuessGeneratorTest {
+
+    @Test
+    public void testBoardModeNames() {
+        assertEquals(BoardMode.NO_GUESS, BoardMode.named("no-guess"));
+        assertEquals(BoardMode.SAFE_START, BoardMode.named(" Safe_Start "));
+        try {
+            BoardMode.named("unknown");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown board mode: unknown", e.getMessage());
+        }
+        assertEquals(BoardMode.CLASSIC, BoardMode.configured());
+    }
+
+    @Test
+    public void testFirstClickOpensAnArea() {
+        for (long seed = 0; seed < 50; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(9, 9, 10, BoardRandom.splittable(seed),
+                    BoardMode.SAFE_START);
+            engine.startGame();
+            assertFalse(engine.isMinesPlaced());
+
+            int row = (int) (seed % 9);
+            int col = (int) (seed * 7 % 9);
+            assertTrue(engine.reveal(row, col) > 1);
+            assertTrue(engine.isMinesPlaced());
+            assertFalse(engine.isGameOver() && !engine.isGameWon());
+            assertEquals(0, engine.getMinesCount(row, col));
+            assertEquals(10, countMines(engine));
+        }
+    }
+
+    @Test
+    public void testDenseBoardOnlySparesTheFirstClick() {
+        MineSweeperEngine engine = new MineSweeperEngine(4, 4, 12, BoardRandom.splittable(3L), BoardMode.SAFE_START);
+        engine.startGame();
+        engine.reveal(1, 1);
+        assertFalse(engine.isMine(1, 1));
+        assertEquals(12, countMines(engine));
+    }
+
+    @Test
+    public void testNoGuessBoardIsSolvedWithoutGuessing() {
+        for (long seed = 1; seed <= 5; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(16, 16, 40, BoardRandom.splittable(seed),
+                    BoardMode.NO_GUESS);
+            engine.startGame();
+            engine.reveal(8, 8);
+
+            Solver solver = new Solver();
+            while (!engine.isGameOver()) {
+                int cell = solver.nextMove(engine);
+                engine.reveal(cell / 16, cell % 16);
+            }
+            assertTrue(engine.isGameWon());
+            assertEquals(0, solver.getGuesses());
+            assertTrue(engine.isGuessFree());
+        }
+    }
+
+    @Test
+    public void testNoGuessBoardDependsOnlyOnSeedAndFirstClick() {
+        MineSweeperEngine first = new MineSweeperEngine(12, 12, 25, BoardRandom.splittable(77L), BoardMode.NO_GUESS);
+        MineSweeperEngine second = new MineSweeperEngine(12, 12, 25, BoardRandom.splittable(77L), BoardMode.NO_GUESS);
+        first.startGame();
+        second.startGame();
+        first.reveal(3, 4);
+        second.reveal(3, 4);
+        for (int row = 0; row < 12; row++) {
+            for (int col = 0; col < 12; col++) {
+                assertEquals(first.isMine(row, col), second.isMine(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void testDenseBoardReportsTheFallback() {
+        NoGuessGenerator.Choice first = NoGuessGenerator.findSeed(9, 9, 40, BoardTopology.SQUARE, 40,
+                BoardRandom.splittable(1L));
+        NoGuessGenerator.Choice second = NoGuessGenerator.findSeed(9, 9, 40, BoardTopology.SQUARE, 40,
+                BoardRandom.splittable(1L));
+        assertFalse(first.isGuessFree());
+        assertEquals(first.getSeed(), second.getSeed());
+
+        MineSweeperEngine engine = new MineSweeperEngine(9, 9, 40, BoardRandom.splittable(1L), BoardMode.NO_GUESS);
+        engine.startGame();
+        engine.reveal(4, 4);
+        assertFalse(engine.isGuessFree());
+        assertEquals(first.getSeed(), engine.getPlacementSeed());
+        assertEquals(40, countMines(engine));
+    }
+
+    private static int countMines(MineSweeperEngine engine) {
+        int mines = 0;
+        for (int row = 0; row < engine.getNumRows(); row++) {
+            for (int col = 0; col < engine.getNumCols(); col++) {
+                if (engine.isMine(row, col)) {
+                    mines++;
+                }
+            }
+        }
+        return mines;
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ScriptDriverTest {
+
+    private static String play(String script) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ScriptDriver(new ByteArrayInputStream(script.getBytes(StandardCharsets.US_ASCII)), out).run();
+        return out.toString("US-ASCII");
+    }
+
+    @Test
+    public void testPlaysSeededGameLikeTheEngine() throws IOException {
+        MineSweeperEngine engine = new MineSweeperEngine(16, 30, 99, BoardRandom.splittable(42L), BoardMode.SAFE_START);
+        engine.startGame();
+        int uncovered = engine.reveal(7, 2);
+        engine.toggleFlag(3, 1);
+
+        String output = play("new 30 16 99 seed=42 mode=safe_start\nreveal H3\nflag D2\r\nFLAG d2\n");
+        String[] lines = output.split("\n");
+        assertEquals("game 1 16x30 99 seed=42", lines[0]);
+        assertEquals("H3 " + uncovered + " PLAYING", lines[1]);
+        assertEquals("D2 F PLAYING", lines[2]);
+        assertEquals("d2 _ PLAYING", lines[3]);
+        assertEquals("games=1 moves=3 wins=0 losses=0 errors=0", lines[4]);
+    }
+
+    @Test
+    public void testUndoesAndRedoesMoves() throws IOException {
+        String output = play("new 3 3 0\nundo\nflag A1\nflag A1\nreveal B2\nundo\nundo\nredo\nredo\nredo\n");
+        String[] lines = output.split("\n");
+        assertEquals("ERR line 2: nothing to undo", lines[1]);
+        assertEquals("B2 9 WON", lines[4]);
+        assertEquals("undo 9 PLAYING", lines[5]);
+        assertEquals("undo 1 PLAYING", lines[6]);
+        assertEquals("redo 1 PLAYING", lines[7]);
+        assertEquals("redo 9 WON", lines[8]);
+        assertEquals("ERR line 10: nothing to redo", lines[9]);
+        assertEquals("games=1 moves=7 wins=1 losses=0 errors=2", lines[10]);
+    }
+
+    @Test
+    public void testCountsWinsAndLosses() throws IOException {
+        String output = play("# two games\n\nnew 3 3 0\nreveal B2\n  reveal  A1  \nnew 2 2 3 seed=1\nreveal A1\nreveal");
+        assertTrue(output, output.contains("B2 9 WON\n"));
+        assertTrue(output, output.contains("A1 0 WON\n"));
+        assertTrue(output, output.contains("A1 0 LOST\n"));
+        assertTrue(output, output.contains("ERR line 8: not a square on the board\n"));
+        assertTrue(output, output.endsWith("games=2 moves=3 wins=1 losses=1 errors=1\n"));
+    }
+
+    @Test
+    public void testReportsBadLines() throws IOException {
+        String output = play("reveal A1\nnew 4 4\nnew 4 4 2 seed=x\nnew 1 1 5\nnew 4 4 2\nreveal E1\nreveal A5\ndig A1\n");
+        assertEquals("ERR line 1: no game, start one with new\n"
+                + "ERR line 2: usage: new WIDTH HEIGHT MINES [seed=N] [mode=M] [topology=T]\n"
+                + "ERR line 3: unknown option\n"
+                + "ERR line 4: Mines count must be between 0 and 0\n", output.substring(0, output.indexOf("game 1")));
+        assertTrue(output, output.contains("ERR line 6: not a square on the board\n"));
+        assertTrue(output, output.contains("ERR line 7: not a square on the board\n"));
+        assertTrue(output, output.contains("ERR line 8: unknown command\n"));
+        assertTrue(output, output.endsWith("errors=7\n"));
+    }
+
+    @Test
+    public void testRejectsOverLongRowLabels() throws IOException {
+        String output = play("new 3 3 0\nflag ZZZZZZZ1\nreveal AAAAAAA1\nflag ZZZZZZ1\nreveal A1\n");
+        String[] lines = output.split("\n");
+        assertEquals("ERR line 2: not a square on the board", lines[1]);
+        assertEquals("ERR line 3: not a square on the board", lines[2]);
+        assertEquals("ERR line 4: not a square on the board", lines[3]);
+        assertEquals("A1 9 WON", lines[4]);
+    }
+
+    @Test
+    public void testSkipsLinesLongerThanTheBuffer() throws IOException {
+        StringBuilder script = new StringBuilder("new 5 5 0\n#");
+        for (int i = 0; i < ScriptDriver.BUFFER_SIZE * 2; i++) {
+            script.append('x');
+        }
+        script.append("\nreveal A1\n");
+        String output = play(script.toString());
+        assertTrue(output, output.contains("ERR line 2: line too long\n"));
+        assertTrue(output, output.contains("A1 25 WON\n"));
+    }
+
+    @Test
+    public void testStreamsManyMoves() throws IOException {
+        StringBuilder script = new StringBuilder();
+        int games = 2000;
+        for (int game = 0; game < games; game++) {
+            script.append("new 8 8 10 seed=").append(game).append('\n');
+            for (int cell = 0; cell < 64; cell++) {
+                script.append("flag ").append((char) ('A' + cell / 8)).append(cell % 8 + 1).append('\n');
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ScriptDriver driver = new ScriptDriver(new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.US_ASCII)), out);
+        driver.run();
+
+        assertEquals(games, driver.getGames());
+        assertEquals(games * 64L, driver.getMoves());
+        assertEquals(0, driver.getErrors());
+        String output = out.toString("US-ASCII");
+        assertEquals(games * 65 + 1, output.split("\n").length);
+    }
+}
@@ -0,0 +1,134 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SharedBoardTest {
+
+    @Test
+    public void testConcurrentFloodFillsUncoverEachTileOnce() throws Exception {
+        MineSweeperEngine engine = new MineSweeperEngine(300, 300, 900, 7L);
+        engine.startGame();
+        int players = 8;
+        SharedBoard board = new SharedBoard(engine, players, false);
+
+        List<Integer> safe = new ArrayList<>();
+        for (int cell = 0; cell < 300 * 300; cell++) {
+            if (!engine.isMine(cell / 300, cell % 300)) {
+                safe.add(cell);
+            }
+        }
+        CyclicBarrier start = new CyclicBarrier(players);
+        ExecutorService pool = Executors.newFixedThreadPool(players);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int player = 0; player < players; player++) {
+            int id = player;
+            List<Integer> order = new ArrayList<>(safe);
+            Collections.shuffle(order, new Random(player));
+            results.add(pool.submit(() -> {
+                start.await();
+                long uncovered = 0;
+                for (int cell : order) {
+                    uncovered += board.reveal(id, cell / 300, cell % 300);
+                }
+                return uncovered;
+            }));
+        }
+        long total = 0;
+        long scores = 0;
+        for (int player = 0; player < players; player++) {
+            total += results.get(player).get(30, TimeUnit.SECONDS);
+            scores += board.getScore(player);
+        }
+        pool.shutdown();
+
+        assertEquals(safe.size(), total);
+        assertEquals(safe.size(), scores);
+        assertEquals(safe.size(), board.getTilesClicked());
+        assertTrue(board.isGameWon());
+        assertTrue(board.getCompletion().join().isWon());
+        for (int cell : safe) {
+            assertTrue(board.isRevealed(cell / 300, cell % 300));
+        }
+    }
+
+    @Test
+    public void testMineEndsCooperativeGame() {
+        MineSweeperEngine engine = new MineSweeperEngine(6, 8, 10, 4L);
+        engine.startGame();
+        SharedBoard board = new SharedBoard(engine, 2, false);
+        int mine = firstMine(engine);
+
+        assertEquals(0, board.reveal(1, mine / 8, mine % 8));
+        assertTrue(board.isGameOver());
+        assertFalse(board.isGameWon());
+        assertTrue(board.isDetonated(mine / 8, mine % 8));
+        assertFalse(board.getCompletion().join().isWon());
+    }
+
+    @Test
+    public void testMineEliminatesCompetitivePlayer() {
+        MineSweeperEngine engine = new MineSweeperEngine(6, 8, 10, 4L);
+        engine.startGame();
+        SharedBoard board = new SharedBoard(engine, 2, true);
+        int mine = firstMine(engine);
+
+        board.reveal(1, mine / 8, mine % 8);
+        assertFalse(board.isGameOver());
+        assertTrue(board.isEliminated(1));
+        int safe = 0;
+        while (engine.isMine(safe / 8, safe % 8)) {
+            safe++;
+        }
+        assertEquals(0, board.reveal(1, safe / 8, safe % 8));
+        assertTrue(board.reveal(0, safe / 8, safe % 8) > 0);
+        assertEquals(0, board.getLeader());
+
+        int other = mine + 1;
+        while (!engine.isMine(other / 8, other % 8)) {
+            other++;
+        }
+        board.reveal(0, other / 8, other % 8);
+        assertTrue(board.isGameOver());
+        assertFalse(board.isGameWon());
+    }
+
+    @Test
+    public void testFlagsBlockReveals() {
+        MineSweeperEngine engine = new MineSweeperEngine(9, 9, 0, 1L);
+        engine.startGame();
+        SharedBoard board = new SharedBoard(engine, 1, false);
+
+        assertTrue(board.toggleFlag(0, 0, 0));
+        assertTrue(board.isFlagged(0, 0));
+        assertEquals(80, board.reveal(0, 4, 4));
+        assertFalse(board.isGameOver());
+        assertTrue(board.toggleFlag(0, 0, 0));
+        assertEquals(1, board.reveal(0, 0, 0));
+        assertTrue(board.isGameWon());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsBoardWithoutMines() {
+        MineSweeperEngine engine = new MineSweeperEngine(9, 9, 10, BoardRandom.splittable(1L), BoardMode.SAFE_START);
+        engine.startGame();
+        new SharedBoard(engine, 2, false);
+    }
+
+    private static int firstMine(MineSweeperEngine engine) {
+        int mine = 0;
+        while (!engine.isMine(mine / engine.getNumCols(), mine % engine.getNumCols())) {
+            mine++;
+        }
+        return mine;
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class SolverTest {
+
+    @Test
+    public void testDeducedMovesNeverHitMines() {
+        for (long seed = 0; seed < 300; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(16, 16, 40, seed);
+            engine.startGame();
+            Solver solver = new Solver();
+
+            while (!engine.isGameOver()) {
+                int guesses = solver.getGuesses();
+                int cell = solver.nextMove(engine);
+                assertTrue(cell >= 0);
+                int row = cell / 16;
+                int col = cell % 16;
+                assertFalse(engine.isRevealed(row, col));
+                if (engine.isMine(row, col)) {
+                    assertEquals("seed " + seed, guesses + 1, solver.getGuesses());
+                }
+                engine.reveal(row, col);
+            }
+        }
+    }
+
+    @Test
+    public void testSolvesBoardWithoutMines() {
+        MineSweeperEngine engine = new MineSweeperEngine(50, 80, 0, 1L);
+        engine.startGame();
+        Solver solver = new Solver();
+
+        assertTrue(solver.solve(engine));
+        assertEquals(0, solver.getGuesses());
+    }
+
+    @Test
+    public void testWinsMostBeginnerBoards() {
+        int wins = 0;
+        for (long seed = 0; seed < 500; seed++) {
+            MineSweeperEngine engine = new MineSweeperEngine(9, 9, 10, seed);
+            engine.startGame();
+            if (new Solver().solve(engine)) {
+                wins++;
+            }
+        }
+        assertTrue("won " + wins, wins > 300);
+    }
+
+    @Test
+    public void testPlaysThroughMineSweeperService() {
+        PrintStream systemOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            MineSweeperService service = new MineSweeperService(8, 8, 5);
+            service.startGame();
+            new Solver().solve(service);
+            assertTrue(service.isGameOver());
+            assertTrue(service.getCompletion().isDone());
+        } finally {
+            System.setOut(systemOut);
+        }
+    }
+}
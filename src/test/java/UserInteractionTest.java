@@ -7,7 +7,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.PrintStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class UserInteractionTest {
@@ -55,6 +57,65 @@ public class UserInteractionTest {
         assertTrue(output.contains("Invalid input. Please enter an integer."));
     }
 
+    @Test
+    public void testGetGridDimensionsSquare() {
+        provideInput("4\n");
+        UserInteraction ui = new UserInteraction();
+        assertArrayEquals(new int[] { 4, 4 }, ui.getGridDimensions());
+    }
+
+    @Test
+    public void testGetGridDimensionsRectangular() {
+        provideInput("abc\n1x40\n16x30\n");
+        UserInteraction ui = new UserInteraction();
+        assertArrayEquals(new int[] { 16, 30 }, ui.getGridDimensions());
+        String output = getOutput();
+        assertTrue(output.contains("Invalid input."));
+        assertTrue(output.contains("Enter the valid size of the grid"));
+    }
+
+    @Test
+    public void testGetGridSizeAbove26() {
+        provideInput("100\n");
+        UserInteraction ui = new UserInteraction();
+        assertEquals(100, ui.getGridSize());
+    }
+
+    @Test
+    public void testGetMinesCountRectangular() {
+        provideInput("169\n168\n");
+        UserInteraction ui = new UserInteraction();
+        assertEquals(168, ui.getMinesCount(16, 30));
+        assertTrue(getOutput().contains("between 1 and 168"));
+    }
+
+    @Test
+    public void testGetMoveParsesMultiLetterRows() {
+        provideInput("zz9\nab3\n");
+        UserInteraction ui = new UserInteraction();
+        assertArrayEquals(new int[] { 27, 2 }, ui.getMove(30, 5));
+        assertTrue(getOutput().contains("Enter a valid square"));
+    }
+
+    @Test
+    public void testGetMovePromptsBeforeWaitingForInput() {
+        provideInput("");
+        UserInteraction ui = new UserInteraction();
+        assertNull(ui.getMove(9, 9));
+        assertTrue(getOutput().contains("Select a square to reveal"));
+    }
+
+    @Test
+    public void testGetMovePromptsAgainAfterInvalidSquare() {
+        provideInput("Z1\nA1\n");
+        UserInteraction ui = new UserInteraction();
+        assertArrayEquals(new int[] { 0, 0 }, ui.getMove(9, 9));
+        String output = getOutput();
+        int first = output.indexOf("Select a square to reveal");
+        assertTrue(first >= 0);
+        assertTrue(output.indexOf("Select a square to reveal", first + 1) > output.indexOf("Enter a valid square"));
+    }
+
     @Test
     public void testGetMinesCountValidInput() {
         provideInput("3\n");